@@ -0,0 +1,30 @@
+package ru.practicum.shareit.admin;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.user.dto.UserCacheStatsDto;
+import ru.practicum.shareit.user.service.UserService;
+
+/**
+ * Operational endpoints kept apart from the public API, so that the gateway can keep /admin internal.
+ */
+@RestController
+@RequestMapping(path = "/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final UserService userService;
+
+    @GetMapping("/cache/users")
+    @ResponseStatus(HttpStatus.OK)
+    public UserCacheStatsDto getUserCacheStats() {
+        log.info("Got request to GET user cache stats");
+        return userService.getCacheStats();
+    }
+}
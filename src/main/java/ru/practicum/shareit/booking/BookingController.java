@@ -2,18 +2,36 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInitial;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingWindowDto;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
+import ru.practicum.shareit.booking.pipeline.BookingWritePipeline;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.idempotency.IdempotentRequests;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static ru.practicum.shareit.idempotency.IdempotentRequests.IDEMPOTENCY_KEY_HEADER;
 import static ru.practicum.shareit.item.ItemController.USERID_HEADER;
 
 @RestController
@@ -24,13 +42,21 @@ import static ru.practicum.shareit.item.ItemController.USERID_HEADER;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final ObjectProvider<BookingWritePipeline> writePipeline;
+    private final ObjectProvider<IdempotentRequests> idempotentRequests;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BookingDto create(@RequestHeader(USERID_HEADER) Long userId,
+                             @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
                              @RequestBody @Valid BookingDtoInitial bookingDtoInitial) {
         log.info("Got request to POST booking {}", bookingDtoInitial);
-        return bookingService.create(userId, bookingDtoInitial);
+        IdempotentRequests idempotency = idempotentRequests.getIfAvailable();
+        if (idempotencyKey != null && idempotency != null) {
+            return idempotency.execute(idempotencyKey, userId, "POST /bookings", bookingDtoInitial, BookingDto.class,
+                    () -> doCreate(userId, bookingDtoInitial));
+        }
+        return doCreate(userId, bookingDtoInitial);
     }
 
     @PatchMapping("/{bookingId}")
@@ -42,6 +68,52 @@ public class BookingController {
         return bookingService.setStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<BookingStatusResultDto> setStatuses(@RequestHeader(USERID_HEADER) Long userId,
+                                                    @RequestBody @NotEmpty @Size(max = 1000)
+                                                    List<@Valid BookingStatusUpdateDto> updates) {
+        log.info("Got request to PATCH {} bookings of owner id {}", updates.size(), userId);
+        return bookingService.setStatuses(userId, updates);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(USERID_HEADER) Long userId,
+                                @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Got request to subscribe to booking events of user id {}", userId);
+        return bookingService.subscribe(userId, lastEventId);
+    }
+
+    @GetMapping("/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public BookingStatsDto findStats(@RequestHeader(USERID_HEADER) Long userId) {
+        log.info("Got request to GET booking stats of user id {}", userId);
+        return bookingService.findStats(userId);
+    }
+
+    @GetMapping("/owner/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public BookingStatsDto findOwnerStats(@RequestHeader(USERID_HEADER) Long userId) {
+        log.info("Got request to GET booking stats of owner id {}", userId);
+        return bookingService.findOwnerStats(userId);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAll(@RequestHeader(USERID_HEADER) Long userId,
+                                                           @RequestParam(defaultValue = "ndjson") String format) {
+        log.info("Got request to export bookings of user id {} as {}", userId, format);
+        BookingExportFormat exportFormat = BookingExportFormat.from(format);
+        return exportResponse(exportFormat, bookingService.exportAll(userId, exportFormat));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportAllByItemOwner(@RequestHeader(USERID_HEADER) Long userId,
+                                                                      @RequestParam(defaultValue = "ndjson") String format) {
+        log.info("Got request to export bookings of owner id {} as {}", userId, format);
+        BookingExportFormat exportFormat = BookingExportFormat.from(format);
+        return exportResponse(exportFormat, bookingService.exportAllByItemOwner(userId, exportFormat));
+    }
+
     @GetMapping("/{bookingId}")
     @ResponseStatus(HttpStatus.OK)
     public BookingDto getBookingById(@RequestHeader(USERID_HEADER) Long userId,
@@ -55,8 +127,19 @@ public class BookingController {
     public List<BookingDto> findAllByState(@RequestHeader(USERID_HEADER) Long userId,
                                            @RequestParam(name = "state", defaultValue = "ALL") String state,
                                            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                           @RequestParam(defaultValue = "10") @Positive Integer size) {
+                                           @RequestParam(defaultValue = "10") @Positive Integer size,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+                                           @RequestParam(required = false) Long afterId) {
         log.info("Got request to GET all bookings with state {}", state);
+        BookingWindowDto window = toWindow(dateFrom, dateTo, afterStart, afterId);
+        if (window != null) {
+            return bookingService.findAllInWindow(userId, state, window, size);
+        }
         return bookingService.findAllByState(userId, state, from, size);
     }
 
@@ -65,8 +148,51 @@ public class BookingController {
     public List<BookingDto> findAllByItemOwner(@RequestHeader(USERID_HEADER) Long userId,
                                                @RequestParam(name = "state", defaultValue = "ALL") String state,
                                                @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                               @RequestParam(defaultValue = "10") @Positive Integer size) {
+                                               @RequestParam(defaultValue = "10") @Positive Integer size,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+                                               @RequestParam(required = false) Long afterId) {
         log.info("Got request to GET all bookings by owner id {}", userId);
+        BookingWindowDto window = toWindow(dateFrom, dateTo, afterStart, afterId);
+        if (window != null) {
+            return bookingService.findAllByItemOwnerInWindow(userId, state, window, size);
+        }
         return bookingService.findAllByItemOwner(userId, state, from, size);
     }
+
+    private static BookingWindowDto toWindow(LocalDateTime dateFrom,
+                                             LocalDateTime dateTo,
+                                             LocalDateTime afterStart,
+                                             Long afterId) {
+        if (dateFrom == null && dateTo == null && afterStart == null && afterId == null) {
+            return null;
+        }
+        return BookingWindowDto.builder()
+                .dateFrom(dateFrom)
+                .dateTo(dateTo)
+                .afterStart(afterStart)
+                .afterId(afterId)
+                .build();
+    }
+
+    private BookingDto doCreate(Long userId, BookingDtoInitial bookingDtoInitial) {
+        BookingWritePipeline pipeline = writePipeline.getIfAvailable();
+        if (pipeline != null) {
+            return pipeline.create(userId, bookingDtoInitial);
+        }
+        return bookingService.create(userId, bookingDtoInitial);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> exportResponse(BookingExportFormat format,
+                                                                        StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        String.format("attachment; filename=\"bookings.%s\"", format.getExtension()))
+                .body(body);
+    }
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.bookings.archive")
+public class BookingArchiveProperties {
+    private boolean enabled;
+    private int afterMonths = 6;
+    private int batchSize = 1000;
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves bookings that ended more than shareit.bookings.archive.after-months ago from bookings
+ * to bookings_archive. Every batch is copied and deleted in its own transaction, so a listing
+ * sees each booking in exactly one of the two tables.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.bookings.archive", name = "enabled", havingValue = "true")
+public class BookingArchiver {
+    private static final String SELECT_BATCH = "SELECT id FROM bookings WHERE end_date < :cutoff " +
+            "ORDER BY end_date, id LIMIT :limit";
+    private static final String COPY_BATCH = "INSERT INTO bookings_archive " +
+            "(id, start_date, end_date, item_id, booker_id, status) " +
+            "SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings WHERE id IN (:ids)";
+    private static final String DELETE_BATCH = "DELETE FROM bookings WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingArchiveProperties properties;
+
+    @Scheduled(cron = "${shareit.bookings.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(properties.getAfterMonths());
+        int total = 0;
+        int moved;
+        do {
+            moved = archiveBatch(cutoff);
+            total += moved;
+        } while (moved == properties.getBatchSize());
+        if (total > 0) {
+            log.info("Archived {} bookings ended before {}", total, cutoff);
+        }
+    }
+
+    int archiveBatch(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_BATCH, new MapSqlParameterSource()
+                    .addValue("cutoff", cutoff)
+                    .addValue("limit", properties.getBatchSize()), Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+            jdbcTemplate.update(COPY_BATCH, params);
+            return jdbcTemplate.update(DELETE_BATCH, params);
+        });
+        return moved == null ? 0 : moved;
+    }
+}
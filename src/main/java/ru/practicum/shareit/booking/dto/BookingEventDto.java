@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class BookingEventDto {
+    private Long bookingId;
+    private Long itemId;
+    private BookingState status;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
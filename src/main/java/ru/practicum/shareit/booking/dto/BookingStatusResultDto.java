@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingState;
+
+@Data
+@Builder
+public class BookingStatusResultDto {
+    private Long bookingId;
+    private BookingState status;
+    private String error;
+}
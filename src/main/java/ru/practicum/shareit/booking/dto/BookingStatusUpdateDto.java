@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+public class BookingStatusUpdateDto {
+    @NotNull(message = "Field bookingId has to be filled.")
+    private Long bookingId;
+
+    @NotNull(message = "Field approved has to be filled.")
+    private Boolean approved;
+}
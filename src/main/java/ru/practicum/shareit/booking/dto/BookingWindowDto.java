@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Date window of a booking search, bookings starting in [dateFrom, dateTo) in (start, id) order.
+ * afterStart and afterId are the start and id of the last booking of the previous page.
+ */
+@Data
+@Builder
+public class BookingWindowDto {
+    private LocalDateTime dateFrom;
+    private LocalDateTime dateTo;
+    private LocalDateTime afterStart;
+    private Long afterId;
+}
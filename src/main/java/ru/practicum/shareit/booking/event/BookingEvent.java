@@ -0,0 +1,37 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Builder;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by BookingServiceImpl when a booking is created or its status changes.
+ */
+@Getter
+@Builder
+public class BookingEvent {
+    private final Long bookingId;
+    private final Long itemId;
+    private final Long bookerId;
+    private final Long ownerId;
+    private final BookingState status;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final LocalDateTime created;
+
+    public static BookingEvent of(Booking booking, BookingState status) {
+        return BookingEvent.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .status(status)
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .created(booking.getCreated())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.bookings.events")
+public class BookingEventProperties {
+    private int bufferSize = 64;
+    private int replaySize = 1024;
+    private int senderThreads = 2;
+    private Duration timeout = Duration.ofMinutes(30);
+    private Duration heartbeat = Duration.ofSeconds(15);
+}
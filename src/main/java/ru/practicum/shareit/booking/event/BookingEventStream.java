@@ -0,0 +1,221 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed booking events out to Server-Sent Events subscribers: the booker and the item owner.
+ * <p>
+ * Every subscriber has a bounded buffer drained by a small sender pool, so a slow client never blocks
+ * the committing thread. A subscriber whose buffer overflows is disconnected and catches up on reconnect
+ * through Last-Event-ID, served from a ring buffer of the latest events. When the requested id is no
+ * longer in the ring buffer a {@code resync} event tells the client to reload its bookings.
+ */
+@Slf4j
+@Component
+public class BookingEventStream {
+    static final String BOOKING_EVENT = "booking";
+    static final String RESYNC_EVENT = "resync";
+
+    private final BookingEventProperties properties;
+    private final Executor sender;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Deque<StoredEvent> replay = new ArrayDeque<>();
+    private long lastEventId;
+
+    @Autowired
+    public BookingEventStream(BookingEventProperties properties) {
+        this(properties, Executors.newFixedThreadPool(properties.getSenderThreads(),
+                new CustomizableThreadFactory("booking-events-")));
+    }
+
+    BookingEventStream(BookingEventProperties properties, Executor sender) {
+        this.properties = properties;
+        this.sender = sender;
+    }
+
+    public SseEmitter subscribe(Long userId, Long lastSeenEventId) {
+        SseEmitter emitter = createEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter, properties.getBufferSize());
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        synchronized (this) {
+            if (lastSeenEventId != null) {
+                replayTo(subscriber, lastSeenEventId);
+            }
+            if (!subscriber.closed) {
+                subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            }
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        BookingEventDto payload = BookingEventDto.builder()
+                .bookingId(event.getBookingId())
+                .itemId(event.getItemId())
+                .status(event.getStatus())
+                .start(event.getStart())
+                .end(event.getEnd())
+                .build();
+
+        synchronized (this) {
+            StoredEvent stored = new StoredEvent(++lastEventId, event.getBookerId(), event.getOwnerId(), payload);
+            replay.addLast(stored);
+            if (replay.size() > properties.getReplaySize()) {
+                replay.removeFirst();
+            }
+            deliver(stored, stored.bookerId);
+            if (!stored.ownerId.equals(stored.bookerId)) {
+                deliver(stored, stored.ownerId);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.events.heartbeat:PT15S}")
+    public void heartbeat() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> {
+            // A full buffer already has data on its way, the heartbeat is not needed then.
+            if (subscriber.queue.offer(SseEmitter.event().comment("heartbeat"))) {
+                scheduleDrain(subscriber);
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(s -> s.emitter.complete()));
+        if (sender instanceof ExecutorService) {
+            ((ExecutorService) sender).shutdown();
+        }
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    int subscriberCount(Long userId) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        return userSubscribers == null ? 0 : userSubscribers.size();
+    }
+
+    private void replayTo(Subscriber subscriber, long lastSeenEventId) {
+        long oldestRetained = replay.isEmpty() ? lastEventId + 1 : replay.peekFirst().id;
+        if (lastSeenEventId < oldestRetained - 1 || lastSeenEventId > lastEventId) {
+            enqueue(subscriber, SseEmitter.event().name(RESYNC_EVENT).id(String.valueOf(lastEventId)).data(""));
+        }
+        for (StoredEvent stored : replay) {
+            if (stored.id > lastSeenEventId && stored.concerns(subscriber.userId)) {
+                enqueue(subscriber, stored.toSse());
+            }
+        }
+    }
+
+    private void deliver(StoredEvent stored, Long userId) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> enqueue(subscriber, stored.toSse()));
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue.offer(event)) {
+            log.warn("Booking event buffer of user {} overflowed, disconnecting subscriber", subscriber.userId);
+            subscriber.closed = true;
+            unsubscribe(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(subscriber);
+                    subscriber.queue.clear();
+                }
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private static final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    private static final class StoredEvent {
+        private final long id;
+        private final Long bookerId;
+        private final Long ownerId;
+        private final BookingEventDto payload;
+
+        private StoredEvent(long id, Long bookerId, Long ownerId, BookingEventDto payload) {
+            this.id = id;
+            this.bookerId = bookerId;
+            this.ownerId = ownerId;
+            this.payload = payload;
+        }
+
+        private boolean concerns(Long userId) {
+            return bookerId.equals(userId) || ownerId.equals(userId);
+        }
+
+        private SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event()
+                    .id(String.valueOf(id))
+                    .name(BOOKING_EVENT)
+                    .data(payload);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum.shareit.booking.expiry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.service.ItemCalendarCache;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cancels WAITING bookings the owner did not answer in time: shareit.bookings.expiry.ttl after creation
+ * or, with expire-on-start, once the booking has started, whichever comes first.
+ * <p>
+ * Deadlines are kept in a {@link TimingWheel} that is filled from the WAITING bookings once at startup and
+ * then from booking events, so a tick never scans the table. Due bookings are canceled with one update per
+ * batch that only touches rows still WAITING, which also makes stale wheel entries harmless.
+ * <p>
+ * The wheel lives in this node only and hears only the events published here, so a booking created on another
+ * node is picked up by the startup rebuild of the node that runs the expiry, not when it is created.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shareit.bookings.expiry", name = "enabled", havingValue = "true")
+public class BookingExpiry {
+    private static final String FIND_WAITING = "SELECT id, created, start_date FROM bookings WHERE status = 'WAITING'";
+
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemCalendarCache itemCalendarCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingExpiryProperties properties;
+    private final TimingWheel wheel;
+    private final List<Long> due = new ArrayList<>();
+
+    public BookingExpiry(BookingRepository bookingRepository,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         ItemCalendarCache itemCalendarCache,
+                         ApplicationEventPublisher eventPublisher,
+                         BookingExpiryProperties properties) {
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.itemCalendarCache = itemCalendarCache;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.wheel = new TimingWheel(properties.getTick().toMillis(), properties.getWheelSize(),
+                System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        jdbcTemplate.query(FIND_WAITING, rs -> {
+            Timestamp created = rs.getTimestamp("created");
+            Timestamp start = rs.getTimestamp("start_date");
+            schedule(rs.getLong("id"),
+                    created == null ? null : created.toLocalDateTime(),
+                    start == null ? null : start.toLocalDateTime());
+        });
+        log.info("Scheduled expiry of {} waiting bookings", pending());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        if (event.getStatus() == BookingState.WAITING && event.getBookingId() != null) {
+            schedule(event.getBookingId(), event.getCreated(), event.getStart());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.expiry.tick:PT1S}")
+    public void expire() {
+        List<Long> ids;
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), due::add);
+            if (due.isEmpty()) {
+                return;
+            }
+            ids = new ArrayList<>(due);
+            due.clear();
+        }
+
+        int canceled = 0;
+        for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+            List<Long> batch = ids.subList(from, Math.min(from + properties.getBatchSize(), ids.size()));
+            try {
+                canceled += expireBatch(batch);
+            } catch (DataAccessException e) {
+                log.warn("Failed to expire waiting bookings, will retry on the next tick", e);
+                synchronized (this) {
+                    due.addAll(ids.subList(from, ids.size()));
+                }
+                break;
+            }
+        }
+        if (canceled > 0) {
+            log.info("Canceled {} waiting bookings that were not answered in time", canceled);
+        }
+    }
+
+    int expireBatch(List<Long> ids) {
+        Integer canceled = transactionTemplate.execute(status -> {
+            int updated = bookingRepository.updateStatusByIdInAndStatus(ids, BookingState.WAITING,
+                    BookingState.CANCELED);
+            if (updated == 0) {
+                return 0;
+            }
+            for (Booking booking : bookingRepository.findAllWithItemAndBookerByIdIn(ids)) {
+                if (booking.getStatus() == BookingState.CANCELED) {
+                    itemCalendarCache.evict(booking.getItem().getId());
+                    eventPublisher.publishEvent(BookingEvent.of(booking, BookingState.CANCELED));
+                }
+            }
+            return updated;
+        });
+        return canceled == null ? 0 : canceled;
+    }
+
+    synchronized int pending() {
+        return wheel.size() + due.size();
+    }
+
+    private void schedule(long bookingId, LocalDateTime created, LocalDateTime start) {
+        LocalDateTime deadline = deadline(created, start);
+        if (deadline == null) {
+            return;
+        }
+        long deadlineMillis = deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        synchronized (this) {
+            if (!wheel.add(bookingId, deadlineMillis)) {
+                due.add(bookingId);
+            }
+        }
+    }
+
+    private LocalDateTime deadline(LocalDateTime created, LocalDateTime start) {
+        LocalDateTime deadline = properties.isExpireOnStart() ? start : null;
+        if (!properties.getTtl().isZero() && created != null) {
+            LocalDateTime byTtl = created.plus(properties.getTtl());
+            if (deadline == null || byTtl.isBefore(deadline)) {
+                deadline = byTtl;
+            }
+        }
+        return deadline;
+    }
+}
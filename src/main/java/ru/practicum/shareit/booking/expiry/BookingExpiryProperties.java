@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.expiry;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.bookings.expiry")
+public class BookingExpiryProperties {
+    /**
+     * Off unless switched on: the first run cancels every WAITING booking that is already overdue.
+     */
+    private boolean enabled;
+    /**
+     * A WAITING booking is canceled this long after it was created. Zero turns the limit off.
+     */
+    private Duration ttl = Duration.ofHours(48);
+    /**
+     * Also cancel a WAITING booking as soon as its start has passed.
+     */
+    private boolean expireOnStart = true;
+    private Duration tick = Duration.ofSeconds(1);
+    private int wheelSize = 64;
+    private int batchSize = 500;
+}
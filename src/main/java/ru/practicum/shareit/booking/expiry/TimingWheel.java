@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of booking ids.
+ * <p>
+ * Level 0 has wheel-size slots of one tick each, every next level has slots as long as a whole revolution
+ * of the level below, and levels are added when a far deadline arrives. Adding an id is O(1), and an id is
+ * moved one level down at most once per level before it is due, so a tick only touches what expires in it.
+ * Ids are never removed: a booking that was answered in time simply finds nothing to cancel. Not thread safe.
+ */
+class TimingWheel {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Level> levels = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Timing wheel needs a positive tick and at least two slots.");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+        levels.add(new Level(1));
+    }
+
+    /**
+     * Schedules the id to be passed to {@link #advance} once the deadline is reached.
+     *
+     * @return false if the deadline has already passed, then the id is not scheduled
+     */
+    boolean add(long id, long deadlineMillis) {
+        long tick = Math.floorDiv(deadlineMillis, tickMillis);
+        if (Math.floorMod(deadlineMillis, tickMillis) != 0) {
+            tick++;
+        }
+        if (tick <= currentTick) {
+            return false;
+        }
+        place(new Entry(id, tick));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to nowMillis and passes every id due by then to the consumer.
+     */
+    void advance(long nowMillis, LongConsumer expired) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int i = levels.size() - 1; i > 0; i--) {
+                Level level = levels.get(i);
+                if (currentTick % level.slotTicks == 0) {
+                    for (Entry entry : level.drain(currentTick)) {
+                        if (entry.tick <= currentTick) {
+                            size--;
+                            expired.accept(entry.id);
+                        } else {
+                            place(entry);
+                        }
+                    }
+                }
+            }
+            for (Entry entry : levels.get(0).drain(currentTick)) {
+                size--;
+                expired.accept(entry.id);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int levelCount() {
+        return levels.size();
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.tick - currentTick;
+        int index = 0;
+        long span = wheelSize;
+        while (delta >= span && span <= Long.MAX_VALUE / wheelSize) {
+            index++;
+            span *= wheelSize;
+        }
+        while (levels.size() <= index) {
+            Level top = levels.get(levels.size() - 1);
+            levels.add(new Level(top.slotTicks * wheelSize));
+        }
+        levels.get(index).add(entry);
+    }
+
+    private final class Level {
+        private final long slotTicks;
+        private final List<List<Entry>> slots;
+
+        private Level(long slotTicks) {
+            this.slotTicks = slotTicks;
+            this.slots = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                slots.add(new ArrayList<>());
+            }
+        }
+
+        private void add(Entry entry) {
+            slots.get(slot(entry.tick)).add(entry);
+        }
+
+        private List<Entry> drain(long tick) {
+            int slot = slot(tick);
+            List<Entry> entries = slots.get(slot);
+            if (entries.isEmpty()) {
+                return entries;
+            }
+            slots.set(slot, new ArrayList<>());
+            return entries;
+        }
+
+        private int slot(long tick) {
+            return (int) ((tick / slotTicks) % wheelSize);
+        }
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long tick;
+
+        private Entry(long id, long tick) {
+            this.id = id;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.model.BookingExportRow;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole booking history of a user straight to the response.
+ * <p>
+ * Rows come from a server-side cursor inside one read-only transaction, live bookings first and archived
+ * ones after them, each newest first. Nothing is paged by offset and nothing is collected in memory.
+ * The transaction is REPEATABLE READ, so both reads see the same snapshot and a booking the archiver moves
+ * in between is written exactly once.
+ */
+@Component
+public class BookingExporter {
+    private static final String CSV_HEADER = "id,start,end,status,itemId,itemName,bookerId\n";
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public BookingExporter(BookingRepository bookingRepository,
+                           ArchivedBookingRepository archivedBookingRepository,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.objectMapper = objectMapper;
+    }
+
+    public StreamingResponseBody exportByBooker(Long userId, BookingExportFormat format) {
+        return out -> export(out, format, List.of(
+                () -> bookingRepository.streamExportByBookerId(userId),
+                () -> archivedBookingRepository.streamExportByBookerId(userId)));
+    }
+
+    public StreamingResponseBody exportByItemOwner(Long userId, BookingExportFormat format) {
+        return out -> export(out, format, List.of(
+                () -> bookingRepository.streamExportByItemOwnerId(userId),
+                () -> archivedBookingRepository.streamExportByItemOwnerId(userId)));
+    }
+
+    private void export(OutputStream out,
+                        BookingExportFormat format,
+                        List<Supplier<Stream<BookingExportRow>>> sources) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == BookingExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Supplier<Stream<BookingExportRow>> source : sources) {
+                    try (Stream<BookingExportRow> rows = source.get()) {
+                        rows.forEach(row -> write(writer, format, row));
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void write(Writer writer, BookingExportFormat format, BookingExportRow row) {
+        try {
+            if (format == BookingExportFormat.CSV) {
+                writer.write(toCsv(row));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toCsv(BookingExportRow row) {
+        return row.getId() + "," +
+                row.getStart() + "," +
+                row.getEnd() + "," +
+                row.getStatus() + "," +
+                row.getItemId() + "," +
+                escape(row.getItemName()) + "," +
+                row.getBookerId() + "\n";
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
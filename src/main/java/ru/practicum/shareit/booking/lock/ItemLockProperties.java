@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.lock;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.bookings.locks")
+public class ItemLockProperties {
+    private int stripes = 1024;
+    /**
+     * Also take pg_advisory_xact_lock(itemId), so that several application nodes serialize on the item.
+     */
+    private boolean advisory;
+}
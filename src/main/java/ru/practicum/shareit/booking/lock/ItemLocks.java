@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes booking writes per item for the rest of the current transaction.
+ * <p>
+ * Items are mapped onto a fixed array of lock stripes by id hash, so bookings of different items almost
+ * never wait for each other while two requests for the same item run one after another. A stripe is held
+ * until the transaction completes, because the check-then-insert it protects is only visible to others
+ * after commit. With shareit.bookings.locks.advisory the item is also locked in Postgres with
+ * pg_advisory_xact_lock, which extends the guarantee to several application nodes.
+ */
+@Component
+public class ItemLocks {
+    private static final String ADVISORY_LOCK = "SELECT pg_advisory_xact_lock(?)";
+
+    private final ReentrantLock[] stripes;
+    private final boolean advisory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemLocks(ItemLockProperties properties, JdbcTemplate jdbcTemplate) {
+        int size = properties.getStripes() <= 1 ? 1 : Integer.highestOneBit(properties.getStripes() - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.advisory = properties.isAdvisory();
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void lockUntilCompletion(Long itemId) {
+        lockUntilCompletion(List.of(itemId));
+    }
+
+    /**
+     * Locks every item of the collection. Stripes and advisory locks are taken in ascending order,
+     * so two callers locking overlapping sets cannot deadlock.
+     */
+    public void lockUntilCompletion(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item locks have to be taken inside a transaction.");
+        }
+
+        int[] indexes = itemIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int i = 0; i < indexes.length; i++) {
+            ReentrantLock lock = stripes[indexes[i]];
+            lock.lock();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+
+        if (advisory) {
+            itemIds.stream()
+                    .distinct()
+                    .sorted()
+                    .forEach(itemId -> jdbcTemplate.query(ADVISORY_LOCK, rs -> null, itemId));
+        }
+    }
+
+    int stripeIndex(Long itemId) {
+        int hash = Long.hashCode(itemId);
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash & (stripes.length - 1);
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+}
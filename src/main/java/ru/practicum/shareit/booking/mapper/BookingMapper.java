@@ -5,6 +5,7 @@ import org.mapstruct.Mapping;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInitial;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -17,6 +18,8 @@ public interface BookingMapper {
 
     BookingDto bookingToDto(Booking booking);
 
+    BookingDto archivedBookingToDto(ArchivedBooking booking);
+
     @Mapping(target = "bookerId", source = "booking.booker.id")
     BookingInfoDto bookingToInfoDto(Booking booking);
 
@@ -38,4 +38,6 @@ public class Booking {
 
     @Enumerated(EnumType.STRING)
     private BookingState status;
+
+    private LocalDateTime created;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat booking row for exports, selected with a constructor expression so that streaming it
+ * never touches a lazy association.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingExportRow {
+    private final Long id;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final BookingState status;
+    private final Long itemId;
+    private final String itemName;
+    private final Long bookerId;
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.booking.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps monthly partitions of the Postgres bookings table: creates the current and upcoming months
+ * and, when shareit.bookings.partitions.retention-months is set, detaches months older than that.
+ * Detached tables are kept as they are.
+ * <p>
+ * Bookings starting beyond the created months land in the default partition. When their month comes up,
+ * its partition is created empty, the rows are moved into it from the default partition and it is attached,
+ * all in one transaction. A partition that cannot be created or detached fails the run with an
+ * IllegalStateException naming it, after every other month has been handled. At startup the failure is
+ * only logged, so that the application still comes up and the next scheduled run retries the month.
+ * <p>
+ * The partitioned primary key is (id, start_date), as Postgres requires the partition key in it, so booking
+ * id uniqueness rests on the identity column alone.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shareit.bookings.partitions", name = "enabled", havingValue = "true")
+public class BookingPartitionMaintenance {
+    static final String PARTITION_PREFIX = "bookings_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String FIND_PARTITIONS = "select c.relname from pg_inherits i " +
+            "join pg_class c on c.oid = i.inhrelid " +
+            "join pg_class p on p.oid = i.inhparent " +
+            "where p.relname = 'bookings'";
+
+    private static final String FIND_PARTITION = "select count(*) from pg_class where relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingPartitionProperties properties;
+
+    public BookingPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       BookingPartitionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            maintain();
+        } catch (IllegalStateException e) {
+            log.error("Booking partition maintenance failed at startup, the next scheduled run retries it", e);
+        }
+    }
+
+    @Scheduled(cron = "${shareit.bookings.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        List<String> failures = new ArrayList<>();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= properties.getMonthsAhead(); i++) {
+            createPartition(current.plusMonths(i), failures);
+        }
+
+        if (properties.getRetentionMonths() > 0) {
+            YearMonth oldestKept = current.minusMonths(properties.getRetentionMonths());
+            List<String> partitions = jdbcTemplate.queryForList(FIND_PARTITIONS, String.class);
+            for (String partition : partitions) {
+                YearMonth month = monthOf(partition);
+                if (month != null && month.isBefore(oldestKept)) {
+                    detachPartition(partition, failures);
+                }
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Booking partition maintenance failed: " + String.join("; ", failures));
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    static YearMonth monthOf(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private void createPartition(YearMonth month, List<String> failures) {
+        String partition = partitionName(month);
+        Integer existing = jdbcTemplate.queryForObject(FIND_PARTITION, Integer.class, partition);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute(String.format("CREATE TABLE %s (LIKE bookings INCLUDING DEFAULTS)", partition));
+                int moved = jdbcTemplate.update(String.format("WITH moved AS (DELETE FROM bookings_default " +
+                        "WHERE start_date >= '%s' AND start_date < '%s' RETURNING *) " +
+                        "INSERT INTO %s SELECT * FROM moved", from, to, partition));
+                jdbcTemplate.execute(String.format("ALTER TABLE bookings ATTACH PARTITION %s " +
+                        "FOR VALUES FROM ('%s') TO ('%s')", partition, from, to));
+                if (moved > 0) {
+                    log.info("Moved {} bookings from the default partition into {}", moved, partition);
+                }
+            });
+            log.info("Created booking partition {}", partition);
+        } catch (DataAccessException e) {
+            log.error("Could not create booking partition {}", partition, e);
+            failures.add(String.format("create %s: %s", partition, e.getMessage()));
+        }
+    }
+
+    private void detachPartition(String partition, List<String> failures) {
+        try {
+            jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION " + partition);
+            log.info("Detached booking partition {}", partition);
+        } catch (DataAccessException e) {
+            log.error("Could not detach booking partition {}", partition, e);
+            failures.add(String.format("detach %s: %s", partition, e.getMessage()));
+        }
+    }
+}
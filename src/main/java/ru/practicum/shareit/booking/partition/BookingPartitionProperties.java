@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.partition;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.bookings.partitions")
+public class BookingPartitionProperties {
+    private boolean enabled;
+    private int monthsAhead = 3;
+    /**
+     * Months kept attached to the bookings table; 0, the default, keeps every month. Detached months drop
+     * out of every booking query, including the past booking that lets a booker comment on an item, so set
+     * this only once the product has decided to drop bookings that old.
+     */
+    private int retentionMonths;
+}
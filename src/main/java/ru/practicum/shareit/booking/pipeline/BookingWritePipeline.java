@@ -0,0 +1,362 @@
+package ru.practicum.shareit.booking.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoInitial;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.lock.ItemLocks;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCalendarCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional group-commit path for booking creation, switched on with
+ * shareit.bookings.write-pipeline.enabled.
+ * <p>
+ * Callers put validated commands into a bounded queue and wait for their own future. Writer threads take
+ * up to max-batch-size commands at a time, load their users and items with one query each, lock the items
+ * like the regular path does and check every command on its own, so that a rejected command fails only its
+ * caller. The accepted bookings are inserted with a single JDBC batch in one transaction; should the batch
+ * still be refused, its rows are retried one by one and only the ones the database refuses fail.
+ * <p>
+ * A full queue or a caller that waited longer than request-timeout before a writer claimed its command gets
+ * {@link ServiceUnavailableException} instead of holding a connection; a caller whose command is already
+ * claimed waits for the batch to finish.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shareit.bookings.write-pipeline", name = "enabled", havingValue = "true")
+public class BookingWritePipeline {
+    private static final String INSERT_BOOKING = "INSERT INTO bookings " +
+            "(start_date, end_date, item_id, booker_id, status, created) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemLocks itemLocks;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingMapper bookingMapper;
+    private final ItemCalendarCache itemCalendarCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingWritePipelineProperties properties;
+    private final BlockingQueue<CreateCommand> queue;
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running;
+
+    public BookingWritePipeline(UserRepository userRepository,
+                                ItemRepository itemRepository,
+                                BookingRepository bookingRepository,
+                                ItemLocks itemLocks,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                BookingMapper bookingMapper,
+                                ItemCalendarCache itemCalendarCache,
+                                ApplicationEventPublisher eventPublisher,
+                                BookingWritePipelineProperties properties) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.itemLocks = itemLocks;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingMapper = bookingMapper;
+        this.itemCalendarCache = itemCalendarCache;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < properties.getWriterThreads(); i++) {
+            Thread writer = new Thread(this::runWriter, "booking-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        writers.forEach(Thread::interrupt);
+        CreateCommand command;
+        while ((command = queue.poll()) != null) {
+            command.result.completeExceptionally(new ServiceUnavailableException("Booking writer is shutting down."));
+        }
+    }
+
+    public BookingDto create(Long userId, BookingDtoInitial bookingDtoInitial) {
+        if (!bookingDtoInitial.getEnd().isAfter(bookingDtoInitial.getStart())) {
+            throw new ValidationException("Booking end date is before start date.");
+        }
+
+        CreateCommand command = new CreateCommand(userId, bookingDtoInitial);
+        if (!running || !queue.offer(command)) {
+            throw new ServiceUnavailableException("Too many bookings are being created, retry later.");
+        }
+        try {
+            return command.result.get(properties.getRequestTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Once a writer has claimed the command its booking may still commit, so the caller has to wait for it.
+            if (command.claim()) {
+                command.result.cancel(false);
+                throw new ServiceUnavailableException("Booking was not written in time, retry later.");
+            }
+            try {
+                return command.result.join();
+            } catch (CompletionException completionException) {
+                throw unwrap(completionException.getCause());
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Booking creation was interrupted.");
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+    }
+
+    private void runWriter() {
+        List<CreateCommand> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (running) {
+            try {
+                collectBatch(batch);
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(command -> command.result.completeExceptionally(
+                        new ServiceUnavailableException("Booking writer is shutting down.")));
+                return;
+            } catch (RuntimeException e) {
+                log.error("Booking batch of {} commands failed", batch.size(), e);
+                batch.forEach(command -> command.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collectBatch(List<CreateCommand> batch) throws InterruptedException {
+        CreateCommand first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        int maxBatchSize = properties.getMaxBatchSize();
+        queue.drainTo(batch, maxBatchSize - batch.size());
+
+        long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+        while (batch.size() < maxBatchSize) {
+            long left = deadline - System.nanoTime();
+            CreateCommand next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    void write(List<CreateCommand> batch) {
+        List<CreateCommand> accepted = new ArrayList<>(batch.size());
+        List<Booking> bookings = new ArrayList<>(batch.size());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> userIds = batch.stream().map(command -> command.userId).collect(Collectors.toSet());
+            Set<Long> itemIds = batch.stream().map(command -> command.booking.getItemId()).collect(Collectors.toSet());
+            Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            itemLocks.lockUntilCompletion(items.keySet());
+
+            for (CreateCommand command : batch) {
+                if (!command.claim()) {
+                    continue;
+                }
+                try {
+                    bookings.add(toBooking(command, users, items));
+                    accepted.add(command);
+                } catch (RuntimeException e) {
+                    command.result.completeExceptionally(e);
+                }
+            }
+            if (bookings.isEmpty()) {
+                return;
+            }
+
+            Map<Integer, DataAccessException> refused = insert(bookings);
+            for (int i = bookings.size() - 1; i >= 0; i--) {
+                if (refused.containsKey(i)) {
+                    accepted.remove(i).result.completeExceptionally(refused.get(i));
+                    bookings.remove(i);
+                }
+            }
+            for (Booking booking : bookings) {
+                itemCalendarCache.evict(booking.getItem().getId());
+                eventPublisher.publishEvent(BookingEvent.of(booking, booking.getStatus()));
+            }
+        });
+
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).result.complete(bookingMapper.bookingToDto(bookings.get(i)));
+        }
+    }
+
+    private Booking toBooking(CreateCommand command, Map<Long, User> users, Map<Long, Item> items) {
+        User user = users.get(command.userId);
+        if (user == null || user.getDeletedAt() != null) {
+            throw new EntityNotFoundException(User.class, String.format("ID: %s", command.userId));
+        }
+        Item item = items.get(command.booking.getItemId());
+        if (item == null || item.getOwner().getDeletedAt() != null) {
+            throw new EntityNotFoundException(Item.class, String.format("ID: %s", command.booking.getItemId()));
+        }
+        if (!item.getAvailable()) {
+            throw new ValidationException("Item is unavailable.");
+        }
+        if (item.getOwner().getId().equals(command.userId)) {
+            throw new EntityNotFoundException(Item.class, "User cannot book own item.");
+        }
+        if (bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingState.APPROVED,
+                command.booking.getEnd(), command.booking.getStart())) {
+            throw new ConflictException("Item is already booked for these dates.");
+        }
+
+        Booking booking = bookingMapper.bookingFromDtoInitial(command.booking, user, item);
+        booking.setId(null);
+        booking.setBooker(user);
+        booking.setItem(item);
+        booking.setStatus(BookingState.WAITING);
+        booking.setCreated(LocalDateTime.now());
+        return booking;
+    }
+
+    /**
+     * Inserts the bookings with one batch behind a savepoint. When the batch is refused it is rolled back to
+     * the savepoint and the rows are inserted one at a time, each behind its own savepoint, so that a row
+     * the database refuses does not take the others down. Returns the errors of the refused rows by index.
+     */
+    private Map<Integer, DataAccessException> insert(List<Booking> bookings) {
+        return jdbcTemplate.execute((ConnectionCallback<Map<Integer, DataAccessException>>) connection -> {
+            Savepoint batchSavepoint = connection.setSavepoint();
+            try {
+                insertBatch(connection, bookings);
+                connection.releaseSavepoint(batchSavepoint);
+                return Map.of();
+            } catch (SQLException e) {
+                log.warn("Booking batch of {} rows was refused, inserting them one by one", bookings.size(), e);
+                connection.rollback(batchSavepoint);
+            }
+
+            Map<Integer, DataAccessException> refused = new HashMap<>();
+            for (int i = 0; i < bookings.size(); i++) {
+                Savepoint rowSavepoint = connection.setSavepoint();
+                try {
+                    insertBatch(connection, List.of(bookings.get(i)));
+                    connection.releaseSavepoint(rowSavepoint);
+                } catch (SQLException e) {
+                    connection.rollback(rowSavepoint);
+                    refused.put(i, jdbcTemplate.getExceptionTranslator().translate("Insert booking",
+                            INSERT_BOOKING, e));
+                }
+            }
+            return refused;
+        });
+    }
+
+    private void insertBatch(Connection connection, List<Booking> bookings) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_BOOKING, new String[]{"id"})) {
+            for (Booking booking : bookings) {
+                statement.setTimestamp(1, Timestamp.valueOf(booking.getStart()));
+                statement.setTimestamp(2, Timestamp.valueOf(booking.getEnd()));
+                statement.setLong(3, booking.getItem().getId());
+                statement.setLong(4, booking.getBooker().getId());
+                statement.setString(5, booking.getStatus().name());
+                statement.setTimestamp(6, Timestamp.valueOf(booking.getCreated()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                int i = 0;
+                while (keys.next()) {
+                    bookings.get(i++).setId(keys.getLong(1));
+                }
+            }
+        }
+    }
+
+    static final class CreateCommand {
+        private final Long userId;
+        private final BookingDtoInitial booking;
+        private final CompletableFuture<BookingDto> result = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        CreateCommand(Long userId, BookingDtoInitial booking) {
+            this.userId = userId;
+            this.booking = booking;
+        }
+
+        CompletableFuture<BookingDto> result() {
+            return result;
+        }
+
+        /**
+         * Decides between the writer and a caller that gave up waiting: only the first one to claim the command
+         * gets to write it or to report it as not written.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.pipeline;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.bookings.write-pipeline")
+public class BookingWritePipelineProperties {
+    private boolean enabled;
+    private int queueCapacity = 10_000;
+    private int writerThreads = 2;
+    private int maxBatchSize = 200;
+    private Duration maxWait = Duration.ofMillis(5);
+    private Duration requestTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookingExportRow;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingTimelineRow;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<ArchivedBooking> findAllByBookerIdOrderByStartDesc(Long userId, Pageable page);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<ArchivedBooking> findAllByItemOwnerIdOrderByStartDesc(Long userId, Pageable page);
+
+    boolean existsByItemOwnerId(Long userId);
+
+    long countByBookerId(Long userId);
+
+    long countByItemOwnerId(Long userId);
+
+    boolean existsByItemIdAndBookerIdAndStatus(Long itemId, Long userId, BookingState status);
+
+    List<BookingTimelineRow> findTimelineByBookerId(Long userId);
+
+    List<BookingTimelineRow> findTimelineByItemOwnerId(Long userId);
+
+    /**
+     * Bookings starting in [dateFrom, dateTo), keyset paginated by (start, id): pass the start and id
+     * of the last booking of the previous page, or dateFrom and 0 for the first one. With allStatuses
+     * the status condition is dropped; statuses must still be non-empty, an empty IN list is not valid SQL.
+     */
+    @Query("select b from ArchivedBooking b " +
+            "join fetch b.item i " +
+            "join fetch b.booker " +
+            "where b.booker.id = :userId and (:allStatuses = true or b.status in :statuses) " +
+            "and b.start >= :dateFrom and b.start < :dateTo " +
+            "and (b.start > :afterStart or (b.start = :afterStart and b.id > :afterId)) " +
+            "order by b.start asc, b.id asc")
+    List<ArchivedBooking> findWindowByBookerId(@Param("userId") Long userId,
+                                               @Param("allStatuses") boolean allStatuses,
+                                               @Param("statuses") Collection<BookingState> statuses,
+                                               @Param("dateFrom") LocalDateTime dateFrom,
+                                               @Param("dateTo") LocalDateTime dateTo,
+                                               @Param("afterStart") LocalDateTime afterStart,
+                                               @Param("afterId") Long afterId,
+                                               Pageable page);
+
+    /**
+     * Same window for the items of an owner. The owner lives on items, so this is a join from
+     * items by owner to bookings by (item, start) rather than one range scan over the owner's bookings.
+     */
+    @Query("select b from ArchivedBooking b " +
+            "join fetch b.item i " +
+            "join fetch b.booker " +
+            "where i.owner.id = :userId and (:allStatuses = true or b.status in :statuses) " +
+            "and b.start >= :dateFrom and b.start < :dateTo " +
+            "and (b.start > :afterStart or (b.start = :afterStart and b.id > :afterId)) " +
+            "order by b.start asc, b.id asc")
+    List<ArchivedBooking> findWindowByItemOwnerId(@Param("userId") Long userId,
+                                                  @Param("allStatuses") boolean allStatuses,
+                                                  @Param("statuses") Collection<BookingState> statuses,
+                                                  @Param("dateFrom") LocalDateTime dateFrom,
+                                                  @Param("dateTo") LocalDateTime dateTo,
+                                                  @Param("afterStart") LocalDateTime afterStart,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable page);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.booking.model.BookingExportRow(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+            "from ArchivedBooking b join b.item i " +
+            "where b.booker.id = :userId " +
+            "order by b.start desc")
+    Stream<BookingExportRow> streamExportByBookerId(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.booking.model.BookingExportRow(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+            "from ArchivedBooking b join b.item i " +
+            "where i.owner.id = :userId " +
+            "order by b.start desc")
+    Stream<BookingExportRow> streamExportByItemOwnerId(@Param("userId") Long userId);
+
+    @Query("select b from ArchivedBooking b " +
+            "join fetch b.item " +
+            "join fetch b.booker " +
+            "where b.id in :ids")
+    List<ArchivedBooking> findAllWithItemAndBookerByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,40 +1,228 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingExportRow;
+import ru.practicum.shareit.booking.model.BookingPeriod;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStateCounts;
+import ru.practicum.shareit.booking.model.BookingTimelineRow;
 import ru.practicum.shareit.util.Pagination;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+/**
+ * Every paged list method fetches item and booker with the booking: {@code BookingMapper} reads both,
+ * and leaving them lazy costs two selects per row.
+ */
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long userId, Pagination page);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findAllByBookerIdOrderByStartDesc(Long userId, Pageable page);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByBookerIdAndStartBeforeAndEndAfterOrderByStartAsc(Long userId, LocalDateTime now, LocalDateTime now1, Pagination page);
 
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime now, Pagination page);
-
+    /**
+     * {@code b.start < :now} is implied by {@code b.end < :now}; it is spelled out so that Postgres
+     * can prune the start_date partitions that cannot hold past bookings.
+     */
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.booker.id = :userId and b.start < :now and b.end < :now " +
+            "order by b.start desc")
+    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(@Param("userId") Long userId,
+                                                               @Param("now") LocalDateTime now,
+                                                               Pageable page);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime now, Pagination page);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long userId, BookingState status, Pagination page);
 
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long userId, Pagination page);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findByItemOwnerIdOrderByStartDesc(Long userId, Pageable page);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long userId, LocalDateTime now, LocalDateTime now1, Pagination page);
 
-    List<Booking> findByItemOwnerIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime now, Pagination page);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.item.owner.id = :userId and b.start < :now and b.end < :now " +
+            "order by b.start desc")
+    List<Booking> findByItemOwnerIdAndEndBeforeOrderByStartDesc(@Param("userId") Long userId,
+                                                                @Param("now") LocalDateTime now,
+                                                                Pageable page);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByItemOwnerIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime now, Pagination page);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByItemOwnerIdAndStatusOrderByStartDesc(Long userId, BookingState status, Pagination page);
 
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfter(Long itemId,
+                                                             BookingState status,
+                                                             LocalDateTime end,
+                                                             LocalDateTime start);
+
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(Long itemId,
+                                                                     BookingState status,
+                                                                     LocalDateTime end,
+                                                                     LocalDateTime start,
+                                                                     Long id);
+
     Optional<Booking> findFirstByItemIdAndBookerIdAndStatusAndEndBefore(Long itemId, Long userId, BookingState status, LocalDateTime now);
 
     Optional<Booking> findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(Long itemId, BookingState status, LocalDateTime start);
 
     Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc(Long id, BookingState status, LocalDateTime now);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long userId, LocalDateTime now, LocalDateTime now1, Pagination page);
+
+    List<BookingPeriod> findByItemIdAndStatusInAndEndAfterOrderByStartAsc(Long itemId,
+                                                                          Collection<BookingState> statuses,
+                                                                          LocalDateTime after);
+
+    List<BookingPeriod> findByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAsc(Long itemId,
+                                                                                        Collection<BookingState> statuses,
+                                                                                        LocalDateTime to,
+                                                                                        LocalDateTime from);
+
+    List<BookingTimelineRow> findTimelineByBookerId(Long userId);
+
+    List<BookingTimelineRow> findTimelineByItemOwnerId(Long userId);
+
+    /**
+     * Bookings starting in [dateFrom, dateTo), keyset paginated by (start, id): pass the start and id
+     * of the last booking of the previous page, or dateFrom and 0 for the first one. With allStatuses
+     * the status condition is dropped; statuses must still be non-empty, an empty IN list is not valid SQL.
+     */
+    @Query("select b from Booking b " +
+            "join fetch b.item i " +
+            "join fetch b.booker " +
+            "where b.booker.id = :userId and (:allStatuses = true or b.status in :statuses) " +
+            "and b.start >= :dateFrom and b.start < :dateTo " +
+            "and (b.start > :afterStart or (b.start = :afterStart and b.id > :afterId)) " +
+            "order by b.start asc, b.id asc")
+    List<Booking> findWindowByBookerId(@Param("userId") Long userId,
+                                       @Param("allStatuses") boolean allStatuses,
+                                       @Param("statuses") Collection<BookingState> statuses,
+                                       @Param("dateFrom") LocalDateTime dateFrom,
+                                       @Param("dateTo") LocalDateTime dateTo,
+                                       @Param("afterStart") LocalDateTime afterStart,
+                                       @Param("afterId") Long afterId,
+                                       Pageable page);
+
+    /**
+     * Same window for the items of an owner. The owner lives on items, so this is a join from
+     * items by owner to bookings by (item, start) rather than one range scan over the owner's bookings.
+     */
+    @Query("select b from Booking b " +
+            "join fetch b.item i " +
+            "join fetch b.booker " +
+            "where i.owner.id = :userId and (:allStatuses = true or b.status in :statuses) " +
+            "and b.start >= :dateFrom and b.start < :dateTo " +
+            "and (b.start > :afterStart or (b.start = :afterStart and b.id > :afterId)) " +
+            "order by b.start asc, b.id asc")
+    List<Booking> findWindowByItemOwnerId(@Param("userId") Long userId,
+                                          @Param("allStatuses") boolean allStatuses,
+                                          @Param("statuses") Collection<BookingState> statuses,
+                                          @Param("dateFrom") LocalDateTime dateFrom,
+                                          @Param("dateTo") LocalDateTime dateTo,
+                                          @Param("afterStart") LocalDateTime afterStart,
+                                          @Param("afterId") Long afterId,
+                                          Pageable page);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.booking.model.BookingExportRow(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+            "from Booking b join b.item i " +
+            "where b.booker.id = :userId " +
+            "order by b.start desc")
+    Stream<BookingExportRow> streamExportByBookerId(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.booking.model.BookingExportRow(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+            "from Booking b join b.item i " +
+            "where i.owner.id = :userId " +
+            "order by b.start desc")
+    Stream<BookingExportRow> streamExportByItemOwnerId(@Param("userId") Long userId);
+
+    @Query("select b from Booking b " +
+            "join fetch b.item " +
+            "join fetch b.booker " +
+            "where b.id in :ids")
+    List<Booking> findAllWithItemAndBookerByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The bookings among ids whose item belongs to the owner; ids of other owners and unknown ids are left out.
+     */
+    @Query("select b from Booking b " +
+            "join fetch b.item i " +
+            "join fetch b.booker " +
+            "where b.id in :ids and i.owner.id = :ownerId")
+    List<Booking> findAllWithItemAndBookerByIdInAndItemOwnerId(@Param("ids") Collection<Long> ids,
+                                                               @Param("ownerId") Long ownerId);
+
+    @Query("select b.item.id from Booking b where b.id = :id")
+    Optional<Long> findItemIdById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.id = :id")
+    Optional<Booking> findForUpdateById(@Param("id") Long id);
+
+    /**
+     * Skips bookings that are approved already or were canceled meanwhile, for example by expiry.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status " +
+            "where b.id in :ids " +
+            "and b.status not in (ru.practicum.shareit.booking.model.BookingState.APPROVED, " +
+            "ru.practicum.shareit.booking.model.BookingState.CANCELED)")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") BookingState status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status " +
+            "where b.id in :ids and b.status = :expected")
+    int updateStatusByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                    @Param("expected") BookingState expected,
+                                    @Param("status") BookingState status);
+
+    @Query(value = "SELECT count(*) AS \"all\", " +
+            "count(*) FILTER (WHERE b.start_date < :now AND b.end_date > :now) AS \"current\", " +
+            "count(*) FILTER (WHERE b.start_date < :now AND b.end_date < :now) AS \"past\", " +
+            "count(*) FILTER (WHERE b.start_date > :now) AS \"future\", " +
+            "count(*) FILTER (WHERE b.status = 'WAITING') AS \"waiting\", " +
+            "count(*) FILTER (WHERE b.status = 'REJECTED') AS \"rejected\" " +
+            "FROM bookings b " +
+            "WHERE b.booker_id = :userId", nativeQuery = true)
+    BookingStateCounts countStatesByBookerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT count(*) AS \"all\", " +
+            "count(*) FILTER (WHERE b.start_date < :now AND b.end_date > :now) AS \"current\", " +
+            "count(*) FILTER (WHERE b.start_date < :now AND b.end_date < :now) AS \"past\", " +
+            "count(*) FILTER (WHERE b.start_date > :now) AS \"future\", " +
+            "count(*) FILTER (WHERE b.status = 'WAITING') AS \"waiting\", " +
+            "count(*) FILTER (WHERE b.status = 'REJECTED') AS \"rejected\" " +
+            "FROM bookings b " +
+            "JOIN items i ON i.id = b.item_id " +
+            "WHERE i.owner_id = :userId", nativeQuery = true)
+    BookingStateCounts countStatesByItemOwnerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
 }
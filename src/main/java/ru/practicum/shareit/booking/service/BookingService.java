@@ -1,7 +1,14 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInitial;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingWindowDto;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 
 import java.util.List;
 
@@ -10,9 +17,25 @@ public interface BookingService {
 
     BookingDto setStatus(Long userId, Long bookingId, Boolean approved);
 
+    List<BookingStatusResultDto> setStatuses(Long userId, List<BookingStatusUpdateDto> updates);
+
     BookingDto findById(Long userId, Long bookingId);
 
     List<BookingDto> findAllByState(Long userId, String state, Integer from, Integer size);
 
     List<BookingDto> findAllByItemOwner(Long userId, String state, Integer from, Integer size);
+
+    List<BookingDto> findAllInWindow(Long userId, String state, BookingWindowDto window, Integer size);
+
+    List<BookingDto> findAllByItemOwnerInWindow(Long userId, String state, BookingWindowDto window, Integer size);
+
+    SseEmitter subscribe(Long userId, Long lastEventId);
+
+    BookingStatsDto findStats(Long userId);
+
+    BookingStatsDto findOwnerStats(Long userId);
+
+    StreamingResponseBody exportAll(Long userId, BookingExportFormat format);
+
+    StreamingResponseBody exportAllByItemOwner(Long userId, BookingExportFormat format);
 }
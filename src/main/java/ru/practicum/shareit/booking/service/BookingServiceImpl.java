@@ -1,27 +1,60 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInitial;
 import ru.practicum.shareit.booking.dto.BookingStateDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingWindowDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventStream;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
+import ru.practicum.shareit.booking.export.BookingExporter;
+import ru.practicum.shareit.booking.lock.ItemLocks;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStateCounts;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
+import ru.practicum.shareit.booking.timeline.BookingTimelineStore;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCalendarCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.OffsetPagination;
 import ru.practicum.shareit.util.Pagination;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +64,14 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final BookingMapper bookingMapper;
+    private final ItemCalendarCache itemCalendarCache;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingEventStream bookingEventStream;
+    private final BookingStatsCache bookingStatsCache;
+    private final BookingTimelineStore bookingTimelineStore;
+    private final ItemLocks itemLocks;
+    private final BookingExporter bookingExporter;
 
     @Override
     @Transactional
@@ -41,8 +82,10 @@ public class BookingServiceImpl implements BookingService {
         }
 
         User user = userRepository.findById(userId)
+                .filter(booker -> booker.getDeletedAt() == null)
                 .orElseThrow(() -> new EntityNotFoundException(User.class, String.format("ID: %s", userId)));
         Item item = itemRepository.findById(bookingDtoInitial.getItemId())
+                .filter(found -> found.getOwner().getDeletedAt() == null)
                 .orElseThrow(() -> new EntityNotFoundException(Item.class, String.format("ID: %s", bookingDtoInitial.getItemId())));
 
         if (!item.getAvailable()) {
@@ -53,18 +96,35 @@ public class BookingServiceImpl implements BookingService {
             throw new EntityNotFoundException(Item.class, "User cannot book own item.");
         }
 
+        itemLocks.lockUntilCompletion(item.getId());
+        if (bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingState.APPROVED,
+                bookingDtoInitial.getEnd(), bookingDtoInitial.getStart())) {
+            throw new ConflictException("Item is already booked for these dates.");
+        }
+
         Booking booking = bookingMapper.bookingFromDtoInitial(bookingDtoInitial, user, item);
         booking.setBooker(user);
         booking.setItem(item);
         booking.setStatus(BookingState.WAITING);
+        booking.setCreated(LocalDateTime.now());
 
-        return bookingMapper.bookingToDto(bookingRepository.save(booking));
+        BookingDto bookingDto = bookingMapper.bookingToDto(bookingRepository.save(booking));
+        itemCalendarCache.evict(item.getId());
+        eventPublisher.publishEvent(BookingEvent.of(booking, booking.getStatus()));
+        return bookingDto;
     }
 
+    /**
+     * Approval takes the same item lock as creation, so two overlapping bookings of an item cannot both be
+     * approved; the booking row is locked as well, so that expiry cannot cancel it in between.
+     */
     @Override
     @Transactional
     public BookingDto setStatus(Long userId, Long bookingId, Boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(
+        Long itemId = bookingRepository.findItemIdById(bookingId).orElseThrow(
+                () -> new EntityNotFoundException(Booking.class, "Booking id not found in storage"));
+        itemLocks.lockUntilCompletion(itemId);
+        Booking booking = bookingRepository.findForUpdateById(bookingId).orElseThrow(
                 () -> new EntityNotFoundException(Booking.class, "Booking id not found in storage"));
         if (!booking.getItem().getOwner().getId().equals(userId)) {
             throw new EntityNotFoundException(Booking.class, "User is not the owner of the item.");
@@ -72,13 +132,123 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getStatus().equals(BookingState.APPROVED)) {
             throw new ValidationException("Booking is already approved.");
         }
+        if (booking.getStatus().equals(BookingState.CANCELED)) {
+            throw new ValidationException("Booking is canceled.");
+        }
+        if (approved && isBookedByOthers(booking)) {
+            throw new ConflictException("Item is already booked for these dates.");
+        }
         booking.setStatus((approved) ? BookingState.APPROVED : BookingState.REJECTED);
+        itemCalendarCache.evict(booking.getItem().getId());
+        eventPublisher.publishEvent(BookingEvent.of(booking, booking.getStatus()));
         return bookingMapper.bookingToDto(booking);
     }
 
+    /**
+     * The owned bookings are read with their items and bookers by one query, then their items are locked in
+     * ascending id order, so that no other approval of the same items runs between the overlap checks and the
+     * update. A booking changed meanwhile, for example canceled by expiry, is caught by the guarded update.
+     * An approval that overlaps an approved booking of the item, or one approved earlier in the same batch,
+     * is reported as a conflict. Events and results are produced once the updates have run.
+     */
+    @Override
+    @Transactional
+    public List<BookingStatusResultDto> setStatuses(Long userId, List<BookingStatusUpdateDto> updates) {
+        Map<Long, Boolean> decisions = new LinkedHashMap<>();
+        for (BookingStatusUpdateDto update : updates) {
+            if (decisions.put(update.getBookingId(), update.getApproved()) != null) {
+                throw new ValidationException(String.format("Booking id %s is given more than once.",
+                        update.getBookingId()));
+            }
+        }
+
+        Map<Long, Booking> ownedBookings = bookingRepository
+                .findAllWithItemAndBookerByIdInAndItemOwnerId(decisions.keySet(), userId)
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        if (!ownedBookings.isEmpty()) {
+            Set<Long> itemIds = ownedBookings.values().stream()
+                    .map(booking -> booking.getItem().getId())
+                    .collect(Collectors.toCollection(TreeSet::new));
+            itemLocks.lockUntilCompletion(itemIds);
+        }
+
+        Map<Long, BookingState> changes = new LinkedHashMap<>();
+        Map<Long, String> errors = new HashMap<>();
+        Map<Long, List<Booking>> approvedByItem = new HashMap<>();
+        decisions.forEach((bookingId, approved) -> {
+            Booking booking = ownedBookings.get(bookingId);
+            if (booking == null) {
+                errors.put(bookingId, "Booking id not found in storage or user is not the owner of the item.");
+            } else if (booking.getStatus().equals(BookingState.APPROVED)) {
+                errors.put(bookingId, "Booking is already approved.");
+            } else if (booking.getStatus().equals(BookingState.CANCELED)) {
+                errors.put(bookingId, "Booking is canceled.");
+            } else if (!approved) {
+                changes.put(bookingId, BookingState.REJECTED);
+            } else {
+                List<Booking> approvedOfItem = approvedByItem.computeIfAbsent(booking.getItem().getId(),
+                        id -> new ArrayList<>());
+                if (approvedOfItem.stream().anyMatch(other -> overlaps(booking, other)) || isBookedByOthers(booking)) {
+                    errors.put(bookingId, "Item is already booked for these dates.");
+                } else {
+                    approvedOfItem.add(booking);
+                    changes.put(bookingId, BookingState.APPROVED);
+                }
+            }
+        });
+
+        updateStatuses(changes, BookingState.APPROVED);
+        updateStatuses(changes, BookingState.REJECTED);
+
+        List<BookingStatusResultDto> results = new ArrayList<>(decisions.size());
+        for (Long bookingId : decisions.keySet()) {
+            Booking booking = ownedBookings.get(bookingId);
+            BookingState status = changes.get(bookingId);
+            if (status == null) {
+                results.add(BookingStatusResultDto.builder()
+                        .bookingId(bookingId)
+                        .status(booking == null ? null : booking.getStatus())
+                        .error(errors.get(bookingId))
+                        .build());
+                continue;
+            }
+            itemCalendarCache.evict(booking.getItem().getId());
+            eventPublisher.publishEvent(BookingEvent.of(booking, status));
+            results.add(BookingStatusResultDto.builder()
+                    .bookingId(bookingId)
+                    .status(status)
+                    .build());
+        }
+        return results;
+    }
+
+    private boolean isBookedByOthers(Booking booking) {
+        return bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(booking.getItem().getId(),
+                BookingState.APPROVED, booking.getEnd(), booking.getStart(), booking.getId());
+    }
+
+    private static boolean overlaps(Booking booking, Booking other) {
+        return booking.getStart().isBefore(other.getEnd()) && booking.getEnd().isAfter(other.getStart());
+    }
+
+    private void updateStatuses(Map<Long, BookingState> changes, BookingState status) {
+        List<Long> ids = changes.entrySet().stream()
+                .filter(change -> change.getValue() == status)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return;
+        }
+        int updated = bookingRepository.updateStatusByIdIn(ids, status);
+        if (updated != ids.size()) {
+            throw new ConflictException("Bookings were changed concurrently, try again.");
+        }
+    }
+
     @Override
     public BookingDto findById(Long userId, Long bookingId) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(
                 () -> new EntityNotFoundException(Booking.class, "Booking id not found in storage"));
         if (!booking.getBooker().getId().equals(userId) &&
@@ -88,9 +258,43 @@ public class BookingServiceImpl implements BookingService {
         return bookingMapper.bookingToDto(booking);
     }
 
+    @Override
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        userService.checkExists(userId);
+        return bookingEventStream.subscribe(userId, lastEventId);
+    }
+
+    @Override
+    public BookingStatsDto findStats(Long userId) {
+        userService.checkExists(userId);
+        return bookingStatsCache.getBookerStats(userId, id -> toStats(
+                bookingRepository.countStatesByBookerId(id, LocalDateTime.now()),
+                archivedBookingRepository.countByBookerId(id)));
+    }
+
+    @Override
+    public BookingStatsDto findOwnerStats(Long userId) {
+        userService.checkExists(userId);
+        return bookingStatsCache.getOwnerStats(userId, id -> toStats(
+                bookingRepository.countStatesByItemOwnerId(id, LocalDateTime.now()),
+                archivedBookingRepository.countByItemOwnerId(id)));
+    }
+
+    @Override
+    public StreamingResponseBody exportAll(Long userId, BookingExportFormat format) {
+        userService.checkExists(userId);
+        return bookingExporter.exportByBooker(userId, format);
+    }
+
+    @Override
+    public StreamingResponseBody exportAllByItemOwner(Long userId, BookingExportFormat format) {
+        userService.checkExists(userId);
+        return bookingExporter.exportByItemOwner(userId, format);
+    }
+
     @Override
     public List<BookingDto> findAllByState(Long userId, String state, Integer from, Integer size) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         BookingStateDto bookingStateDto;
         List<Booking> bookings;
         try {
@@ -101,6 +305,10 @@ public class BookingServiceImpl implements BookingService {
 
         Pagination page = new Pagination(from, size);
 
+        if (bookingTimelineStore.isEnabled()) {
+            return findByTimeline(bookingTimelineStore.getBookerTimeline(userId), bookingStateDto, true, page);
+        }
+
         switch (bookingStateDto) {
             case CURRENT:
                 bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartAsc(userId,
@@ -109,8 +317,11 @@ public class BookingServiceImpl implements BookingService {
                         page);
                 break;
             case PAST:
-                bookings = bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now(), page);
-                break;
+                LocalDateTime now = LocalDateTime.now();
+                return withArchived(
+                        hotPage -> bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, now, hotPage),
+                        page,
+                        archivePage -> archivedBookingRepository.findAllByBookerIdOrderByStartDesc(userId, archivePage));
             case FUTURE:
                 bookings = bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now(), page);
                 break;
@@ -121,8 +332,9 @@ public class BookingServiceImpl implements BookingService {
                 bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingState.REJECTED, page);
                 break;
             default:
-                bookings = bookingRepository.findAllByBookerIdOrderByStartDesc(userId, page);
-                break;
+                return withArchived(hotPage -> bookingRepository.findAllByBookerIdOrderByStartDesc(userId, hotPage),
+                        page,
+                        archivePage -> archivedBookingRepository.findAllByBookerIdOrderByStartDesc(userId, archivePage));
         }
 
         return bookings.stream()
@@ -132,7 +344,7 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDto> findAllByItemOwner(Long userId, String state, Integer from, Integer size) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         BookingStateDto bookingStateDto;
         List<Booking> bookings;
 
@@ -144,7 +356,16 @@ public class BookingServiceImpl implements BookingService {
 
         Pagination page = new Pagination(from, size);
 
-        if (bookingRepository.findByItemOwnerIdOrderByStartDesc(userId, page).isEmpty()) {
+        if (bookingTimelineStore.isEnabled()) {
+            BookingTimeline timeline = bookingTimelineStore.getOwnerTimeline(userId);
+            if (timeline.isEmpty()) {
+                throw new ValidationException("User doesn't have booked items.");
+            }
+            return findByTimeline(timeline, bookingStateDto, false, page);
+        }
+
+        if (bookingRepository.findByItemOwnerIdOrderByStartDesc(userId, page).isEmpty()
+                && !archivedBookingRepository.existsByItemOwnerId(userId)) {
             throw new ValidationException("User doesn't have booked items.");
         }
 
@@ -156,8 +377,11 @@ public class BookingServiceImpl implements BookingService {
                         page);
                 break;
             case PAST:
-                bookings = bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now(), page);
-                break;
+                LocalDateTime now = LocalDateTime.now();
+                return withArchived(
+                        hotPage -> bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(userId, now, hotPage),
+                        page,
+                        archivePage -> archivedBookingRepository.findAllByItemOwnerIdOrderByStartDesc(userId, archivePage));
             case FUTURE:
                 bookings = bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now(), page);
                 break;
@@ -168,11 +392,159 @@ public class BookingServiceImpl implements BookingService {
                 bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(userId, BookingState.REJECTED, page);
                 break;
             default:
-                bookings = bookingRepository.findByItemOwnerIdOrderByStartDesc(userId, page);
-                break;
+                return withArchived(hotPage -> bookingRepository.findByItemOwnerIdOrderByStartDesc(userId, hotPage),
+                        page,
+                        archivePage -> archivedBookingRepository.findAllByItemOwnerIdOrderByStartDesc(userId, archivePage));
         }
         return bookings.stream()
                 .map(bookingMapper::bookingToDto)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public List<BookingDto> findAllInWindow(Long userId, String state, BookingWindowDto window, Integer size) {
+        userService.checkExists(userId);
+        Collection<BookingState> statuses = toWindowStatuses(state);
+        checkWindow(window);
+        LocalDateTime afterStart = window.getAfterStart() == null ? window.getDateFrom() : window.getAfterStart();
+        Long afterId = window.getAfterId() == null ? 0L : window.getAfterId();
+        Pageable page = new OffsetPagination(0, size);
+
+        boolean allStatuses = statuses.size() == BookingState.values().length;
+        return mergeWindow(
+                bookingRepository.findWindowByBookerId(userId, allStatuses, statuses,
+                        window.getDateFrom(), window.getDateTo(), afterStart, afterId, page),
+                archivedBookingRepository.findWindowByBookerId(userId, allStatuses, statuses,
+                        window.getDateFrom(), window.getDateTo(), afterStart, afterId, page),
+                size);
+    }
+
+    @Override
+    public List<BookingDto> findAllByItemOwnerInWindow(Long userId, String state, BookingWindowDto window, Integer size) {
+        userService.checkExists(userId);
+        Collection<BookingState> statuses = toWindowStatuses(state);
+        checkWindow(window);
+        LocalDateTime afterStart = window.getAfterStart() == null ? window.getDateFrom() : window.getAfterStart();
+        Long afterId = window.getAfterId() == null ? 0L : window.getAfterId();
+        Pageable page = new OffsetPagination(0, size);
+
+        boolean allStatuses = statuses.size() == BookingState.values().length;
+        return mergeWindow(
+                bookingRepository.findWindowByItemOwnerId(userId, allStatuses, statuses,
+                        window.getDateFrom(), window.getDateTo(), afterStart, afterId, page),
+                archivedBookingRepository.findWindowByItemOwnerId(userId, allStatuses, statuses,
+                        window.getDateFrom(), window.getDateTo(), afterStart, afterId, page),
+                size);
+    }
+
+    /**
+     * A date window selects bookings by start, so only states that are a plain status filter can be combined with it.
+     * ALL gives every status and is read with the status condition switched off.
+     */
+    private Collection<BookingState> toWindowStatuses(String state) {
+        BookingStateDto bookingStateDto;
+        try {
+            bookingStateDto = BookingStateDto.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(String.format("Unknown state: %s", state));
+        }
+        switch (bookingStateDto) {
+            case ALL:
+                return EnumSet.allOf(BookingState.class);
+            case WAITING:
+                return EnumSet.of(BookingState.WAITING);
+            case REJECTED:
+                return EnumSet.of(BookingState.REJECTED);
+            default:
+                throw new ValidationException(String.format("State %s cannot be combined with a date window.", state));
+        }
+    }
+
+    private void checkWindow(BookingWindowDto window) {
+        if (window.getDateFrom() == null || window.getDateTo() == null) {
+            throw new ValidationException("Both dateFrom and dateTo have to be given.");
+        }
+        if (!window.getDateFrom().isBefore(window.getDateTo())) {
+            throw new ValidationException("dateFrom has to be before dateTo.");
+        }
+        if ((window.getAfterStart() == null) != (window.getAfterId() == null)) {
+            throw new ValidationException("afterStart and afterId have to be given together.");
+        }
+    }
+
+    /**
+     * Both lists are sorted by (start, id) and hold at most size rows past the same key,
+     * so the first size rows of their merge are exactly the requested page.
+     */
+    private List<BookingDto> mergeWindow(List<Booking> hot, List<ArchivedBooking> archived, int size) {
+        return Stream.concat(
+                        hot.stream().map(bookingMapper::bookingToDto),
+                        archived.stream().map(bookingMapper::archivedBookingToDto))
+                .sorted(Comparator.comparing(BookingDto::getStart).thenComparing(BookingDto::getId))
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Picks the page ids from the in-memory timeline and loads the bookings in one query,
+     * falling back to the archive for ids that were moved there.
+     */
+    private List<BookingDto> findByTimeline(BookingTimeline timeline,
+                                            BookingStateDto state,
+                                            boolean currentAscending,
+                                            Pagination page) {
+        List<Long> ids = timeline.page(state, LocalDateTime.now(), currentAscending,
+                page.getOffset(), page.getPageSize());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, BookingDto> found = new HashMap<>();
+        bookingRepository.findAllWithItemAndBookerByIdIn(ids)
+                .forEach(booking -> found.put(booking.getId(), bookingMapper.bookingToDto(booking)));
+        if (found.size() < ids.size()) {
+            List<Long> archivedIds = ids.stream()
+                    .filter(id -> !found.containsKey(id))
+                    .collect(Collectors.toList());
+            archivedBookingRepository.findAllWithItemAndBookerByIdIn(archivedIds)
+                    .forEach(booking -> found.put(booking.getId(), bookingMapper.archivedBookingToDto(booking)));
+        }
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Archived bookings are all past, so they add to PAST and ALL only, the same way the listings show them.
+     */
+    private BookingStatsDto toStats(BookingStateCounts counts, long archived) {
+        return BookingStatsDto.builder()
+                .all(counts.getAll() + archived)
+                .current(counts.getCurrent())
+                .past(counts.getPast() + archived)
+                .future(counts.getFuture())
+                .waiting(counts.getWaiting())
+                .rejected(counts.getRejected())
+                .build();
+    }
+
+    /**
+     * Archived bookings are not guaranteed to start before the hot ones, since a long booking may still be
+     * in the hot table while a later short one has been archived. Both sources are therefore read from their
+     * first row up to the end of the requested page and merged by start, newest first.
+     */
+    private List<BookingDto> withArchived(Function<Pageable, List<Booking>> hot,
+                                          Pagination page,
+                                          Function<Pageable, List<ArchivedBooking>> archived) {
+        Pageable head = new OffsetPagination(0, (int) page.getOffset() + page.getPageSize());
+        return Stream.concat(
+                        hot.apply(head).stream().map(bookingMapper::bookingToDto),
+                        archived.apply(head).stream().map(bookingMapper::archivedBookingToDto))
+                .sorted(Comparator.comparing(BookingDto::getStart, Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(BookingDto::getId, Comparator.nullsLast(Comparator.reverseOrder())))
+                .skip(page.getOffset())
+                .limit(page.getPageSize())
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.util.LocalCache;
+
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of booking state counts, keyed by user. Entries of the booker and the owner
+ * are dropped as soon as one of their bookings is committed.
+ */
+@Component
+public class BookingStatsCache {
+    private final LocalCache<Long, BookingStatsDto> bookerStats;
+    private final LocalCache<Long, BookingStatsDto> ownerStats;
+
+    public BookingStatsCache(BookingStatsProperties properties) {
+        boolean enabled = !properties.getTtl().isZero() && !properties.getTtl().isNegative();
+        this.bookerStats = enabled ? new LocalCache<>(properties.getMaxSize(), properties.getTtl()) : null;
+        this.ownerStats = enabled ? new LocalCache<>(properties.getMaxSize(), properties.getTtl()) : null;
+    }
+
+    public BookingStatsDto getBookerStats(Long userId, Function<Long, BookingStatsDto> loader) {
+        return bookerStats == null ? loader.apply(userId) : bookerStats.get(userId, loader);
+    }
+
+    public BookingStatsDto getOwnerStats(Long userId, Function<Long, BookingStatsDto> loader) {
+        return ownerStats == null ? loader.apply(userId) : ownerStats.get(userId, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        if (bookerStats != null) {
+            bookerStats.invalidate(event.getBookerId());
+            ownerStats.invalidate(event.getOwnerId());
+        }
+    }
+}
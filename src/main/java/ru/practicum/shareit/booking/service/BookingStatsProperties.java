@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.bookings.stats")
+public class BookingStatsProperties {
+    private int maxSize = 10_000;
+    /**
+     * Zero turns the cache off.
+     */
+    private Duration ttl = Duration.ZERO;
+}
@@ -0,0 +1,174 @@
+package ru.practicum.shareit.booking.timeline;
+
+import ru.practicum.shareit.booking.dto.BookingStateDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingTimelineRow;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable bookings of one user as parallel arrays sorted by start, then by id.
+ * Times are kept as epoch microseconds so comparisons match the database timestamps.
+ */
+public final class BookingTimeline {
+    private static final BookingState[] STATES = BookingState.values();
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] ids;
+    private final byte[] statuses;
+
+    private BookingTimeline(long[] starts, long[] ends, long[] ids, byte[] statuses) {
+        this.starts = starts;
+        this.ends = ends;
+        this.ids = ids;
+        this.statuses = statuses;
+    }
+
+    public static BookingTimeline of(List<? extends BookingTimelineRow> rows) {
+        List<BookingTimelineRow> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(BookingTimelineRow::getStart).thenComparing(BookingTimelineRow::getId));
+        int size = sorted.size();
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        long[] ids = new long[size];
+        byte[] statuses = new byte[size];
+        for (int i = 0; i < size; i++) {
+            BookingTimelineRow row = sorted.get(i);
+            starts[i] = toMicros(row.getStart());
+            ends[i] = toMicros(row.getEnd());
+            ids[i] = row.getId();
+            statuses[i] = (byte) row.getStatus().ordinal();
+        }
+        return new BookingTimeline(starts, ends, ids, statuses);
+    }
+
+    /**
+     * Copy of this timeline with the booking added, or replaced when its id is already there.
+     */
+    public BookingTimeline with(Long id, LocalDateTime start, LocalDateTime end, BookingState status) {
+        int existing = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                existing = i;
+                break;
+            }
+        }
+        int size = existing < 0 ? ids.length + 1 : ids.length;
+        long[] newStarts = new long[size];
+        long[] newEnds = new long[size];
+        long[] newIds = new long[size];
+        byte[] newStatuses = new byte[size];
+
+        long start0 = toMicros(start);
+        int j = 0;
+        boolean inserted = false;
+        for (int i = 0; i <= ids.length; i++) {
+            if (!inserted && (i == ids.length || starts[i] > start0 || (starts[i] == start0 && ids[i] > id))) {
+                newStarts[j] = start0;
+                newEnds[j] = toMicros(end);
+                newIds[j] = id;
+                newStatuses[j] = (byte) status.ordinal();
+                j++;
+                inserted = true;
+            }
+            if (i < ids.length && i != existing) {
+                newStarts[j] = starts[i];
+                newEnds[j] = ends[i];
+                newIds[j] = ids[i];
+                newStatuses[j] = statuses[i];
+                j++;
+            }
+        }
+        return new BookingTimeline(newStarts, newEnds, newIds, newStatuses);
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Ids of one page of bookings in the given state, ordered by start descending like the repository
+     * listings; CURRENT can be asked for in ascending order, as the booker listing returns it.
+     */
+    public List<Long> page(BookingStateDto state, LocalDateTime now, boolean currentAscending, long offset, int size) {
+        long at = toMicros(now);
+        switch (state) {
+            case CURRENT:
+                return collect(0, lowerBound(at), currentAscending, i -> ends[i] > at, offset, size);
+            case PAST:
+                return collect(0, lowerBound(at), false, i -> ends[i] < at, offset, size);
+            case FUTURE:
+                return collect(upperBound(at), ids.length, false, i -> true, offset, size);
+            case WAITING:
+                return collect(0, ids.length, false, hasStatus(BookingState.WAITING), offset, size);
+            case REJECTED:
+                return collect(0, ids.length, false, hasStatus(BookingState.REJECTED), offset, size);
+            default:
+                return collect(0, ids.length, false, i -> true, offset, size);
+        }
+    }
+
+    private IntPredicate hasStatus(BookingState status) {
+        return i -> STATES[statuses[i]] == status;
+    }
+
+    private List<Long> collect(int from, int to, boolean ascending, IntPredicate filter, long offset, int size) {
+        List<Long> page = new ArrayList<>(Math.min(size, Math.max(to - from, 0)));
+        long skipped = 0;
+        for (int n = 0; n < to - from && page.size() < size; n++) {
+            int i = ascending ? from + n : to - 1 - n;
+            if (!filter.test(i)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(ids[i]);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * First index whose start is not before the given time.
+     */
+    private int lowerBound(long at) {
+        int index = Arrays.binarySearch(starts, at);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && starts[index - 1] == at) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * First index whose start is after the given time.
+     */
+    private int upperBound(long at) {
+        int index = Arrays.binarySearch(starts, at);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index < starts.length && starts[index] == at) {
+            index++;
+        }
+        return index;
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+}
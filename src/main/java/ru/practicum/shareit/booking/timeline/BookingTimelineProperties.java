@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.timeline;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.bookings.timeline")
+public class BookingTimelineProperties {
+    private boolean enabled;
+    private int maxUsers = 10_000;
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking.timeline;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingTimelineRow;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Read model of booking timelines per booker and per item owner, switched on with
+ * shareit.bookings.timeline.enabled.
+ * <p>
+ * A timeline is loaded from the hot and archive tables on first use and then kept current from committed
+ * booking events. Loading runs inside {@link ConcurrentHashMap#computeIfAbsent}, so an event committed
+ * while the timeline of its user is being loaded waits for the load and is applied on top of it.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingTimelineStore {
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingTimelineProperties properties;
+    private final Map<Long, BookingTimeline> bookerTimelines = new ConcurrentHashMap<>();
+    private final Map<Long, BookingTimeline> ownerTimelines = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public BookingTimeline getBookerTimeline(Long userId) {
+        return get(bookerTimelines, userId, id -> load(bookingRepository.findTimelineByBookerId(id),
+                archivedBookingRepository.findTimelineByBookerId(id)));
+    }
+
+    public BookingTimeline getOwnerTimeline(Long userId) {
+        return get(ownerTimelines, userId, id -> load(bookingRepository.findTimelineByItemOwnerId(id),
+                archivedBookingRepository.findTimelineByItemOwnerId(id)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        bookerTimelines.computeIfPresent(event.getBookerId(), (id, timeline) -> timeline
+                .with(event.getBookingId(), event.getStart(), event.getEnd(), event.getStatus()));
+        ownerTimelines.computeIfPresent(event.getOwnerId(), (id, timeline) -> timeline
+                .with(event.getBookingId(), event.getStart(), event.getEnd(), event.getStatus()));
+    }
+
+    private BookingTimeline get(Map<Long, BookingTimeline> timelines,
+                                Long userId,
+                                Function<Long, BookingTimeline> loader) {
+        BookingTimeline timeline = timelines.get(userId);
+        if (timeline != null) {
+            return timeline;
+        }
+        if (timelines.size() >= properties.getMaxUsers()) {
+            evictOne(timelines);
+        }
+        return timelines.computeIfAbsent(userId, loader);
+    }
+
+    /**
+     * The store is bounded by dropping an arbitrary timeline; it is reloaded on the next request.
+     */
+    private void evictOne(Map<Long, BookingTimeline> timelines) {
+        Iterator<Long> keys = timelines.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private BookingTimeline load(List<? extends BookingTimelineRow> hot, List<? extends BookingTimelineRow> archived) {
+        List<BookingTimelineRow> rows = new ArrayList<>(hot.size() + archived.size());
+        rows.addAll(hot);
+        rows.addAll(archived);
+        return BookingTimeline.of(rows);
+    }
+}
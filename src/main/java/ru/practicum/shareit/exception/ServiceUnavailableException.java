@@ -0,0 +1,8 @@
+package ru.practicum.shareit.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
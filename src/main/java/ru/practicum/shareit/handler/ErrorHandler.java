@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.shareit.exception.AccessException;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
 import ru.practicum.shareit.exception.ValidationException;
 
 import javax.validation.ConstraintViolationException;
@@ -84,6 +85,13 @@ public class ErrorHandler {
         );
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServiceUnavailableException(ServiceUnavailableException e) {
+        log.error("503 — Сервис перегружен.");
+        return new ErrorResponse(String.format("Сервис временно недоступен: " + e.getMessage()));
+    }
+
     private static class ErrorResponse {
         private final String error;
 
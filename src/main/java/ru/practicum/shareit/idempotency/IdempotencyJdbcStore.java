@@ -0,0 +1,84 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps idempotent responses in the idempotency_keys table for shareit.idempotency.ttl.
+ * <p>
+ * A request claims its key by inserting a row without a response before it runs the action, so the primary key
+ * decides which node runs it. The winner fills the response in when the action succeeds and deletes the row when
+ * it fails. A claim left without a response for shareit.idempotency.pending-timeout, by a node that died while
+ * running the action, may be taken over.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.idempotency", name = "jdbc", havingValue = "true")
+public class IdempotencyJdbcStore {
+    private static final String FIND = "SELECT request_hash, response FROM idempotency_keys " +
+            "WHERE idempotency_key = ? AND created > ?";
+    private static final String DELETE_STALE = "DELETE FROM idempotency_keys WHERE idempotency_key = ? " +
+            "AND (created <= ? OR (response IS NULL AND created <= ?))";
+    private static final String CLAIM = "INSERT INTO idempotency_keys " +
+            "(idempotency_key, request_hash, created) VALUES (?, ?, ?)";
+    private static final String COMPLETE = "UPDATE idempotency_keys SET response = ? " +
+            "WHERE idempotency_key = ? AND response IS NULL";
+    private static final String RELEASE = "DELETE FROM idempotency_keys WHERE idempotency_key = ? AND response IS NULL";
+    private static final String DELETE_EXPIRED = "DELETE FROM idempotency_keys WHERE created <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+
+    /**
+     * Returns the stored record, with a null response while the request that claimed the key is still running.
+     */
+    public IdempotencyRecord find(String key) {
+        List<IdempotencyRecord> records = jdbcTemplate.query(FIND,
+                (rs, rowNum) -> new IdempotencyRecord(rs.getString("request_hash"), rs.getString("response")),
+                key, LocalDateTime.now().minus(properties.getTtl()));
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    /**
+     * Returns false when another request holds the key or has already stored its response.
+     */
+    public boolean claim(String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(DELETE_STALE, key, now.minus(properties.getTtl()),
+                now.minus(properties.getPendingTimeout()));
+        try {
+            jdbcTemplate.update(CLAIM, key, requestHash, now);
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.debug("Idempotency key {} is held by another request", key);
+            return false;
+        }
+    }
+
+    public void complete(String key, IdempotencyRecord record) {
+        if (jdbcTemplate.update(COMPLETE, record.getResponse(), key) == 0) {
+            log.warn("Idempotency key {} was taken over before its response was stored", key);
+        }
+    }
+
+    public void release(String key) {
+        jdbcTemplate.update(RELEASE, key);
+    }
+
+    @Scheduled(cron = "${shareit.idempotency.cleanup-cron:0 15 * * * *}")
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED, LocalDateTime.now().minus(properties.getTtl()));
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+}
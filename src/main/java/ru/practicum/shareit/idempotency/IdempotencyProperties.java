@@ -0,0 +1,29 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.idempotency")
+public class IdempotencyProperties {
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofHours(24);
+    private int maxKeys = 100_000;
+    /**
+     * How long a duplicate waits for the request that holds its key before giving up with 503.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+    /**
+     * How long a key claimed in the idempotency_keys table may stay without a response before another request
+     * may take it over.
+     */
+    private Duration pendingTimeout = Duration.ofMinutes(1);
+    /**
+     * Also keep responses in the idempotency_keys table, so that replays survive restarts and reach other nodes.
+     */
+    private boolean jdbc;
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class IdempotencyRecord {
+    private final String requestHash;
+    private final String response;
+    /**
+     * The response object itself, kept by the local cache so that a replay does not have to parse it back.
+     * Null for records loaded from the database.
+     */
+    private final Object value;
+
+    public IdempotencyRecord(String requestHash, String response) {
+        this(requestHash, response, null);
+    }
+
+    /**
+     * A key claimed in the database by a request that has not stored its response yet.
+     */
+    public boolean isPending() {
+        return response == null;
+    }
+}
@@ -0,0 +1,224 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.util.LocalCache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a create request at most once per Idempotency-Key.
+ * <p>
+ * The first request with a key runs the action and stores a hash of its body together with the serialized
+ * response. A retry with the same key and body gets the stored response back without calling the action,
+ * a retry with another body is rejected with 409. A duplicate that arrives while the first request is still
+ * running waits for it instead of running in parallel. Failed requests are not remembered, so they can be
+ * retried with the same key. Keys are scoped by user and endpoint.
+ * <p>
+ * With the JDBC store on, the key is also claimed in the database before the action runs, and a duplicate that
+ * finds it claimed by another node polls for the stored response instead of running the action.
+ */
+@Component
+@ConditionalOnProperty(prefix = "shareit.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotentRequests {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long STORE_POLL_INTERVAL_MILLIS = 50;
+
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    private final IdempotencyJdbcStore jdbcStore;
+    private final LocalCache<String, IdempotencyRecord> records;
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentRequests(ObjectMapper objectMapper,
+                              IdempotencyProperties properties,
+                              ObjectProvider<IdempotencyJdbcStore> jdbcStore) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.jdbcStore = jdbcStore.getIfAvailable();
+        this.records = new LocalCache<>(properties.getMaxKeys(), properties.getTtl());
+    }
+
+    public <T> T execute(String idempotencyKey,
+                         Long userId,
+                         String endpoint,
+                         Object request,
+                         Class<T> responseType,
+                         Supplier<T> action) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(String.format("%s has to be 1 to %d characters long.",
+                    IDEMPOTENCY_KEY_HEADER, MAX_KEY_LENGTH));
+        }
+        String key = String.format("%s:%s:%s", userId, endpoint, idempotencyKey);
+        String requestHash = hash(request);
+
+        while (true) {
+            IdempotencyRecord stored = find(key);
+            if (stored != null) {
+                return replay(stored, requestHash, responseType);
+            }
+
+            CompletableFuture<IdempotencyRecord> own = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(key, own);
+            if (running == null) {
+                if (claim(key, requestHash, own)) {
+                    return runFirst(key, requestHash, own, action);
+                }
+                stored = awaitStored(key, requestHash);
+                if (stored != null) {
+                    return replay(stored, requestHash, responseType);
+                }
+                continue;
+            }
+
+            IdempotencyRecord record = await(running);
+            if (record != null) {
+                return replay(record, requestHash, responseType);
+            }
+        }
+    }
+
+    /**
+     * Claims the key in the database as well when the JDBC store is on. A key held by another node is given up
+     * locally, so that duplicates waiting on this node look at the database again.
+     */
+    private boolean claim(String key, String requestHash, CompletableFuture<IdempotencyRecord> own) {
+        boolean claimed = false;
+        try {
+            claimed = jdbcStore == null || jdbcStore.claim(key, requestHash);
+            return claimed;
+        } finally {
+            if (!claimed) {
+                inFlight.remove(key, own);
+                own.complete(null);
+            }
+        }
+    }
+
+    private <T> T runFirst(String key,
+                           String requestHash,
+                           CompletableFuture<IdempotencyRecord> own,
+                           Supplier<T> action) {
+        IdempotencyRecord record = null;
+        try {
+            T response = action.get();
+            record = new IdempotencyRecord(requestHash, objectMapper.writeValueAsString(response), response);
+            records.put(key, record);
+            if (jdbcStore != null) {
+                jdbcStore.complete(key, record);
+            }
+            return response;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored for idempotent replay.", e);
+        } finally {
+            if (record == null && jdbcStore != null) {
+                jdbcStore.release(key);
+            }
+            inFlight.remove(key, own);
+            own.complete(record);
+        }
+    }
+
+    private IdempotencyRecord find(String key) {
+        IdempotencyRecord record = records.getIfPresent(key);
+        if (record == null && jdbcStore != null) {
+            record = jdbcStore.find(key);
+            if (record == null || record.isPending()) {
+                return null;
+            }
+            records.put(key, record);
+        }
+        return record;
+    }
+
+    /**
+     * Polls the database for the response of a request that holds the key on another node. A body that differs
+     * from the one the key was claimed with is rejected right away. Returns null when the claim was released
+     * because that request failed, so that the caller may claim the key itself.
+     */
+    private IdempotencyRecord awaitStored(String key, String requestHash) {
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+        while (true) {
+            IdempotencyRecord record = jdbcStore.find(key);
+            if (record == null) {
+                return null;
+            }
+            if (!record.getRequestHash().equals(requestHash)) {
+                throw new ConflictException("Idempotency key was already used for a different request.");
+            }
+            if (!record.isPending()) {
+                records.put(key, record);
+                return record;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new ServiceUnavailableException("Request with the same idempotency key is still in progress.");
+            }
+            try {
+                Thread.sleep(STORE_POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while waiting for the same idempotent request.");
+            }
+        }
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Request with the same idempotency key is still in progress.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the same idempotent request.");
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private <T> T replay(IdempotencyRecord record, String requestHash, Class<T> responseType) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new ConflictException("Idempotency key was already used for a different request.");
+        }
+        if (responseType.isInstance(record.getValue())) {
+            return responseType.cast(record.getValue());
+        }
+        try {
+            return objectMapper.readValue(record.getResponse(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read.", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return toHex(digest.digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Request cannot be hashed.", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -2,9 +2,13 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.idempotency.IdempotentRequests;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBookingsAndComments;
@@ -13,8 +17,11 @@ import ru.practicum.shareit.util.PostRequestValidationGroup;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static ru.practicum.shareit.idempotency.IdempotentRequests.IDEMPOTENCY_KEY_HEADER;
+
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -22,14 +29,21 @@ import java.util.List;
 @Validated
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectProvider<IdempotentRequests> idempotentRequests;
     public static final String USERID_HEADER = "X-Sharer-User-Id";
 
     @PostMapping
     @Validated(PostRequestValidationGroup.class)
     @ResponseStatus(HttpStatus.CREATED)
     public ItemDto create(@RequestHeader(USERID_HEADER) Long userId,
+                          @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
                           @RequestBody @Valid ItemDto itemDto) {
         log.info("Got request to POST item {}", itemDto);
+        IdempotentRequests idempotency = idempotentRequests.getIfAvailable();
+        if (idempotencyKey != null && idempotency != null) {
+            return idempotency.execute(idempotencyKey, userId, "POST /items", itemDto, ItemDto.class,
+                    () -> itemService.create(userId, itemDto));
+        }
         return itemService.create(userId, itemDto);
     }
 
@@ -85,4 +99,18 @@ public class ItemController {
         log.info("Got request to POST comment {}", commentDto);
         return itemService.createComment(userId, itemId, commentDto);
     }
+
+    @GetMapping("/{itemId}/availability")
+    @ResponseStatus(HttpStatus.OK)
+    public List<AvailabilityIntervalDto> findAvailability(@RequestHeader(USERID_HEADER) Long userId,
+                                                          @PathVariable("itemId") Long itemId,
+                                                          @RequestParam("from")
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                          LocalDateTime from,
+                                                          @RequestParam("to")
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                          LocalDateTime to) {
+        log.info("Got request to GET availability of item id {} from {} to {}", itemId, from, to);
+        return itemService.findAvailability(userId, itemId, from, to);
+    }
 }
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.Builder;
+import lombok.Getter;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Published by ItemServiceImpl when an item is created.
+ */
+@Getter
+@Builder
+public class ItemCreatedEvent {
+    private final Long itemId;
+    private final Long ownerId;
+    private final Long requestId;
+    private final String name;
+    private final String description;
+
+    public static ItemCreatedEvent of(Item item, Long ownerId) {
+        return ItemCreatedEvent.builder()
+                .itemId(item.getId())
+                .ownerId(ownerId)
+                .requestId(item.getRequest() == null ? null : item.getRequest().getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .build();
+    }
+}
@@ -8,6 +8,10 @@ import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.util.Pagination;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
@@ -20,7 +24,27 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query(value = "select i from Item i " +
             "where (upper(i.name) like upper(concat('%', :text, '%')) " +
             " or upper(i.description) like upper(concat('%', :text, '%')))" +
-            " and i.available = true ")
+            " and i.available = true " +
+            " and i.owner.deletedAt is null ")
     Page<Item> search(@Param ("text") String text, Pagination page);
 
+    /**
+     * Answers to a page of requests in one query; the request is fetched too, so reading
+     * {@code item.request.id} while grouping does not touch the database again. Items of deleted
+     * owners are left out, the same as in search.
+     */
+    @Query("select i from Item i " +
+            "join fetch i.request r " +
+            "where r.id in :requestIds " +
+            "and i.owner.deletedAt is null " +
+            "order by i.id asc")
+    List<Item> findAllByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * Items of a deleted owner stay until UserDeletionJob purges them, but are not found by others meanwhile.
+     */
+    Optional<Item> findByIdAndOwnerDeletedAtIsNull(Long id);
+
+    boolean existsByIdAndOwnerDeletedAtIsNull(Long id);
+
 }
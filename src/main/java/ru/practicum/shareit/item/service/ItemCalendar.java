@@ -0,0 +1,73 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.booking.model.BookingPeriod;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Busy periods of one item, merged into disjoint intervals sorted by start.
+ * Only windows starting at or after {@link #getLoadedAt()} can be answered from it.
+ */
+public class ItemCalendar {
+    private final LocalDateTime loadedAt;
+    private final List<LocalDateTime> starts;
+    private final List<LocalDateTime> ends;
+
+    private ItemCalendar(LocalDateTime loadedAt, List<LocalDateTime> starts, List<LocalDateTime> ends) {
+        this.loadedAt = loadedAt;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * Merge sweep over periods that arrive sorted by start.
+     */
+    public static ItemCalendar of(LocalDateTime loadedAt, List<? extends BookingPeriod> periodsSortedByStart) {
+        List<LocalDateTime> starts = new ArrayList<>();
+        List<LocalDateTime> ends = new ArrayList<>();
+        for (BookingPeriod period : periodsSortedByStart) {
+            int last = ends.size() - 1;
+            if (last >= 0 && !period.getStart().isAfter(ends.get(last))) {
+                if (period.getEnd().isAfter(ends.get(last))) {
+                    ends.set(last, period.getEnd());
+                }
+            } else {
+                starts.add(period.getStart());
+                ends.add(period.getEnd());
+            }
+        }
+        return new ItemCalendar(loadedAt, starts, ends);
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    public List<AvailabilityIntervalDto> freeIntervals(LocalDateTime from, LocalDateTime to) {
+        List<AvailabilityIntervalDto> free = new ArrayList<>();
+        int index = Collections.binarySearch(ends, from);
+        index = index >= 0 ? index + 1 : -index - 1;
+
+        LocalDateTime cursor = from;
+        for (; index < starts.size() && starts.get(index).isBefore(to); index++) {
+            if (starts.get(index).isAfter(cursor)) {
+                free.add(AvailabilityIntervalDto.builder()
+                        .start(cursor)
+                        .end(starts.get(index))
+                        .build());
+            }
+            cursor = ends.get(index);
+        }
+        if (cursor.isBefore(to)) {
+            free.add(AvailabilityIntervalDto.builder()
+                    .start(cursor)
+                    .end(to)
+                    .build());
+        }
+        return free;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.util.LocalCache;
+
+import java.util.function.Function;
+
+/**
+ * Per-item cache of future busy periods used by the availability endpoint.
+ * Entries are dropped whenever a booking of the item is created or changes status on this instance;
+ * bookings changed through another instance show up once shareit.items.calendar.ttl runs out.
+ */
+@Component
+public class ItemCalendarCache {
+    private final LocalCache<Long, ItemCalendar> calendars;
+
+    public ItemCalendarCache(ItemCalendarProperties properties) {
+        this.calendars = new LocalCache<>(properties.getMaxSize(), properties.getTtl());
+    }
+
+    public ItemCalendar get(Long itemId, Function<Long, ItemCalendar> loader) {
+        return calendars.get(itemId, loader);
+    }
+
+    /**
+     * Evicts right away and once more after commit. A reader that loaded the calendar in between may
+     * have read it before the commit, so LocalCache does not store what it loaded.
+     */
+    public void evict(Long itemId) {
+        calendars.invalidate(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    calendars.invalidate(itemId);
+                }
+            });
+        }
+    }
+}
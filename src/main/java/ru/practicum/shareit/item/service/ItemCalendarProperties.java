@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.items.calendar")
+public class ItemCalendarProperties {
+    private int maxSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(10);
+}
@@ -1,9 +1,11 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBookingsAndComments;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -20,4 +22,6 @@ public interface ItemService {
     List<ItemDto> search(Long userId, String text, Integer from, Integer size);
 
     CommentDto createComment(Long userId, Long itemId, CommentDto commentDto);
+
+    List<AvailabilityIntervalDto> findAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
 }
@@ -1,19 +1,23 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.AccessException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBookingsAndComments;
+import ru.practicum.shareit.item.event.ItemCreatedEvent;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
@@ -36,6 +40,7 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final List<BookingState> BLOCKING_STATES = List.of(BookingState.WAITING, BookingState.APPROVED);
 
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
@@ -46,6 +51,9 @@ public class ItemServiceImpl implements ItemService {
     private final UserMapper userMapper;
     private final BookingMapper bookingMapper;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemCalendarCache itemCalendarCache;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -54,19 +62,22 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemMapper.itemFromDto(itemDto);
 
         if (itemDto.getRequestId() != null) {
-            ItemRequest request = itemRequestRepository.findById(itemDto.getRequestId())
+            ItemRequest request = itemRequestRepository.findForUpdateById(itemDto.getRequestId())
+                    .filter(found -> found.getRequestor().getDeletedAt() == null)
                     .orElseThrow(() -> new EntityNotFoundException(ItemRequest.class, String.format("ID: %s", itemDto.getRequestId())));
             item.setRequest(request);
         }
         item.setOwner(user);
 
-        return itemMapper.itemToDto(itemRepository.save(item));
+        Item saved = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemCreatedEvent.of(saved, user.getId()));
+        return itemMapper.itemToDto(saved);
     }
 
     @Override
     @Transactional
     public ItemDto update(Long userId, Long itemId, ItemDto itemDto) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new EntityNotFoundException(Item.class, "Item id not found in storage"));
 
@@ -84,11 +95,10 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemDtoWithBookingsAndComments findById(Long userId, Long itemId) {
-        userService.findById(userId);
-        Item item = itemRepository.findById(itemId).orElseThrow(
-                () -> new EntityNotFoundException(Item.class, String.format("Item with id %d not found in storage",
-                        itemId))
-        );
+        userService.checkExists(userId);
+        Item item = itemRepository.findByIdAndOwnerDeletedAtIsNull(itemId)
+                .orElseThrow(() -> new EntityNotFoundException(Item.class,
+                        String.format("Item with id %d not found in storage", itemId)));
         ItemDtoWithBookingsAndComments itemDtoWithBookingsAndComments = itemMapper.itemToItemDtoWithBookingAndComments(item);
 
         BookingInfoDto lastBookingDto = null;
@@ -123,7 +133,7 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemDtoWithBookingsAndComments> findAll(Long userId, Integer from, Integer size) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         Pagination page = new Pagination(from, size);
 
         List<ItemDtoWithBookingsAndComments> items = itemRepository.findAllByUserId(userId, page)
@@ -156,7 +166,7 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public void delete(Long userId, Long itemId) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         Item item = itemRepository.findById(itemId).orElseThrow(
                 () -> new EntityNotFoundException(Item.class, String.format("Item with id %d not found in storage",
                         itemId))
@@ -170,7 +180,7 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemDto> search(Long userId, String text, Integer from, Integer size) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         if (text == null || text.isBlank()) {
             return Collections.emptyList();
         }
@@ -190,12 +200,15 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     public CommentDto createComment(Long userId, Long itemId, CommentDto commentDto) {
         User author = userMapper.userFromDto(userService.findById(userId));
-        Item item = itemRepository.findById(itemId).orElseThrow(
-                () -> new EntityNotFoundException(Item.class, String.format("Item with id %d not found in storage",
-                        itemId))
-        );
-        bookingRepository.findFirstByItemIdAndBookerIdAndStatusAndEndBefore(itemId, userId, BookingState.APPROVED, LocalDateTime.now())
-                .orElseThrow(() -> new ValidationException(String.format("User with id %d did not rent item with id %d", userId, itemId)));
+        Item item = itemRepository.findByIdAndOwnerDeletedAtIsNull(itemId)
+                .orElseThrow(() -> new EntityNotFoundException(Item.class,
+                        String.format("Item with id %d not found in storage", itemId)));
+        boolean rented = bookingRepository.findFirstByItemIdAndBookerIdAndStatusAndEndBefore(itemId, userId,
+                        BookingState.APPROVED, LocalDateTime.now()).isPresent()
+                || archivedBookingRepository.existsByItemIdAndBookerIdAndStatus(itemId, userId, BookingState.APPROVED);
+        if (!rented) {
+            throw new ValidationException(String.format("User with id %d did not rent item with id %d", userId, itemId));
+        }
         Comment comment = commentMapper.commentFromDto(commentDto);
         comment.setItem(item);
         comment.setAuthor(author);
@@ -203,4 +216,27 @@ public class ItemServiceImpl implements ItemService {
         return commentMapper.commentToDto(commentRepository.save(comment));
     }
 
+    @Override
+    public List<AvailabilityIntervalDto> findAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        userService.checkExists(userId);
+        if (!to.isAfter(from)) {
+            throw new ValidationException("Availability window end is before start.");
+        }
+        if (!itemRepository.existsByIdAndOwnerDeletedAtIsNull(itemId)) {
+            throw new EntityNotFoundException(Item.class, String.format("Item with id %d not found in storage",
+                    itemId));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ItemCalendar calendar;
+        if (from.isBefore(now)) {
+            calendar = ItemCalendar.of(from, bookingRepository
+                    .findByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAsc(itemId, BLOCKING_STATES, to, from));
+        } else {
+            calendar = itemCalendarCache.get(itemId, id -> ItemCalendar.of(now, bookingRepository
+                    .findByItemIdAndStatusInAndEndAfterOrderByStartAsc(id, BLOCKING_STATES, now)));
+        }
+        return calendar.freeIntervals(from, to);
+    }
+
 }
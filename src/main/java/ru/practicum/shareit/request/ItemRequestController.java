@@ -2,15 +2,18 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.util.PostRequestValidationGroup;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static ru.practicum.shareit.item.ItemController.USERID_HEADER;
@@ -39,6 +42,15 @@ public class ItemRequestController {
         return itemRequestService.getAllRequestByUser(userId);
     }
 
+    @GetMapping("/matches")
+    @ResponseStatus(HttpStatus.OK)
+    public List<RequestMatchDto> getMatches(@RequestHeader(USERID_HEADER) Long userId,
+                                            @RequestParam(defaultValue = "0") @Min(0) Integer from,
+                                            @RequestParam(defaultValue = "20") @Min(1) Integer size) {
+        log.info("Got request to GET item matches for requests of user with id {}", userId);
+        return itemRequestService.getMatches(userId, from, size);
+    }
+
     @GetMapping("/{requestId}")
     @ResponseStatus(HttpStatus.OK)
     public ItemRequestDto getRequestById(@RequestHeader(USERID_HEADER) Long userId,
@@ -51,9 +63,16 @@ public class ItemRequestController {
     @ResponseStatus(HttpStatus.OK)
     public List<ItemRequestDto> getAllRequests(@RequestHeader(USERID_HEADER) Long userId,
                                                @RequestParam(defaultValue = "0") @Min(0) Integer from,
-                                               @RequestParam(defaultValue = "20") @Min(1) Integer size) {
+                                               @RequestParam(defaultValue = "20") @Min(1) Integer size,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreated,
+                                               @RequestParam(required = false) Long afterId,
+                                               @RequestParam(defaultValue = "false") boolean includeClosed) {
         log.info("Got request to GET all item requests");
-        return itemRequestService.getAllRequests(userId, from, size);
+        if (afterCreated != null || afterId != null) {
+            return itemRequestService.getAllRequestsAfter(userId, includeClosed, afterCreated, afterId, size);
+        }
+        return itemRequestService.getAllRequests(userId, includeClosed, from, size);
     }
 
 
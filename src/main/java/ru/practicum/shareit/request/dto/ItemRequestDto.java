@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.dto;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.model.RequestStatus;
 import ru.practicum.shareit.util.PostRequestValidationGroup;
 
 import javax.validation.constraints.NotBlank;
@@ -16,5 +17,6 @@ public class ItemRequestDto {
     @NotBlank(message = "Field description has to be filled.", groups = PostRequestValidationGroup.class)
     private String description;
     private LocalDateTime created;
+    private RequestStatus status;
     private List<ItemDto> items;
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class RequestMatchDto {
+    private Long id;
+    private Long requestId;
+    private String requestDescription;
+    private Long itemId;
+    private String itemName;
+    private String itemDescription;
+    private Boolean available;
+    private Integer sharedTerms;
+    private LocalDateTime created;
+}
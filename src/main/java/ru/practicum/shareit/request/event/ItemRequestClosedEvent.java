@@ -0,0 +1,21 @@
+package ru.practicum.shareit.request.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.request.model.RequestStatus;
+
+import java.util.List;
+
+/**
+ * Published when item requests leave OPEN, either fulfilled by answering items or expired, and when they are
+ * dropped because their requestor was deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemRequestClosedEvent {
+    private final List<Long> requestIds;
+    /**
+     * The status the requests were given; null for requests of a deleted requestor.
+     */
+    private final RequestStatus status;
+}
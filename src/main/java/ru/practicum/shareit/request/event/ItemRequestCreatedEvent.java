@@ -0,0 +1,28 @@
+package ru.practicum.shareit.request.event;
+
+import lombok.Builder;
+import lombok.Getter;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by ItemRequestServiceImpl when an item request is created.
+ */
+@Getter
+@Builder
+public class ItemRequestCreatedEvent {
+    private final Long requestId;
+    private final Long requestorId;
+    private final String description;
+    private final LocalDateTime created;
+
+    public static ItemRequestCreatedEvent of(ItemRequest request, Long requestorId) {
+        return ItemRequestCreatedEvent.builder()
+                .requestId(request.getId())
+                .requestorId(requestorId)
+                .description(request.getDescription())
+                .created(request.getCreated())
+                .build();
+    }
+}
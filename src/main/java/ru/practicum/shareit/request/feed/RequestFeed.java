@@ -0,0 +1,202 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.event.ItemCreatedEvent;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.request.event.ItemRequestCreatedEvent;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Shared in-memory window over the head of the GET /requests/all feed, switched on with
+ * shareit.requests.feed.enabled.
+ * <p>
+ * The feed lists open requests oldest first by (created, id), so its first pages are the first
+ * shareit.requests.feed.capacity open requests of that order. They are loaded with their item counts on first
+ * use and then kept current from committed request and item events; excluding the caller's own requests is
+ * done while walking the window. A page that runs past the end of the window while the table holds more open
+ * requests is left to the database. Closed requests only shrink the window, so once an incomplete window falls
+ * below half of its capacity it is dropped and loaded again by the next page.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestFeed {
+    private static final String LOAD = "SELECT r.id, r.requestor_id, r.description, r.created, " +
+            "(SELECT count(*) FROM items i JOIN users o ON o.id = i.owner_id " +
+            "WHERE i.request_id = r.id AND o.deleted_at IS NULL) AS item_count " +
+            "FROM requests r JOIN users u ON u.id = r.requestor_id " +
+            "WHERE r.status = 'OPEN' AND u.deleted_at IS NULL ORDER BY r.created, r.id LIMIT ?";
+    private static final Comparator<Key> KEY_ORDER = Comparator
+            .comparing(Key::getCreated, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Key::getId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RequestFeedProperties properties;
+    private final ConcurrentSkipListMap<Key, RequestFeedEntry> entries = new ConcurrentSkipListMap<>(KEY_ORDER);
+    private final Map<Long, RequestFeedEntry> entriesById = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    /**
+     * Whether the window holds every open request, so that running out of it means the feed has ended.
+     */
+    private volatile boolean complete;
+    /**
+     * Changes whenever the window is dropped, so that a page walked across a reset is not served.
+     */
+    private volatile long generation;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Up to size requests not made by excludedRequestorId, after the request (afterCreated, afterId) if given,
+     * with the first skip of them left out; empty if the window cannot tell what the page holds.
+     */
+    public Optional<List<RequestFeedEntry>> page(Long excludedRequestorId,
+                                                 LocalDateTime afterCreated,
+                                                 Long afterId,
+                                                 int skip,
+                                                 int size) {
+        long walked = load();
+        NavigableMap<Key, RequestFeedEntry> view = afterCreated == null
+                ? entries
+                : entries.tailMap(new Key(afterCreated, afterId), false);
+        List<RequestFeedEntry> page = new ArrayList<>(size);
+        int skipped = 0;
+        for (RequestFeedEntry entry : view.values()) {
+            if (Objects.equals(entry.getRequestorId(), excludedRequestorId)) {
+                continue;
+            }
+            if (skipped < skip) {
+                skipped++;
+                continue;
+            }
+            page.add(entry);
+            if (page.size() == size) {
+                return walked == generation ? Optional.of(page) : Optional.empty();
+            }
+        }
+        return complete && walked == generation ? Optional.of(page) : Optional.empty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRequestCreated(ItemRequestCreatedEvent event) {
+        if (!isEnabled() || !loaded) {
+            return;
+        }
+        Key key = new Key(event.getCreated(), event.getRequestId());
+        if (!complete && (entries.isEmpty() || KEY_ORDER.compare(key, entries.lastKey()) > 0)) {
+            return;
+        }
+        add(key, new RequestFeedEntry(event.getRequestId(), event.getRequestorId(), event.getDescription(),
+                event.getCreated(), 0));
+        if (entries.size() > properties.getCapacity()) {
+            RequestFeedEntry evicted = entries.pollLastEntry().getValue();
+            entriesById.remove(evicted.getId());
+            complete = false;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemCreated(ItemCreatedEvent event) {
+        if (!isEnabled() || event.getRequestId() == null) {
+            return;
+        }
+        RequestFeedEntry entry = entriesById.get(event.getRequestId());
+        if (entry != null) {
+            entry.incrementItemCount();
+        }
+    }
+
+    /**
+     * Dropping a closed request leaves the window a prefix of the open feed, only a shorter one.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRequestClosed(ItemRequestClosedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (Long requestId : event.getRequestIds()) {
+            RequestFeedEntry entry = entriesById.remove(requestId);
+            if (entry != null) {
+                entries.remove(new Key(entry.getCreated(), entry.getId()));
+            }
+        }
+        if (loaded && !complete && entries.size() < Math.max(1, properties.getCapacity() / 2)) {
+            generation++;
+            loaded = false;
+            entries.clear();
+            entriesById.clear();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Runs under the same monitor as {@link #onRequestCreated}, so a request committed while the window is
+     * loading is either read by the load query or added by its event afterwards. Returns the generation of
+     * the loaded window.
+     */
+    private long load() {
+        if (loaded) {
+            return generation;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return generation;
+            }
+            int capacity = properties.getCapacity();
+            List<RequestFeedEntry> rows = jdbcTemplate.query(LOAD, (rs, rowNum) -> {
+                long requestorId = rs.getLong("requestor_id");
+                Long requestor = rs.wasNull() ? null : requestorId;
+                Timestamp created = rs.getTimestamp("created");
+                return new RequestFeedEntry(rs.getLong("id"), requestor, rs.getString("description"),
+                        created == null ? null : created.toLocalDateTime(), rs.getInt("item_count"));
+            }, capacity + 1);
+            complete = rows.size() <= capacity;
+            for (RequestFeedEntry entry : rows.subList(0, Math.min(capacity, rows.size()))) {
+                add(new Key(entry.getCreated(), entry.getId()), entry);
+            }
+            loaded = true;
+            return generation;
+        }
+    }
+
+    private void add(Key key, RequestFeedEntry entry) {
+        entries.put(key, entry);
+        entriesById.put(entry.getId(), entry);
+    }
+
+    private static class Key {
+        private final LocalDateTime created;
+        private final Long id;
+
+        Key(LocalDateTime created, Long id) {
+            this.created = created;
+            this.id = id;
+        }
+
+        LocalDateTime getCreated() {
+            return created;
+        }
+
+        Long getId() {
+            return id;
+        }
+    }
+}
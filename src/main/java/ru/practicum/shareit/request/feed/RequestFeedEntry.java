@@ -0,0 +1,31 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+public class RequestFeedEntry {
+    private final Long id;
+    private final Long requestorId;
+    private final String description;
+    private final LocalDateTime created;
+    private final AtomicInteger itemCount;
+
+    public RequestFeedEntry(Long id, Long requestorId, String description, LocalDateTime created, int itemCount) {
+        this.id = id;
+        this.requestorId = requestorId;
+        this.description = description;
+        this.created = created;
+        this.itemCount = new AtomicInteger(itemCount);
+    }
+
+    public int getItemCount() {
+        return itemCount.get();
+    }
+
+    void incrementItemCount() {
+        itemCount.incrementAndGet();
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.requests.feed")
+public class RequestFeedProperties {
+    private boolean enabled;
+    /**
+     * Number of requests, counted from the start of the feed, that are kept in memory.
+     */
+    private int capacity = 1000;
+}
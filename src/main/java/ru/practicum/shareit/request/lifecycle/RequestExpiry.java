@@ -0,0 +1,97 @@
+package ru.practicum.shareit.request.lifecycle;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.request.model.RequestStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expires OPEN requests older than shareit.requests.lifecycle.ttl and moves expired requests without
+ * answering items from requests to requests_archive, keeping the table the feed reads small.
+ * <p>
+ * Both steps run in batches of their own transaction. Expired requests that some items answer stay in
+ * requests, since those items still reference them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.requests.lifecycle", name = "enabled", havingValue = "true")
+public class RequestExpiry {
+    private static final String SELECT_EXPIRED = "SELECT id FROM requests " +
+            "WHERE status = 'OPEN' AND created < :cutoff ORDER BY id LIMIT :limit";
+    private static final String EXPIRE_BATCH = "UPDATE requests SET status = 'EXPIRED' " +
+            "WHERE id IN (:ids) AND status = 'OPEN'";
+    private static final String SELECT_ARCHIVABLE = "SELECT r.id FROM requests r WHERE r.status = 'EXPIRED' " +
+            "AND NOT EXISTS (SELECT 1 FROM items i WHERE i.request_id = r.id) ORDER BY r.id LIMIT :limit";
+    private static final String COPY_BATCH = "INSERT INTO requests_archive " +
+            "(id, description, requestor_id, created, status) " +
+            "SELECT id, description, requestor_id, created, status FROM requests WHERE id IN (:ids)";
+    private static final String DELETE_MATCHES = "DELETE FROM request_matches WHERE request_id IN (:ids)";
+    private static final String DELETE_BATCH = "DELETE FROM requests WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RequestLifecycleProperties properties;
+
+    @Scheduled(cron = "${shareit.requests.lifecycle.cron:0 45 3 * * *}")
+    public void run() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getTtl());
+        int expired = 0;
+        int processed;
+        do {
+            processed = expireBatch(cutoff);
+            expired += processed;
+        } while (processed == properties.getBatchSize());
+
+        int archived = 0;
+        do {
+            processed = archiveBatch();
+            archived += processed;
+        } while (processed == properties.getBatchSize());
+
+        if (expired > 0 || archived > 0) {
+            log.info("Expired {} item requests created before {}, archived {}", expired, cutoff, archived);
+        }
+    }
+
+    int expireBatch(LocalDateTime cutoff) {
+        Integer expired = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_EXPIRED, new MapSqlParameterSource()
+                    .addValue("cutoff", cutoff)
+                    .addValue("limit", properties.getBatchSize()), Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            jdbcTemplate.update(EXPIRE_BATCH, new MapSqlParameterSource("ids", ids));
+            eventPublisher.publishEvent(new ItemRequestClosedEvent(ids, RequestStatus.EXPIRED));
+            return ids.size();
+        });
+        return expired == null ? 0 : expired;
+    }
+
+    int archiveBatch() {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_ARCHIVABLE,
+                    new MapSqlParameterSource("limit", properties.getBatchSize()), Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+            jdbcTemplate.update(COPY_BATCH, params);
+            jdbcTemplate.update(DELETE_MATCHES, params);
+            return jdbcTemplate.update(DELETE_BATCH, params);
+        });
+        return moved == null ? 0 : moved;
+    }
+}
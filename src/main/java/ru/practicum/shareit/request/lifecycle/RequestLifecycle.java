@@ -0,0 +1,36 @@
+package ru.practicum.shareit.request.lifecycle;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.event.ItemCreatedEvent;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.request.model.RequestStatus;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.util.List;
+
+/**
+ * Marks a request FULFILLED when enough items answer it. Runs as a plain listener inside the transaction
+ * that creates the item, so the item and the status change commit together. ItemServiceImpl locks the request
+ * row before inserting the item, so concurrent answers are counted one after another.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestLifecycle {
+    private final ItemRequestRepository itemRequestRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RequestLifecycleProperties properties;
+
+    @EventListener
+    public void onItemCreated(ItemCreatedEvent event) {
+        if (event.getRequestId() == null) {
+            return;
+        }
+        if (itemRequestRepository.markFulfilled(event.getRequestId(), properties.getFulfilledAfterItems()) > 0) {
+            eventPublisher.publishEvent(new ItemRequestClosedEvent(List.of(event.getRequestId()),
+                    RequestStatus.FULFILLED));
+        }
+    }
+}
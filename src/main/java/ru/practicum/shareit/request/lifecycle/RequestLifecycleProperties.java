@@ -0,0 +1,26 @@
+package ru.practicum.shareit.request.lifecycle;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.requests.lifecycle")
+public class RequestLifecycleProperties {
+    /**
+     * Switches on the job that expires and archives requests; fulfilment does not depend on it.
+     */
+    private boolean enabled;
+    /**
+     * A request is FULFILLED once this many items answer it.
+     */
+    private int fulfilledAfterItems = 1;
+    /**
+     * An OPEN request expires this long after it was created.
+     */
+    private Duration ttl = Duration.ofDays(30);
+    private int batchSize = 1000;
+}
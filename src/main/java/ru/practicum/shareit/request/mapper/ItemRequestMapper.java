@@ -4,16 +4,44 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ArchivedItemRequest;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.feed.RequestFeedEntry;
+import ru.practicum.shareit.request.model.RequestMatch;
+
+import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface ItemRequestMapper {
+    @Mapping(target = "status", ignore = true)
     ItemRequest itemRequestFromDto(ItemRequestDto itemRequestDto);
 
     ItemRequestDto itemRequestToDto(ItemRequest itemRequest);
 
+    @Mapping(target = "items", source = "items")
+    ItemRequestDto itemRequestToDto(ItemRequest itemRequest, List<Item> items);
+
+    /**
+     * Only unanswered requests are archived, so they never have items.
+     */
+    @Mapping(target = "items", expression = "java(java.util.List.of())")
+    ItemRequestDto archivedItemRequestToDto(ArchivedItemRequest itemRequest);
+
+    @Mapping(target = "items", source = "items")
+    @Mapping(target = "status", constant = "OPEN")
+    ItemRequestDto feedEntryToDto(RequestFeedEntry entry, List<Item> items);
+
     @Mapping(target = "requestId", source = "item.request.id")
     ItemDto itemToDto(Item item);
 
+    @Mapping(target = "requestId", source = "request.id")
+    @Mapping(target = "requestDescription", source = "request.description")
+    @Mapping(target = "itemId", source = "item.id")
+    @Mapping(target = "itemName", source = "item.name")
+    @Mapping(target = "itemDescription", source = "item.description")
+    @Mapping(target = "available", source = "item.available")
+    RequestMatchDto matchToDto(RequestMatch match);
+
 }
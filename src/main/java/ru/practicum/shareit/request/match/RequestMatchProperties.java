@@ -0,0 +1,24 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.requests.matching")
+public class RequestMatchProperties {
+    private boolean enabled;
+    /**
+     * Shorter words are not indexed; they are mostly articles and prepositions.
+     */
+    private int minTermLength = 3;
+    /**
+     * A request matches an item once they share this many terms, or all terms of the request if it has fewer.
+     */
+    private int minSharedTerms = 2;
+    /**
+     * Only the best scoring matches of a new item are recorded.
+     */
+    private int maxMatchesPerItem = 20;
+}
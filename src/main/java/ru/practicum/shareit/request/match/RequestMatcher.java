@@ -0,0 +1,120 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.event.ItemCreatedEvent;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.request.event.ItemRequestCreatedEvent;
+import ru.practicum.shareit.request.model.RequestMatch;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestMatchRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records which open item requests a newly created item could satisfy, so requestors read their matches
+ * from GET /requests/matches instead of polling the request and item search endpoints.
+ * <p>
+ * Requests in status OPEN are kept in a {@link TermIndex} that is filled from the requests table once at
+ * startup and then from request events; the index lives in memory only, the matches it finds are stored
+ * in request_matches.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shareit.requests.matching", name = "enabled", havingValue = "true")
+public class RequestMatcher {
+    private static final String FIND_OPEN = "SELECT r.id, r.requestor_id, r.description FROM requests r " +
+            "JOIN users u ON u.id = r.requestor_id WHERE r.status = 'OPEN' AND u.deleted_at IS NULL";
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final RequestMatchRepository requestMatchRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RequestMatchProperties properties;
+    private final TermIndex index;
+
+    public RequestMatcher(ItemRequestRepository itemRequestRepository,
+                          ItemRepository itemRepository,
+                          RequestMatchRepository requestMatchRepository,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          RequestMatchProperties properties) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.requestMatchRepository = requestMatchRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+        this.index = new TermIndex(properties.getMinTermLength());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        jdbcTemplate.query(FIND_OPEN, rs -> {
+            long requestorId = rs.getLong("requestor_id");
+            index.put(rs.getLong("id"), rs.wasNull() ? null : requestorId, rs.getString("description"));
+        });
+        log.info("Indexed {} open item requests for matching", index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestCreated(ItemRequestCreatedEvent event) {
+        index.put(event.getRequestId(), event.getRequestorId(), event.getDescription());
+    }
+
+    /**
+     * Runs after the item is committed, so the matches are written in a transaction of their own; a failure
+     * there loses the matches of this item but never the item itself.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemCreated(ItemCreatedEvent event) {
+        List<TermIndex.Candidate> candidates = index.match(event.getName() + " " + event.getDescription(),
+                        event.getOwnerId(), properties.getMinSharedTerms(), properties.getMaxMatchesPerItem())
+                .stream()
+                .filter(candidate -> !Long.valueOf(candidate.getRequestId()).equals(event.getRequestId()))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return;
+        }
+        try {
+            save(event.getItemId(), candidates);
+        } catch (DataAccessException e) {
+            log.warn("Failed to record {} request matches of item id {}", candidates.size(), event.getItemId(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestClosed(ItemRequestClosedEvent event) {
+        event.getRequestIds().forEach(index::remove);
+    }
+
+    int openRequests() {
+        return index.size();
+    }
+
+    private void save(Long itemId, List<TermIndex.Candidate> candidates) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> requestMatchRepository.saveAll(candidates.stream()
+                .map(candidate -> RequestMatch.builder()
+                        .request(itemRequestRepository.getReferenceById(candidate.getRequestId()))
+                        .item(itemRepository.getReferenceById(itemId))
+                        .sharedTerms(candidate.getSharedTerms())
+                        .created(now)
+                        .build())
+                .collect(Collectors.toList())));
+    }
+}
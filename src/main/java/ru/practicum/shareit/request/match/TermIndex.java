@@ -0,0 +1,145 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index from the terms of open request descriptions to the requests using them. Matching a text
+ * only walks the posting lists of its own terms, so the cost follows the size of the item and not the
+ * number of open requests.
+ */
+class TermIndex {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final int minTermLength;
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Entry> requests = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    TermIndex(int minTermLength) {
+        this.minTermLength = minTermLength;
+    }
+
+    Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.length() >= minTermLength) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    void put(long requestId, Long requestorId, String description) {
+        Set<String> terms = terms(description);
+        if (terms.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(requestId);
+            requests.put(requestId, new Entry(requestorId, terms));
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new HashSet<>()).add(requestId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean remove(long requestId) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(requestId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Requests sharing at least minSharedTerms terms with the text, or all of their terms if they have fewer,
+     * most shared terms first. Requests of excludedRequestorId are skipped.
+     */
+    List<Candidate> match(String text, Long excludedRequestorId, int minSharedTerms, int limit) {
+        Set<String> terms = terms(text);
+        Map<Long, Integer> shared = new HashMap<>();
+        List<Candidate> candidates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String term : terms) {
+                Set<Long> ids = postings.get(term);
+                if (ids != null) {
+                    for (Long id : ids) {
+                        shared.merge(id, 1, Integer::sum);
+                    }
+                }
+            }
+            for (Map.Entry<Long, Integer> hit : shared.entrySet()) {
+                Entry entry = requests.get(hit.getKey());
+                if (excludedRequestorId != null && excludedRequestorId.equals(entry.requestorId)) {
+                    continue;
+                }
+                if (hit.getValue() >= Math.min(minSharedTerms, entry.terms.size())) {
+                    candidates.add(new Candidate(hit.getKey(), hit.getValue()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        candidates.sort(Comparator.comparingInt(Candidate::getSharedTerms).reversed()
+                .thenComparingLong(Candidate::getRequestId));
+        return candidates.size() > limit ? new ArrayList<>(candidates.subList(0, limit)) : candidates;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return requests.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeLocked(long requestId) {
+        Entry entry = requests.remove(requestId);
+        if (entry == null) {
+            return false;
+        }
+        for (String term : entry.terms) {
+            Set<Long> ids = postings.get(term);
+            ids.remove(requestId);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        return true;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Candidate {
+        private final long requestId;
+        private final int sharedTerms;
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final Long requestorId;
+        private final Set<String> terms;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.*;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Expired request nobody answered, moved out of the requests table by RequestExpiry.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "requests_archive")
+public class ArchivedItemRequest {
+    @Id
+    private Long id;
+
+    private String description;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "requestor_id")
+    private User requestor;
+
+    private LocalDateTime created;
+
+    @Enumerated(EnumType.STRING)
+    private RequestStatus status;
+}
@@ -35,6 +35,10 @@ public class ItemRequest {
     @CreationTimestamp
     private LocalDateTime created;
 
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private RequestStatus status = RequestStatus.OPEN;
+
     @ToString.Exclude
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "request")
     private List<Item> items;
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.request.model;
+
+public enum RequestStatus {
+    OPEN,
+    FULFILLED,
+    EXPIRED
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.model.ArchivedItemRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedItemRequestRepository extends JpaRepository<ArchivedItemRequest, Long> {
+
+    List<ArchivedItemRequest> findByRequestorIdOrderByCreatedAsc(Long requestorId);
+
+    Optional<ArchivedItemRequest> findByIdAndRequestorDeletedAtIsNull(Long id);
+}
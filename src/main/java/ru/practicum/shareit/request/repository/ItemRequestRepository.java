@@ -1,13 +1,19 @@
 package ru.practicum.shareit.request.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.util.Pagination;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
@@ -18,8 +24,79 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
 
     List<ItemRequest> findByRequestorIdOrderByCreatedAsc(Long requestorId, Pagination page);
 
-    @Query("select distinct request from ItemRequest as request " +
+    Optional<ItemRequest> findByIdAndRequestorDeletedAtIsNull(Long id);
+
+    @Query("select request from ItemRequest as request " +
             "where request.requestor.id <> :requestorId " +
-            "order by request.created asc")
+            "and request.requestor.deletedAt is null " +
+            "order by request.created asc, request.id asc")
     List<ItemRequest> findAllExceptRequestorIdOrderByCreatedAsc(@Param("requestorId") Long requestorId, Pagination page);
+
+    /**
+     * The status is spelled as a literal, not bound, so that Postgres can prove the predicate of
+     * idx_requests_open_created for every execution of the prepared statement.
+     */
+    @Query("select request from ItemRequest as request " +
+            "where request.status = ru.practicum.shareit.request.model.RequestStatus.OPEN " +
+            "and request.requestor.id <> :requestorId " +
+            "and request.requestor.deletedAt is null " +
+            "order by request.created asc, request.id asc")
+    List<ItemRequest> findOpenExceptRequestorIdOrderByCreatedAsc(@Param("requestorId") Long requestorId,
+                                                                 Pagination page);
+
+    /**
+     * Next page of the open feed; seeks into idx_requests_open_created the same way as
+     * {@link #findAllExceptRequestorIdAfter}.
+     */
+    @Query("select request from ItemRequest as request " +
+            "where request.status = ru.practicum.shareit.request.model.RequestStatus.OPEN " +
+            "and request.requestor.id <> :requestorId " +
+            "and request.requestor.deletedAt is null " +
+            "and request.created >= :afterCreated " +
+            "and (request.created > :afterCreated " +
+            "or (request.created = :afterCreated and request.id > :afterId)) " +
+            "order by request.created asc, request.id asc")
+    List<ItemRequest> findOpenExceptRequestorIdAfter(@Param("requestorId") Long requestorId,
+                                                     @Param("afterCreated") LocalDateTime afterCreated,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable page);
+
+    @Query("select request.id from ItemRequest as request " +
+            "where request.requestor.id = :requestorId " +
+            "and request.status = ru.practicum.shareit.request.model.RequestStatus.OPEN")
+    List<Long> findOpenIdsByRequestorId(@Param("requestorId") Long requestorId);
+
+    /**
+     * Taken by an answering item before it is inserted, so that concurrent answers to one request count
+     * each other in {@link #markFulfilled}. Locking after the insert would deadlock against the key share
+     * lock the items foreign key takes on the request.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select request from ItemRequest as request where request.id = :id")
+    Optional<ItemRequest> findForUpdateById(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update ItemRequest request " +
+            "set request.status = ru.practicum.shareit.request.model.RequestStatus.FULFILLED " +
+            "where request.id = :id " +
+            "and request.status = ru.practicum.shareit.request.model.RequestStatus.OPEN " +
+            "and (select count(item) from Item item where item.request.id = :id) >= :minItems")
+    int markFulfilled(@Param("id") Long id, @Param("minItems") long minItems);
+
+    /**
+     * Next page of the same feed after the request (afterCreated, afterId); walks idx_requests_created_id
+     * from that key on and filters out the caller's own requests, so deep pages cost the same as the first.
+     * The OR alone cannot be used as an index bound, the redundant created >= :afterCreated gives the seek.
+     */
+    @Query("select request from ItemRequest as request " +
+            "where request.requestor.id <> :requestorId " +
+            "and request.requestor.deletedAt is null " +
+            "and request.created >= :afterCreated " +
+            "and (request.created > :afterCreated " +
+            "or (request.created = :afterCreated and request.id > :afterId)) " +
+            "order by request.created asc, request.id asc")
+    List<ItemRequest> findAllExceptRequestorIdAfter(@Param("requestorId") Long requestorId,
+                                                    @Param("afterCreated") LocalDateTime afterCreated,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable page);
 }
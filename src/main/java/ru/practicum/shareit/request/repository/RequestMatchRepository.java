@@ -0,0 +1,21 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.model.RequestMatch;
+import ru.practicum.shareit.util.Pagination;
+
+import java.util.List;
+
+@Repository
+public interface RequestMatchRepository extends JpaRepository<RequestMatch, Long> {
+
+    @Query("select m from RequestMatch as m " +
+            "join fetch m.request as r " +
+            "join fetch m.item " +
+            "where r.requestor.id = :requestorId " +
+            "order by m.created desc, m.id desc")
+    List<RequestMatch> findAllByRequestorId(@Param("requestorId") Long requestorId, Pagination page);
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.request.service;
 
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestService {
@@ -11,5 +13,13 @@ public interface ItemRequestService {
 
     ItemRequestDto getRequestById(Long userId, Long requestId);
 
-    List<ItemRequestDto> getAllRequests(Long userId, Integer from, Integer size);
+    List<ItemRequestDto> getAllRequests(Long userId, boolean includeClosed, Integer from, Integer size);
+
+    List<ItemRequestDto> getAllRequestsAfter(Long userId,
+                                             boolean includeClosed,
+                                             LocalDateTime afterCreated,
+                                             Long afterId,
+                                             Integer size);
+
+    List<RequestMatchDto> getMatches(Long userId, Integer from, Integer size);
 }
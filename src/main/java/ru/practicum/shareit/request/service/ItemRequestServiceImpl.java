@@ -1,18 +1,34 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.event.ItemRequestCreatedEvent;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.feed.RequestFeedEntry;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ArchivedItemRequest;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ArchivedItemRequestRepository;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestMatchRepository;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.util.Pagination;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,44 +36,146 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserService userService;
     private final ItemRequestRepository itemRequestRepository;
+    private final ArchivedItemRequestRepository archivedItemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final RequestMatchRepository requestMatchRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final UserMapper userMapper;
     private final ItemRequestMapper itemRequestMapper;
+    private final RequestFeed requestFeed;
 
     @Override
     public ItemRequestDto create(Long userId, ItemRequestDto itemRequestDto) {
         User requestor = userMapper.userFromDto(userService.findById(userId));
         ItemRequest itemRequest = itemRequestMapper.itemRequestFromDto(itemRequestDto);
         itemRequest.setRequestor(requestor);
-        return itemRequestMapper.itemRequestToDto(itemRequestRepository.save(itemRequest));
+        ItemRequest saved = itemRequestRepository.save(itemRequest);
+        eventPublisher.publishEvent(ItemRequestCreatedEvent.of(saved, requestor.getId()));
+        return itemRequestMapper.itemRequestToDto(saved);
     }
 
+    /**
+     * The requestor still sees their expired requests after RequestExpiry moved them to requests_archive.
+     */
     @Override
     public List<ItemRequestDto> getAllRequestByUser(Long userId) {
-        userService.findById(userId);
-        List<ItemRequestDto> itemRequestDtoList = itemRequestRepository.findByRequestorIdOrderByCreatedAsc(userId).stream()
-                .map(itemRequestMapper::itemRequestToDto)
-                .collect(Collectors.toList());
-
-        return itemRequestDtoList;
+        userService.checkExists(userId);
+        List<ItemRequestDto> requests = new ArrayList<>(
+                withItems(itemRequestRepository.findByRequestorIdOrderByCreatedAsc(userId)));
+        List<ArchivedItemRequest> archived = archivedItemRequestRepository.findByRequestorIdOrderByCreatedAsc(userId);
+        if (archived.isEmpty()) {
+            return requests;
+        }
+        archived.stream()
+                .map(itemRequestMapper::archivedItemRequestToDto)
+                .forEach(requests::add);
+        requests.sort(Comparator.comparing(ItemRequestDto::getCreated, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(ItemRequestDto::getId));
+        return requests;
     }
 
     @Override
     public ItemRequestDto getRequestById(Long userId, Long requestId) {
-        userService.findById(userId);
-        ItemRequest itemRequest = itemRequestRepository.findById(requestId)
+        userService.checkExists(userId);
+        Optional<ItemRequest> itemRequest = itemRequestRepository.findByIdAndRequestorDeletedAtIsNull(requestId);
+        if (itemRequest.isPresent()) {
+            return itemRequestMapper.itemRequestToDto(itemRequest.get());
+        }
+
+        return archivedItemRequestRepository.findByIdAndRequestorDeletedAtIsNull(requestId)
+                .map(itemRequestMapper::archivedItemRequestToDto)
                 .orElseThrow(() -> new EntityNotFoundException(ItemRequest.class, String.format("ID: %s", requestId)));
+    }
+
+    @Override
+    public List<ItemRequestDto> getAllRequests(Long userId, boolean includeClosed, Integer from, Integer size) {
+        userService.checkExists(userId);
+        Pagination page = new Pagination(from, size);
+        if (includeClosed) {
+            return withItems(itemRequestRepository.findAllExceptRequestorIdOrderByCreatedAsc(userId, page));
+        }
+        if (requestFeed.isEnabled()) {
+            // The database path pages by whole pages of size, so the feed skips the same rows.
+            Optional<List<RequestFeedEntry>> entries = requestFeed.page(userId, null, null,
+                    (int) page.getOffset(), size);
+            if (entries.isPresent()) {
+                return fromFeed(entries.get());
+            }
+        }
+
+        return withItems(itemRequestRepository.findOpenExceptRequestorIdOrderByCreatedAsc(userId, page));
+    }
+
+    @Override
+    public List<ItemRequestDto> getAllRequestsAfter(Long userId,
+                                                    boolean includeClosed,
+                                                    LocalDateTime afterCreated,
+                                                    Long afterId,
+                                                    Integer size) {
+        if (afterCreated == null || afterId == null) {
+            throw new ValidationException("afterCreated and afterId have to be given together.");
+        }
+        userService.checkExists(userId);
+        Pagination page = new Pagination(0, size);
+        if (includeClosed) {
+            return withItems(itemRequestRepository.findAllExceptRequestorIdAfter(userId, afterCreated, afterId, page));
+        }
+        if (requestFeed.isEnabled()) {
+            Optional<List<RequestFeedEntry>> entries = requestFeed.page(userId, afterCreated, afterId, 0, size);
+            if (entries.isPresent()) {
+                return fromFeed(entries.get());
+            }
+        }
 
-        return itemRequestMapper.itemRequestToDto(itemRequest);
+        return withItems(itemRequestRepository.findOpenExceptRequestorIdAfter(userId, afterCreated, afterId, page));
     }
 
     @Override
-    public List<ItemRequestDto> getAllRequests(Long userId, Integer from, Integer size) {
-        userService.findById(userId);
+    public List<RequestMatchDto> getMatches(Long userId, Integer from, Integer size) {
+        userService.checkExists(userId);
         Pagination page = new Pagination(from, size);
 
-        return itemRequestRepository.findAllExceptRequestorIdOrderByCreatedAsc(userId, page)
-                .stream()
-                .map(itemRequestMapper::itemRequestToDto)
+        return requestMatchRepository.findAllByRequestorId(userId, page).stream()
+                .map(itemRequestMapper::matchToDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Loads the answers of the whole page with one query instead of initializing each request's items.
+     */
+    private List<ItemRequestDto> withItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<Item>> itemsByRequestId = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+
+        return requests.stream()
+                .map(request -> itemRequestMapper.itemRequestToDto(request,
+                        itemsByRequestId.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Same as {@link #withItems} for a page served by the feed; the item counts kept there let a page
+     * of unanswered requests skip the items query.
+     */
+    private List<ItemRequestDto> fromFeed(List<RequestFeedEntry> entries) {
+        List<Long> answeredIds = entries.stream()
+                .filter(entry -> entry.getItemCount() > 0)
+                .map(RequestFeedEntry::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<Item>> itemsByRequestId = answeredIds.isEmpty()
+                ? Map.of()
+                : itemRepository.findAllByRequestIdIn(answeredIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+
+        return entries.stream()
+                .map(entry -> itemRequestMapper.feedEntryToDto(entry,
+                        itemsByRequestId.getOrDefault(entry.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 }
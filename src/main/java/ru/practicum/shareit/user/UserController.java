@@ -5,12 +5,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
+import ru.practicum.shareit.user.imports.UserImportFormat;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.util.PostRequestValidationGroup;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -30,6 +35,17 @@ public class UserController {
         return userService.create(userDto);
     }
 
+    /**
+     * Takes the body as a stream, so uploads of any size are read line by line instead of bound to a list.
+     */
+    @PostMapping("/import")
+    @ResponseStatus(HttpStatus.OK)
+    public UserImportResultDto importUsers(@RequestParam(defaultValue = "ndjson") String format,
+                                           InputStream body) throws IOException {
+        log.info("Got request to import users as {}", format);
+        return userService.importUsers(body, UserImportFormat.from(format));
+    }
+
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public UserDto findById(@PathVariable("id") Long id) {
@@ -37,6 +53,21 @@ public class UserController {
         return userService.findById(id);
     }
 
+    @GetMapping("/deletions")
+    @ResponseStatus(HttpStatus.OK)
+    public List<UserDeletionDto> getDeletions(@RequestParam(defaultValue = "0") @Min(0) Integer from,
+                                              @RequestParam(defaultValue = "10") @Min(1) Integer size) {
+        log.info("Got request to GET user deletions");
+        return userService.getDeletions(from, size);
+    }
+
+    @GetMapping("/deletions/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public UserDeletionDto getDeletion(@PathVariable("id") Long userId) {
+        log.info("Got request to GET deletion of user with id {}", userId);
+        return userService.getDeletion(userId);
+    }
+
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public List<UserDto> findAll(@RequestParam(defaultValue = "0") @Min(0) Integer from,
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.user.deletion;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.user.model.UserDeletionStep;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Removes deleted users together with the rows that refer to them, recording progress in user_deletions.
+ * <p>
+ * Every batch selects up to shareit.users.deletion.batch-size ids and removes them in its own transaction.
+ * The steps are safe to repeat, so a deletion that fails, for example because someone booked an item of
+ * the user while its bookings were being cleared, starts over from the first step on the next run.
+ * Removed requests are announced with {@link ItemRequestClosedEvent} once their batch commits, so that the
+ * request feed and matcher forget them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.users.deletion", name = "enabled", havingValue = "true")
+public class UserDeletionJob {
+    private static final String SELECT_PENDING = "SELECT user_id, step FROM user_deletions " +
+            "WHERE finished IS NULL ORDER BY requested LIMIT :limit";
+    private static final String SET_STEP = "UPDATE user_deletions SET step = :step WHERE user_id = :userId";
+    private static final String ADD_PROGRESS = "UPDATE user_deletions SET rows_deleted = rows_deleted + :rows " +
+            "WHERE user_id = :userId";
+    private static final String DELETE_USER = "DELETE FROM users WHERE id = :userId AND deleted_at IS NOT NULL";
+    private static final String FINISH = "UPDATE user_deletions SET step = 'DONE', finished = :finished, " +
+            "rows_deleted = rows_deleted + :rows WHERE user_id = :userId";
+    private static final Map<UserDeletionStep, List<Batch>> BATCHES = new EnumMap<>(UserDeletionStep.class);
+
+    static {
+        BATCHES.put(UserDeletionStep.COMMENTS, List.of(
+                new Batch("SELECT id FROM comments WHERE author_id = :userId LIMIT :limit",
+                        "DELETE FROM comments WHERE id IN (:ids)"),
+                new Batch("SELECT c.id FROM comments c JOIN items i ON i.id = c.item_id " +
+                        "WHERE i.owner_id = :userId LIMIT :limit",
+                        "DELETE FROM comments WHERE id IN (:ids)")));
+        BATCHES.put(UserDeletionStep.REQUEST_MATCHES, List.of(
+                new Batch("SELECT m.id FROM request_matches m JOIN items i ON i.id = m.item_id " +
+                        "WHERE i.owner_id = :userId LIMIT :limit",
+                        "DELETE FROM request_matches WHERE id IN (:ids)"),
+                new Batch("SELECT m.id FROM request_matches m JOIN requests r ON r.id = m.request_id " +
+                        "WHERE r.requestor_id = :userId LIMIT :limit",
+                        "DELETE FROM request_matches WHERE id IN (:ids)")));
+        BATCHES.put(UserDeletionStep.BOOKINGS, List.of(
+                new Batch("SELECT id FROM bookings WHERE booker_id = :userId LIMIT :limit",
+                        "DELETE FROM bookings WHERE id IN (:ids)"),
+                new Batch("SELECT b.id FROM bookings b JOIN items i ON i.id = b.item_id " +
+                        "WHERE i.owner_id = :userId LIMIT :limit",
+                        "DELETE FROM bookings WHERE id IN (:ids)")));
+        BATCHES.put(UserDeletionStep.ARCHIVED_BOOKINGS, List.of(
+                new Batch("SELECT id FROM bookings_archive WHERE booker_id = :userId LIMIT :limit",
+                        "DELETE FROM bookings_archive WHERE id IN (:ids)"),
+                new Batch("SELECT b.id FROM bookings_archive b JOIN items i ON i.id = b.item_id " +
+                        "WHERE i.owner_id = :userId LIMIT :limit",
+                        "DELETE FROM bookings_archive WHERE id IN (:ids)")));
+        BATCHES.put(UserDeletionStep.REQUEST_ANSWERS, List.of(
+                new Batch("SELECT i.id FROM items i JOIN requests r ON r.id = i.request_id " +
+                        "WHERE r.requestor_id = :userId AND i.owner_id <> :userId LIMIT :limit",
+                        "UPDATE items SET request_id = NULL WHERE id IN (:ids)")));
+        BATCHES.put(UserDeletionStep.ITEMS, List.of(
+                new Batch("SELECT id FROM items WHERE owner_id = :userId LIMIT :limit",
+                        "DELETE FROM items WHERE id IN (:ids)")));
+        BATCHES.put(UserDeletionStep.REQUESTS, List.of(
+                new Batch("SELECT id FROM requests WHERE requestor_id = :userId LIMIT :limit",
+                        "DELETE FROM requests WHERE id IN (:ids)", true)));
+        BATCHES.put(UserDeletionStep.ARCHIVED_REQUESTS, List.of(
+                new Batch("SELECT id FROM requests_archive WHERE requestor_id = :userId LIMIT :limit",
+                        "DELETE FROM requests_archive WHERE id IN (:ids)")));
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserDeletionProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Scheduled(cron = "${shareit.users.deletion.cron:0 * * * * *}")
+    public void run() {
+        List<Map<String, Object>> pending = jdbcTemplate.queryForList(SELECT_PENDING,
+                new MapSqlParameterSource("limit", properties.getUsersPerRun()));
+        for (Map<String, Object> deletion : pending) {
+            long userId = ((Number) deletion.get("user_id")).longValue();
+            UserDeletionStep step = UserDeletionStep.valueOf((String) deletion.get("step"));
+            try {
+                purge(userId, step);
+            } catch (DataAccessException e) {
+                jdbcTemplate.update(SET_STEP, new MapSqlParameterSource()
+                        .addValue("step", UserDeletionStep.COMMENTS.name())
+                        .addValue("userId", userId));
+                log.warn("Deletion of user id {} failed at step {}, starting over on the next run", userId, step, e);
+            }
+        }
+    }
+
+    void purge(long userId, UserDeletionStep from) {
+        for (UserDeletionStep step : UserDeletionStep.values()) {
+            if (step.compareTo(from) < 0) {
+                continue;
+            }
+            if (step == UserDeletionStep.USER || step == UserDeletionStep.DONE) {
+                finish(userId);
+                return;
+            }
+            jdbcTemplate.update(SET_STEP, new MapSqlParameterSource()
+                    .addValue("step", step.name())
+                    .addValue("userId", userId));
+            for (Batch batch : BATCHES.get(step)) {
+                int removed;
+                do {
+                    removed = runBatch(userId, batch);
+                } while (removed == properties.getBatchSize());
+            }
+        }
+    }
+
+    int runBatch(long userId, Batch batch) {
+        Integer removed = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(batch.select, new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("limit", properties.getBatchSize()), Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            int rows = jdbcTemplate.update(batch.apply, new MapSqlParameterSource("ids", ids));
+            jdbcTemplate.update(ADD_PROGRESS, new MapSqlParameterSource()
+                    .addValue("rows", rows)
+                    .addValue("userId", userId));
+            if (batch.closesRequests) {
+                eventPublisher.publishEvent(new ItemRequestClosedEvent(ids, null));
+            }
+            return ids.size();
+        });
+        return removed == null ? 0 : removed;
+    }
+
+    private void finish(long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource("userId", userId);
+            int rows = jdbcTemplate.update(DELETE_USER, params);
+            jdbcTemplate.update(FINISH, params
+                    .addValue("finished", LocalDateTime.now())
+                    .addValue("rows", rows));
+        });
+        log.info("Finished deletion of user id {}", userId);
+    }
+
+    static final class Batch {
+        private final String select;
+        private final String apply;
+        private final boolean closesRequests;
+
+        Batch(String select, String apply) {
+            this(select, apply, false);
+        }
+
+        Batch(String select, String apply, boolean closesRequests) {
+            this.select = select;
+            this.apply = apply;
+            this.closesRequests = closesRequests;
+        }
+    }
+}
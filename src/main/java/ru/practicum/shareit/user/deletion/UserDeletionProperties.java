@@ -0,0 +1,20 @@
+package ru.practicum.shareit.user.deletion;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.users.deletion")
+public class UserDeletionProperties {
+    private boolean enabled;
+    /**
+     * Rows removed per transaction, keeping the locks each batch holds on hot tables short.
+     */
+    private int batchSize = 500;
+    /**
+     * Deletions worked on per run, oldest first.
+     */
+    private int usersPerRun = 10;
+}
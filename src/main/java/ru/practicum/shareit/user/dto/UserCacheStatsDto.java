@@ -0,0 +1,15 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UserCacheStatsDto {
+    private boolean enabled;
+    private int size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.user.model.UserDeletionStep;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class UserDeletionDto {
+    private Long userId;
+    private LocalDateTime requested;
+    private UserDeletionStep step;
+    private Long rowsDeleted;
+    private LocalDateTime finished;
+}
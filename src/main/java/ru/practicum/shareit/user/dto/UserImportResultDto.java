@@ -0,0 +1,19 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserImportResultDto {
+    private long read;
+    private long imported;
+    private long failed;
+    private List<UserImportErrorDto> errors;
+    /**
+     * Whether more rows failed than the report lists.
+     */
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.user.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by UserServiceImpl when a user is created.
+ */
+@Getter
+@AllArgsConstructor
+public class UserCreatedEvent {
+    private final Long userId;
+}
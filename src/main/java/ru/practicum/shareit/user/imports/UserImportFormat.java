@@ -0,0 +1,17 @@
+package ru.practicum.shareit.user.imports;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+public enum UserImportFormat {
+    NDJSON,
+    CSV;
+
+    public static UserImportFormat from(String format) {
+        for (UserImportFormat value : values()) {
+            if (value.name().equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new ValidationException(String.format("Unknown format: %s", format));
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.user.imports;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.users.import")
+public class UserImportProperties {
+    /**
+     * Rows checked for duplicates and inserted together, in one transaction.
+     */
+    private int batchSize = 1000;
+    /**
+     * Rejected rows listed in the report; the rest are only counted.
+     */
+    private int maxErrors = 100;
+}
@@ -0,0 +1,340 @@
+package ru.practicum.shareit.user.imports;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportErrorDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
+import ru.practicum.shareit.user.service.UserEmailFilter;
+import ru.practicum.shareit.util.PostRequestValidationGroup;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import javax.validation.groups.Default;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates users from an NDJSON or CSV upload, one user per line.
+ * <p>
+ * Lines are read and parsed one at a time and gathered into chunks of shareit.users.import.batch-size rows.
+ * A chunk drops emails repeated within it or already taken and inserts the rest with one JDBC batch in its own
+ * transaction, ids coming from the identity column. Only the current chunk and the first
+ * shareit.users.import.max-errors rejected rows are held in memory, whatever the size of the upload.
+ */
+@Slf4j
+@Component
+public class UserImporter {
+    static final String EMAIL_TAKEN = "User with email already exists.";
+    static final String ROW_REFUSED = "User could not be stored.";
+    private static final String FIND_TAKEN = "SELECT lower(email) FROM users WHERE lower(email) IN (:emails)";
+    private static final String INSERT = "INSERT INTO users (name, email) VALUES (:name, :email)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEmailFilter userEmailFilter;
+    private final Validator validator;
+    private final UserImportProperties properties;
+    private final JsonFactory jsonFactory;
+
+    public UserImporter(NamedParameterJdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        UserEmailFilter userEmailFilter,
+                        Validator validator,
+                        UserImportProperties properties,
+                        ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userEmailFilter = userEmailFilter;
+        this.validator = validator;
+        this.properties = properties;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public UserImportResultDto importUsers(InputStream in, UserImportFormat format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Report report = new Report(properties.getMaxErrors());
+        List<Row> chunk = new ArrayList<>(properties.getBatchSize());
+        long lineNumber = 0;
+        CsvColumns columns = null;
+        if (format == UserImportFormat.CSV) {
+            columns = CsvColumns.fromHeader(reader.readLine());
+            lineNumber++;
+        }
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.read++;
+            UserDto userDto;
+            try {
+                userDto = columns != null ? columns.parse(line) : parseJson(line);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                report.fail(lineNumber, null, "Malformed line.");
+                continue;
+            }
+            String error = validate(userDto);
+            if (error != null) {
+                report.fail(lineNumber, userDto.getEmail(), error);
+                continue;
+            }
+            chunk.add(new Row(lineNumber, userDto.getName().trim(), userDto.getEmail().trim()));
+            if (chunk.size() == properties.getBatchSize()) {
+                insert(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insert(chunk, report);
+        }
+        log.info("Imported {} of {} users, {} rejected", report.imported, report.read, report.failed);
+        return report.toDto();
+    }
+
+    private UserDto parseJson(String line) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an object");
+            }
+            UserDto userDto = new UserDto();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                String text = value.isScalarValue() ? parser.getValueAsString() : null;
+                parser.skipChildren();
+                if ("name".equals(field)) {
+                    userDto.setName(text);
+                } else if ("email".equals(field)) {
+                    userDto.setEmail(text);
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                throw new JsonParseException(parser, "Expected one object per line");
+            }
+            return userDto;
+        }
+    }
+
+    private String validate(UserDto userDto) {
+        Set<ConstraintViolation<UserDto>> violations = validator.validate(userDto,
+                PostRequestValidationGroup.class, Default.class);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(" "));
+    }
+
+    private void insert(List<Row> chunk, Report report) {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        for (Row row : chunk) {
+            Row first = rows.putIfAbsent(UserEmailFilter.normalize(row.email), row);
+            if (first != null) {
+                report.fail(row.line, row.email, String.format("Email repeats line %d.", first.line));
+            }
+        }
+        for (String email : findTaken(rows.keySet())) {
+            Row row = rows.remove(email);
+            if (row != null) {
+                report.fail(row.line, row.email, EMAIL_TAKEN);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Row> toInsert = new ArrayList<>(rows.values());
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, toInsert.stream()
+                    .map(Row::toParams)
+                    .toArray(SqlParameterSource[]::new)));
+            toInsert.forEach(row -> imported(row, report));
+        } catch (DataIntegrityViolationException e) {
+            insertOneByOne(toInsert, report);
+        }
+    }
+
+    /**
+     * Only emails the filter cannot rule out are looked up.
+     */
+    private Set<String> findTaken(Set<String> emails) {
+        List<String> candidates = emails.stream()
+                .filter(userEmailFilter::mightExist)
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(FIND_TAKEN,
+                new MapSqlParameterSource("emails", candidates), String.class));
+    }
+
+    /**
+     * A batch fails as a whole when one of its rows is refused, typically an email taken after it was checked;
+     * its rows are then retried alone so that only the refused ones are rejected, each with its own reason.
+     */
+    private void insertOneByOne(List<Row> rows, Report report) {
+        for (Row row : rows) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT, row.toParams()));
+                imported(row, report);
+            } catch (DuplicateKeyException e) {
+                report.fail(row.line, row.email, EMAIL_TAKEN);
+            } catch (DataIntegrityViolationException e) {
+                log.warn("User import line {} was refused", row.line, e);
+                report.fail(row.line, row.email, ROW_REFUSED);
+            }
+        }
+    }
+
+    private void imported(Row row, Report report) {
+        userEmailFilter.add(row.email);
+        report.imported++;
+    }
+
+    private static final class Row {
+        private final long line;
+        private final String name;
+        private final String email;
+
+        Row(long line, String name, String email) {
+            this.line = line;
+            this.name = name;
+            this.email = email;
+        }
+
+        SqlParameterSource toParams() {
+            return new MapSqlParameterSource()
+                    .addValue("name", name)
+                    .addValue("email", email);
+        }
+    }
+
+    /**
+     * Positions of the name and email columns, taken from the header line; other columns are ignored.
+     * Quoted fields may hold commas and doubled quotes but not line breaks.
+     */
+    private static final class CsvColumns {
+        private final int name;
+        private final int email;
+
+        private CsvColumns(int name, int email) {
+            this.name = name;
+            this.email = email;
+        }
+
+        static CsvColumns fromHeader(String header) {
+            List<String> columns = header == null ? List.of() : split(header);
+            int name = -1;
+            int email = -1;
+            for (int i = 0; i < columns.size(); i++) {
+                String column = columns.get(i).trim().toLowerCase(Locale.ROOT);
+                if (column.equals("name")) {
+                    name = i;
+                } else if (column.equals("email")) {
+                    email = i;
+                }
+            }
+            if (name < 0 || email < 0) {
+                throw new ValidationException("CSV header has to have name and email columns.");
+            }
+            return new CsvColumns(name, email);
+        }
+
+        UserDto parse(String line) {
+            List<String> fields = split(line);
+            return UserDto.builder()
+                    .name(name < fields.size() ? fields.get(name) : null)
+                    .email(email < fields.size() ? fields.get(email) : null)
+                    .build();
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class Report {
+        private final int maxErrors;
+        private final List<UserImportErrorDto> errors = new ArrayList<>();
+        private long read;
+        private long imported;
+        private long failed;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(long line, String email, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportErrorDto(line, email, message));
+            }
+        }
+
+        UserImportResultDto toDto() {
+            errors.sort(Comparator.comparingLong(UserImportErrorDto::getLine));
+            return UserImportResultDto.builder()
+                    .read(read)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package ru.practicum.shareit.user.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.user.dto.UserBookingDto;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDeletion;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
 
     UserDto userToDto(User user);
 
+    @Mapping(target = "deletedAt", ignore = true)
     User userFromDto(UserDto userDto);
 
+    UserDeletionDto deletionToDto(UserDeletion deletion);
+
     UserBookingDto userToUserBookingDto(User user);
 }
@@ -4,6 +4,7 @@ import lombok.*;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
@@ -25,4 +26,10 @@ public class User {
     @NotBlank
     @EqualsAndHashCode.Include
     private String email;
+
+    /**
+     * Set when the user is deleted; the row stays until UserDeletionJob has removed everything that refers to it.
+     */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
 }
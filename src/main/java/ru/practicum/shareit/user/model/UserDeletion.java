@@ -0,0 +1,32 @@
+package ru.practicum.shareit.user.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of removing a deleted user and everything that refers to it; finished once the user row is gone.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "user_deletions")
+public class UserDeletion {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private LocalDateTime requested;
+
+    @Enumerated(EnumType.STRING)
+    private UserDeletionStep step;
+
+    @Column(name = "rows_deleted")
+    private Long rowsDeleted;
+
+    private LocalDateTime finished;
+}
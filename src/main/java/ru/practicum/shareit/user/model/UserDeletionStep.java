@@ -0,0 +1,17 @@
+package ru.practicum.shareit.user.model;
+
+/**
+ * Steps of a user deletion in the order they run; each one clears a kind of row that would block the next.
+ */
+public enum UserDeletionStep {
+    COMMENTS,
+    REQUEST_MATCHES,
+    BOOKINGS,
+    ARCHIVED_BOOKINGS,
+    REQUEST_ANSWERS,
+    ITEMS,
+    REQUESTS,
+    ARCHIVED_REQUESTS,
+    USER,
+    DONE
+}
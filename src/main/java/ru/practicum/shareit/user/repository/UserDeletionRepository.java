@@ -0,0 +1,12 @@
+package ru.practicum.shareit.user.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.user.model.UserDeletion;
+
+import java.util.List;
+
+public interface UserDeletionRepository extends JpaRepository<UserDeletion, Long> {
+
+    List<UserDeletion> findAllByOrderByRequestedDesc(Pageable page);
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.dto.UserCacheStatsDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.LocalCache;
+
+import java.util.function.Function;
+
+/**
+ * Users by id, read on nearly every request to check that the caller exists. Changes made through this
+ * instance evict the user at once; changes made through other instances are seen once the entry's
+ * shareit.users.cache.ttl runs out, so the TTL is kept short.
+ */
+@Component
+public class UserCache {
+    private final LocalCache<Long, UserDto> users;
+
+    public UserCache(UserCacheProperties properties) {
+        boolean enabled = !properties.getTtl().isZero() && !properties.getTtl().isNegative();
+        this.users = enabled ? new LocalCache<>(properties.getMaxSize(), properties.getTtl()) : null;
+    }
+
+    public UserDto get(Long userId, Function<Long, UserDto> loader) {
+        return users == null ? loader.apply(userId) : users.get(userId, loader);
+    }
+
+    /**
+     * Evicts right away and once more after commit. A reader that loaded the user in between may have read
+     * it before the commit, so LocalCache does not store what it loaded.
+     */
+    public void evict(Long userId) {
+        if (users == null) {
+            return;
+        }
+        users.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    users.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    public UserCacheStatsDto stats() {
+        if (users == null) {
+            return UserCacheStatsDto.builder().enabled(false).build();
+        }
+        return UserCacheStatsDto.builder()
+                .enabled(true)
+                .size(users.size())
+                .hits(users.getHitCount())
+                .misses(users.getMissCount())
+                .evictions(users.getEvictionCount())
+                .hitRate(users.getHitRate())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.users.cache")
+public class UserCacheProperties {
+    private int maxSize = 10_000;
+    /**
+     * Bounds how long another instance may serve a user changed or deleted elsewhere. Zero turns the cache off.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.IdBitmap;
+
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 32-bit hashes of every normalized email in use, switched on with shareit.users.email-filter.enabled.
+ * <p>
+ * The set only ever grows between restarts, so a missing hash proves the email is free and the duplicate
+ * query can be skipped; a present hash may be a collision, an old email or a deleted user and is checked
+ * in the database. Emails taken through other instances are caught by the unique index instead.
+ */
+@Slf4j
+@Component
+public class UserEmailFilter {
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEmailFilterProperties properties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdBitmap hashes = new IdBitmap();
+    private volatile boolean loaded;
+
+    public UserEmailFilter(UserRepository userRepository,
+                           PlatformTransactionManager transactionManager,
+                           UserEmailFilterProperties properties) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    public static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * False only when no user has the email; always true until the hashes are loaded.
+     */
+    public boolean mightExist(String email) {
+        if (!properties.isEnabled() || !loaded) {
+            return true;
+        }
+        long hash = hash(email);
+        lock.readLock().lock();
+        try {
+            return hashes.contains(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(String email) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long hash = hash(email);
+        lock.writeLock().lock();
+        try {
+            hashes.add(hash);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads into the live set, so emails added while the scan runs are kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(this::add);
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Failed to load user emails, duplicate checks keep querying the database", e);
+            return;
+        }
+        loaded = true;
+        log.info("Loaded {} user email hashes", size());
+    }
+
+    long size() {
+        lock.readLock().lock();
+        try {
+            return hashes.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long hash(String email) {
+        return Integer.toUnsignedLong(normalize(email).hashCode());
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.users.email-filter")
+public class UserEmailFilterProperties {
+    /**
+     * Switches on the in-memory set of email hashes that lets signups with a new email skip the duplicate query.
+     */
+    private boolean enabled;
+}
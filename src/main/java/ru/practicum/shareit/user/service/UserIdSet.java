@@ -0,0 +1,124 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.event.UserCreatedEvent;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.IdBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Ids of existing users in an {@link IdBitmap}, so that checking the X-Sharer-User-Id header of a request
+ * needs neither a query nor a cached user.
+ * <p>
+ * The set is filled from a streamed id scan once the application is ready and rebuilt on
+ * shareit.users.ids.rebuild-cron; between rebuilds it follows committed user events of this instance.
+ * Only a hit is trusted: an id missing from the set, including every id before the first scan finishes,
+ * is looked up in the database, so users created through other instances are still found. Users deleted
+ * through other instances are dropped at the next rebuild.
+ */
+@Slf4j
+@Component
+public class UserIdSet {
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private IdBitmap ids = new IdBitmap();
+    /**
+     * Changes committed while a rebuild scans the table, replayed onto the new set before it is swapped in.
+     */
+    private List<Consumer<IdBitmap>> pending;
+
+    public UserIdSet(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public boolean contains(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return ids.contains(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.users.ids.rebuild-cron:0 15 * * * *}")
+    public void rebuild() {
+        IdBitmap fresh = new IdBitmap();
+        write(() -> pending = new ArrayList<>());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Long> userIds = userRepository.streamAllIds()) {
+                    userIds.forEach(fresh::add);
+                }
+            });
+        } catch (DataAccessException e) {
+            write(() -> pending = null);
+            log.warn("Failed to load user ids, existence checks keep querying the database", e);
+            return;
+        }
+        write(() -> {
+            pending.forEach(change -> change.accept(fresh));
+            pending = null;
+            ids = fresh;
+        });
+        log.info("Loaded {} user ids into {} KB", fresh.cardinality(), fresh.sizeInBytes() / 1024);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        change(bitmap -> bitmap.add(event.getUserId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        change(bitmap -> bitmap.remove(event.getUserId()));
+    }
+
+    long size() {
+        lock.readLock().lock();
+        try {
+            return ids.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void change(Consumer<IdBitmap> change) {
+        write(() -> {
+            change.accept(ids);
+            if (pending != null) {
+                pending.add(change);
+            }
+        });
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.user.dto.UserCacheStatsDto;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
+import ru.practicum.shareit.user.imports.UserImportFormat;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public interface UserService {
@@ -9,10 +15,29 @@ public interface UserService {
 
     UserDto findById(Long id);
 
+    /**
+     * Throws EntityNotFoundException unless the user exists; for callers that need nothing but that.
+     */
+    void checkExists(Long id);
+
     List<UserDto> findAll(Integer from, Integer size);
 
     UserDto update(Long userId, UserDto userDto);
 
+    /**
+     * Hides the user at once and leaves removing it with its items, bookings and requests to the deletion job.
+     */
     void delete(Long id);
 
+    /**
+     * Creates a user from every valid line of the upload and reports the rejected ones.
+     */
+    UserImportResultDto importUsers(InputStream in, UserImportFormat format) throws IOException;
+
+    UserCacheStatsDto getCacheStats();
+
+    List<UserDeletionDto> getDeletions(Integer from, Integer size);
+
+    UserDeletionDto getDeletion(Long userId);
+
 }
@@ -1,27 +1,51 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.dto.UserCacheStatsDto;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
+import ru.practicum.shareit.user.event.UserCreatedEvent;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+import ru.practicum.shareit.user.imports.UserImportFormat;
+import ru.practicum.shareit.user.imports.UserImporter;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDeletion;
+import ru.practicum.shareit.user.model.UserDeletionStep;
+import ru.practicum.shareit.user.repository.UserDeletionRepository;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.util.Pagination;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final String EMAIL_TAKEN = "User with email already exists.";
 
     private final UserRepository userRepository;
+    private final UserDeletionRepository userDeletionRepository;
+    private final ItemRequestRepository itemRequestRepository;
     private final UserMapper userMapper;
+    private final UserCache userCache;
+    private final UserIdSet userIdSet;
+    private final UserEmailFilter userEmailFilter;
+    private final UserImporter userImporter;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -29,26 +53,36 @@ public class UserServiceImpl implements UserService {
         if (userDto.getId() != null) {
             throw new ValidationException("User id should not exist in POST request");
         }
+        if (userDto.getEmail() != null && isEmailTaken(userDto.getEmail(), null)) {
+            throw new ConflictException(EMAIL_TAKEN);
+        }
         try {
-            User user = userMapper.userFromDto(userDto);
-            return userMapper.userToDto(userRepository.save(user));
+            User user = userRepository.save(userMapper.userFromDto(userDto));
+            userEmailFilter.add(user.getEmail());
+            eventPublisher.publishEvent(new UserCreatedEvent(user.getId()));
+            return userMapper.userToDto(user);
         } catch (DataIntegrityViolationException e) {
-            throw new ConflictException("User with email already exists.");
+            throw new ConflictException(EMAIL_TAKEN);
         }
     }
 
     @Override
     public UserDto findById(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(User.class, "User id not found in storage"));
-        return userMapper.userToDto(user);
+        return userCache.get(userId, id -> userMapper.userToDto(findExisting(id)));
+    }
+
+    @Override
+    public void checkExists(Long userId) {
+        if (!userIdSet.contains(userId)) {
+            findById(userId);
+        }
     }
 
     @Override
     public List<UserDto> findAll(Integer from, Integer size) {
         Pagination page = new Pagination(from, size);
 
-        return userRepository.findAll(page)
+        return userRepository.findAllByDeletedAtIsNull(page)
                 .stream()
                 .map(userMapper::userToDto)
                 .collect(Collectors.toList());
@@ -57,17 +91,92 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDto update(Long userId, UserDto userDto) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(User.class, "User id not found in storage"));
+        User user = findExisting(userId);
 
+        String email = userDto.getEmail();
+        if (email != null && !email.equalsIgnoreCase(user.getEmail()) && isEmailTaken(email, userId)) {
+            throw new ConflictException(EMAIL_TAKEN);
+        }
         user.setName(userDto.getName() != null ? userDto.getName() : user.getName());
-        user.setEmail(userDto.getEmail() != null ? userDto.getEmail() : user.getEmail());
+        user.setEmail(email != null ? email : user.getEmail());
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException(EMAIL_TAKEN);
+        }
+        if (email != null) {
+            userEmailFilter.add(email);
+        }
+        userCache.evict(userId);
         return userMapper.userToDto(user);
     }
 
     @Override
     @Transactional
     public void delete(Long userId) {
-        userRepository.deleteById(userId);
+        User user = findExisting(userId);
+        LocalDateTime now = LocalDateTime.now();
+        user.setDeletedAt(now);
+        userDeletionRepository.save(UserDeletion.builder()
+                .userId(userId)
+                .requested(now)
+                .step(UserDeletionStep.COMMENTS)
+                .rowsDeleted(0L)
+                .build());
+        userCache.evict(userId);
+        eventPublisher.publishEvent(new UserDeletedEvent(userId));
+        List<Long> openRequestIds = itemRequestRepository.findOpenIdsByRequestorId(userId);
+        if (!openRequestIds.isEmpty()) {
+            eventPublisher.publishEvent(new ItemRequestClosedEvent(openRequestIds, null));
+        }
+    }
+
+    @Override
+    public UserImportResultDto importUsers(InputStream in, UserImportFormat format) throws IOException {
+        return userImporter.importUsers(in, format);
+    }
+
+    @Override
+    public UserCacheStatsDto getCacheStats() {
+        return userCache.stats();
+    }
+
+    @Override
+    public List<UserDeletionDto> getDeletions(Integer from, Integer size) {
+        return userDeletionRepository.findAllByOrderByRequestedDesc(new Pagination(from, size))
+                .stream()
+                .map(userMapper::deletionToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public UserDeletionDto getDeletion(Long userId) {
+        return userDeletionRepository.findById(userId)
+                .map(userMapper::deletionToDto)
+                .orElseThrow(() -> new EntityNotFoundException(UserDeletion.class,
+                        "User deletion not found in storage"));
+    }
+
+    /**
+     * Deleted users keep their row until {@link ru.practicum.shareit.user.deletion.UserDeletionJob} purges it,
+     * but are not found from the moment of deletion.
+     */
+    private User findExisting(Long userId) {
+        return userRepository.findById(userId)
+                .filter(user -> user.getDeletedAt() == null)
+                .orElseThrow(() -> new EntityNotFoundException(User.class, "User id not found in storage"));
+    }
+
+    /**
+     * Checked before writing, so a duplicate signup costs one indexed lookup instead of a failed insert;
+     * the unique index still rejects the races this check cannot see.
+     */
+    private boolean isEmailTaken(String email, Long excludedUserId) {
+        if (!userEmailFilter.mightExist(email)) {
+            return false;
+        }
+        return excludedUserId == null
+                ? userRepository.existsByEmailIgnoreCase(email)
+                : userRepository.existsByEmailIgnoreCaseAndIdNot(email, excludedUserId);
     }
 }
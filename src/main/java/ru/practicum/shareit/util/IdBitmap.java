@@ -0,0 +1,189 @@
+package ru.practicum.shareit.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compressed set of non-negative long ids in the style of a Roaring bitmap. Ids are split into a high key
+ * (id >>> 16) and a 16-bit low part; each key owns a container that is a sorted array of low parts while it
+ * holds up to 4096 of them and a 65536-bit bitmap after that, so dense id ranges cost about one bit per id
+ * and sparse ones two bytes.
+ * <p>
+ * Not thread-safe; callers guard it themselves.
+ */
+public class IdBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+
+    private final Map<Long, Container> containers = new HashMap<>();
+    private long cardinality;
+
+    public boolean add(long id) {
+        checkId(id);
+        Container container = containers.get(id >>> 16);
+        if (container == null) {
+            container = new ArrayContainer();
+            containers.put(id >>> 16, container);
+        }
+        char low = (char) id;
+        if (container.contains(low)) {
+            return false;
+        }
+        if (container instanceof ArrayContainer && container.cardinality() == ARRAY_LIMIT) {
+            container = ((ArrayContainer) container).toBitmap();
+            containers.put(id >>> 16, container);
+        }
+        container.add(low);
+        cardinality++;
+        return true;
+    }
+
+    public boolean remove(long id) {
+        checkId(id);
+        Container container = containers.get(id >>> 16);
+        char low = (char) id;
+        if (container == null || !container.contains(low)) {
+            return false;
+        }
+        container.remove(low);
+        cardinality--;
+        if (container.cardinality() == 0) {
+            containers.remove(id >>> 16);
+        } else if (container instanceof BitmapContainer && container.cardinality() == ARRAY_LIMIT) {
+            containers.put(id >>> 16, ((BitmapContainer) container).toArray());
+        }
+        return true;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        Container container = containers.get(id >>> 16);
+        return container != null && container.contains((char) id);
+    }
+
+    public long cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Approximate heap taken by the containers, leaving out the map that holds them.
+     */
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Container container : containers.values()) {
+            bytes += container.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private static void checkId(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id has to be non-negative number");
+        }
+    }
+
+    private interface Container {
+        boolean contains(char low);
+
+        void add(char low);
+
+        void remove(char low);
+
+        int cardinality();
+
+        long sizeInBytes();
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        public void add(char low) {
+            int index = -Arrays.binarySearch(values, 0, size, low) - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_LIMIT));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = low;
+            size++;
+        }
+
+        @Override
+        public void remove(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 2L * values.length;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final long[] words = new long[1024];
+        private int size;
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public void add(char low) {
+            words[low >>> 6] |= 1L << low;
+            size++;
+        }
+
+        @Override
+        public void remove(char low) {
+            words[low >>> 6] &= ~(1L << low);
+            size--;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 8L * words.length;
+        }
+
+        private ArrayContainer toArray() {
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[size];
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    array.values[array.size++] = (char) (word * 64 + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            return array;
+        }
+    }
+}
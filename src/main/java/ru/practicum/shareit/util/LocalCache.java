@@ -0,0 +1,176 @@
+package ru.practicum.shareit.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Size-bounded in-process cache with least-recently-used eviction and an optional time-to-live.
+ * <p>
+ * Keys are spread over lock stripes, each an access-ordered map with its share of maxSize, so readers of
+ * different keys rarely wait for each other; eviction is least-recently-used within a stripe. Small caches
+ * keep a single stripe and exact LRU order.
+ * <p>
+ * Values are loaded outside the lock, so two concurrent misses for one key may both hit the loader. A value
+ * loaded while its stripe saw an invalidation is returned but not stored, since it may have been read
+ * before the change that caused the invalidation.
+ */
+public class LocalCache<K, V> {
+    private static final int MAX_STRIPES = 16;
+    private static final int MIN_ENTRIES_PER_STRIPE = 64;
+
+    private final long ttlNanos;
+    private final Stripe<K, V>[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public LocalCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size has to be positive number");
+        }
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, maxSize / MIN_ENTRIES_PER_STRIPE)));
+        int stripeSize = (maxSize + stripeCount - 1) / stripeCount;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(stripeSize, evictions);
+        }
+    }
+
+    public V getIfPresent(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            CacheEntry<V> entry = stripe.entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(ttlNanos)) {
+                stripe.entries.remove(key);
+                evictions.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Stripe<K, V> stripe = stripeFor(key);
+        long generation;
+        synchronized (stripe) {
+            generation = stripe.generation;
+        }
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            synchronized (stripe) {
+                if (stripe.generation == generation) {
+                    stripe.entries.put(key, new CacheEntry<>(value));
+                }
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.entries.put(key, new CacheEntry<>(value));
+        }
+    }
+
+    public void invalidate(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.generation++;
+            stripe.entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.generation++;
+                stripe.entries.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    private Stripe<K, V> stripeFor(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * One lock stripe; guarded by its own monitor. The generation counts invalidations, so a load can tell
+     * whether the stripe changed while it ran.
+     */
+    private static final class Stripe<K, V> {
+        private final Map<K, CacheEntry<V>> entries;
+        private long generation;
+
+        private Stripe(int maxSize, LongAdder evictions) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                    if (size() > maxSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+        private final long createdNanos;
+
+        private CacheEntry(V value) {
+            this.value = value;
+            this.createdNanos = System.nanoTime();
+        }
+
+        private boolean isExpired(long ttlNanos) {
+            return ttlNanos > 0 && System.nanoTime() - createdNanos >= ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Page request starting at an arbitrary row offset rather than at a multiple of the page size.
+ */
+public class OffsetPagination extends PageRequest {
+    private final long offset;
+
+    public OffsetPagination(long offset, int limit) {
+        super(0, limit, Sort.unsorted());
+        this.offset = offset;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,4 @@
+-- Emails are unique regardless of case. UserServiceImpl looks a new or changed email up through this
+-- index before writing; the index itself stays the last guard against concurrent signups.
+-- Fails if existing emails already collide in case; merge those users before migrating.
+CREATE UNIQUE INDEX uq_users_email_lower ON users (lower(email));
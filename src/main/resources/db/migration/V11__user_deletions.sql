@@ -0,0 +1,19 @@
+-- Deleting a user only sets deleted_at; UserDeletionJob then removes the rows that refer to the user in
+-- small batches and finally the user row itself, recording its progress in user_deletions.
+ALTER TABLE users ADD COLUMN deleted_at TIMESTAMP;
+
+CREATE TABLE user_deletions (
+  user_id BIGINT NOT NULL,
+  requested TIMESTAMP NOT NULL,
+  step VARCHAR(50) NOT NULL,
+  rows_deleted BIGINT NOT NULL DEFAULT 0,
+  finished TIMESTAMP,
+  CONSTRAINT pk_user_deletions PRIMARY KEY (user_id)
+);
+
+CREATE INDEX idx_user_deletions_pending ON user_deletions (requested) WHERE finished IS NULL;
+
+-- The job looks up dependent rows by user; these foreign keys had no index of their own.
+CREATE INDEX idx_comments_author ON comments (author_id);
+CREATE INDEX idx_requests_archive_requestor ON requests_archive (requestor_id);
+CREATE INDEX idx_request_matches_item ON request_matches (item_id);
@@ -0,0 +1,3 @@
+-- BookingArchiver walks bookings by (end_date, id) for its batches; without this index every batch
+-- scanned and sorted all partitions.
+CREATE INDEX idx_bookings_end ON bookings (end_date, id);
@@ -0,0 +1,54 @@
+-- Schema as it was before migrations were introduced. Existing databases are baselined at this version.
+
+CREATE TABLE users (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  email VARCHAR(512) NOT NULL,
+  CONSTRAINT pk_user PRIMARY KEY (id),
+  CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
+);
+
+CREATE TABLE items (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  description VARCHAR(512) NOT NULL,
+  available BOOLEAN,
+  owner_id BIGINT,
+  request_id BIGINT,
+  CONSTRAINT pk_item PRIMARY KEY (id),
+  CONSTRAINT fk_item_owner_id FOREIGN KEY(owner_id) REFERENCES users (id)
+);
+
+CREATE TABLE requests (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  description VARCHAR(512) NOT NULL,
+  requestor_id BIGINT,
+  created TIMESTAMP,
+  CONSTRAINT pk_request PRIMARY KEY (id),
+  CONSTRAINT fk_request_requestor_id FOREIGN KEY(requestor_id) REFERENCES users (id)
+);
+
+CREATE TABLE bookings (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  start_date TIMESTAMP,
+  end_date TIMESTAMP,
+  item_id BIGINT,
+  booker_id BIGINT,
+  status VARCHAR(50),
+  CONSTRAINT pk_booking PRIMARY KEY (id),
+  CONSTRAINT fk_booking_item_id FOREIGN KEY(item_id) REFERENCES items (id),
+  CONSTRAINT fk_booking_booker_id FOREIGN KEY(booker_id) REFERENCES users (id)
+);
+
+CREATE TABLE comments (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  text VARCHAR(512) NOT NULL,
+  item_id BIGINT,
+  author_id BIGINT,
+  created TIMESTAMP,
+  CONSTRAINT pk_comments PRIMARY KEY (id),
+  CONSTRAINT fk_comments_item_id FOREIGN KEY(item_id) REFERENCES items (id),
+  CONSTRAINT fk_comments_author_id FOREIGN KEY(author_id) REFERENCES users (id)
+);
+
+ALTER TABLE items ADD CONSTRAINT fk_item_request_id FOREIGN KEY(request_id) REFERENCES requests (id);
@@ -0,0 +1,15 @@
+-- Bookings that ended long ago are moved here by BookingArchiver.
+CREATE TABLE bookings_archive (
+  id BIGINT NOT NULL,
+  start_date TIMESTAMP,
+  end_date TIMESTAMP,
+  item_id BIGINT,
+  booker_id BIGINT,
+  status VARCHAR(50),
+  CONSTRAINT pk_bookings_archive PRIMARY KEY (id),
+  CONSTRAINT fk_bookings_archive_item_id FOREIGN KEY(item_id) REFERENCES items (id),
+  CONSTRAINT fk_bookings_archive_booker_id FOREIGN KEY(booker_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date);
+CREATE INDEX idx_bookings_archive_item_booker ON bookings_archive (item_id, booker_id);
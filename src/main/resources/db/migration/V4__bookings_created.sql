@@ -0,0 +1,3 @@
+-- BookingExpiry counts shareit.bookings.expiry.ttl from here. Bookings created before this column existed
+-- keep it empty and are not expired by ttl, only on start when expire-on-start is on.
+ALTER TABLE bookings ADD COLUMN created TIMESTAMP;
@@ -0,0 +1,11 @@
+-- Responses of idempotent create requests, kept by IdempotencyJdbcStore for shareit.idempotency.ttl.
+-- A request claims its key with a row that has no response yet and fills it in once it succeeded.
+CREATE TABLE idempotency_keys (
+  idempotency_key VARCHAR(600) NOT NULL,
+  request_hash VARCHAR(64) NOT NULL,
+  response TEXT,
+  created TIMESTAMP NOT NULL,
+  CONSTRAINT pk_idempotency_key PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_keys_created ON idempotency_keys (created);
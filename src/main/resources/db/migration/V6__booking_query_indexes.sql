@@ -0,0 +1,21 @@
+-- Indexes matched to the query shapes of BookingRepository, ItemRepository and ItemRequestRepository.
+-- Booker listings by start (ALL, CURRENT, PAST, FUTURE) use idx_bookings_booker_start from V2,
+-- owner listings reach bookings through idx_items_owner and idx_bookings_item_start.
+CREATE INDEX idx_items_owner ON items (owner_id);
+
+-- WAITING and REJECTED listings of a booker, newest first.
+CREATE INDEX idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
+
+-- Per item lookups by status: last and next booking, the overlap check on create, the availability
+-- calendar, the comment permission check and owner listings by status.
+CREATE INDEX idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+
+-- Startup rebuild of the expiry timing wheel reads only WAITING bookings.
+CREATE INDEX idx_bookings_waiting ON bookings (start_date) WHERE status = 'WAITING';
+
+-- Owner listings of archived bookings.
+CREATE INDEX idx_bookings_archive_item_start ON bookings_archive (item_id, start_date);
+
+CREATE INDEX idx_comments_item ON comments (item_id);
+CREATE INDEX idx_items_request ON items (request_id);
+CREATE INDEX idx_requests_requestor_created ON requests (requestor_id, created DESC);
@@ -0,0 +1,3 @@
+-- GET /requests/all pages through everyone else's requests ordered by (created, id). Both the offset
+-- and the keyset form walk this index in order and filter out the caller's own requests.
+CREATE INDEX idx_requests_created_id ON requests (created, id);
@@ -0,0 +1,13 @@
+-- Items that could satisfy an open item request, found by RequestMatcher when the item is created.
+-- The unique constraint leads with request_id, so it also serves the lookup of a requestor's matches.
+CREATE TABLE request_matches (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  request_id BIGINT NOT NULL,
+  item_id BIGINT NOT NULL,
+  shared_terms INTEGER NOT NULL,
+  created TIMESTAMP NOT NULL,
+  CONSTRAINT pk_request_matches PRIMARY KEY (id),
+  CONSTRAINT uq_request_matches_request_item UNIQUE (request_id, item_id),
+  CONSTRAINT fk_request_matches_request_id FOREIGN KEY(request_id) REFERENCES requests (id),
+  CONSTRAINT fk_request_matches_item_id FOREIGN KEY(item_id) REFERENCES items (id)
+);
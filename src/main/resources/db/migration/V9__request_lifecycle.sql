@@ -0,0 +1,22 @@
+-- Item requests are OPEN until enough items answer them (FULFILLED) or until they outlive
+-- shareit.requests.lifecycle.ttl (EXPIRED). Requests that already have an answer start out fulfilled.
+ALTER TABLE requests ADD COLUMN status VARCHAR(20) NOT NULL DEFAULT 'OPEN';
+
+UPDATE requests SET status = 'FULFILLED'
+WHERE EXISTS (SELECT 1 FROM items i WHERE i.request_id = requests.id);
+
+-- GET /requests/all, the request feed and the matcher only read open requests, which stay a small
+-- share of the table once closed requests pile up.
+CREATE INDEX idx_requests_open_created ON requests (created, id) WHERE status = 'OPEN';
+
+-- Expired requests nobody answered are moved here by RequestExpiry; answered ones stay in requests,
+-- which items.request_id references.
+CREATE TABLE requests_archive (
+  id BIGINT NOT NULL,
+  description VARCHAR(512) NOT NULL,
+  requestor_id BIGINT,
+  created TIMESTAMP,
+  status VARCHAR(20) NOT NULL,
+  CONSTRAINT pk_requests_archive PRIMARY KEY (id),
+  CONSTRAINT fk_requests_archive_requestor_id FOREIGN KEY(requestor_id) REFERENCES users (id)
+);
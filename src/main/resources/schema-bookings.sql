@@ -0,0 +1,19 @@
+CREATE TABLE IF NOT EXISTS bookings (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  start_date TIMESTAMP,
+  end_date TIMESTAMP,
+  item_id BIGINT,
+  booker_id BIGINT,
+  status VARCHAR(50),
+  created TIMESTAMP,
+  CONSTRAINT pk_booking PRIMARY KEY (id),
+  CONSTRAINT fk_booking_item_id FOREIGN KEY(item_id) REFERENCES items (id),
+  CONSTRAINT fk_booking_booker_id FOREIGN KEY(booker_id) REFERENCES users (id)
+);
+
+-- Both indexes carry end_date and status so that state counts are answered from the index alone.
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date, end_date, status);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date, end_date, status);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_end ON bookings (end_date, id);
@@ -1,15 +1,32 @@
 DROP TABLE IF EXISTS users CASCADE;
+DROP TABLE IF EXISTS user_deletions CASCADE;
 DROP TABLE IF EXISTS requests CASCADE;
+DROP TABLE IF EXISTS requests_archive CASCADE;
 DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
+DROP TABLE IF EXISTS bookings_archive CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
+DROP TABLE IF EXISTS idempotency_keys CASCADE;
+DROP TABLE IF EXISTS request_matches CASCADE;
 
 CREATE TABLE IF NOT EXISTS users (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   name VARCHAR(255) NOT NULL,
   email VARCHAR(512) NOT NULL,
+  email_lower VARCHAR(512) GENERATED ALWAYS AS (LOWER(email)),
+  deleted_at TIMESTAMP,
   CONSTRAINT pk_user PRIMARY KEY (id),
-  CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
+  CONSTRAINT UQ_USER_EMAIL UNIQUE (email),
+  CONSTRAINT uq_users_email_lower UNIQUE (email_lower)
+);
+
+CREATE TABLE IF NOT EXISTS user_deletions (
+  user_id BIGINT NOT NULL,
+  requested TIMESTAMP NOT NULL,
+  step VARCHAR(50) NOT NULL,
+  rows_deleted BIGINT DEFAULT 0 NOT NULL,
+  finished TIMESTAMP,
+  CONSTRAINT pk_user_deletions PRIMARY KEY (user_id)
 );
 
 CREATE TABLE IF NOT EXISTS items (
@@ -23,27 +40,51 @@ CREATE TABLE IF NOT EXISTS items (
   CONSTRAINT fk_item_owner_id FOREIGN KEY(owner_id) REFERENCES users (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
 CREATE TABLE IF NOT EXISTS requests (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   description VARCHAR(512) NOT NULL,
   requestor_id BIGINT,
   created TIMESTAMP,
+  status VARCHAR(20) DEFAULT 'OPEN' NOT NULL,
   CONSTRAINT pk_request PRIMARY KEY (id),
   CONSTRAINT fk_request_requestor_id FOREIGN KEY(requestor_id) REFERENCES users (id)
 );
 
-CREATE TABLE IF NOT EXISTS bookings (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC);
+CREATE INDEX IF NOT EXISTS idx_requests_created_id ON requests (created, id);
+CREATE INDEX IF NOT EXISTS idx_requests_status_created ON requests (status, created, id);
+
+CREATE TABLE IF NOT EXISTS requests_archive (
+  id BIGINT NOT NULL,
+  description VARCHAR(512) NOT NULL,
+  requestor_id BIGINT,
+  created TIMESTAMP,
+  status VARCHAR(20) NOT NULL,
+  CONSTRAINT pk_requests_archive PRIMARY KEY (id),
+  CONSTRAINT fk_requests_archive_requestor_id FOREIGN KEY(requestor_id) REFERENCES users (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_requests_archive_requestor ON requests_archive (requestor_id);
+
+CREATE TABLE IF NOT EXISTS bookings_archive (
+  id BIGINT NOT NULL,
   start_date TIMESTAMP,
   end_date TIMESTAMP,
   item_id BIGINT,
   booker_id BIGINT,
   status VARCHAR(50),
-  CONSTRAINT pk_booking PRIMARY KEY (id),
-  CONSTRAINT fk_booking_item_id FOREIGN KEY(item_id) REFERENCES items (id),
-  CONSTRAINT fk_booking_booker_id FOREIGN KEY(booker_id) REFERENCES users (id)
+  CONSTRAINT pk_bookings_archive PRIMARY KEY (id),
+  CONSTRAINT fk_bookings_archive_item_id FOREIGN KEY(item_id) REFERENCES items (id),
+  CONSTRAINT fk_bookings_archive_booker_id FOREIGN KEY(booker_id) REFERENCES users (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_booker ON bookings_archive (item_id, booker_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_start ON bookings_archive (item_id, start_date);
+
 CREATE TABLE IF NOT EXISTS comments (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   text VARCHAR(512) NOT NULL,
@@ -55,4 +96,31 @@ CREATE TABLE IF NOT EXISTS comments (
   CONSTRAINT fk_comments_author_id FOREIGN KEY(author_id) REFERENCES users (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+CREATE INDEX IF NOT EXISTS idx_comments_author ON comments (author_id);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+  idempotency_key VARCHAR(600) NOT NULL,
+  request_hash VARCHAR(64) NOT NULL,
+  response TEXT,
+  created TIMESTAMP NOT NULL,
+  CONSTRAINT pk_idempotency_key PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created ON idempotency_keys (created);
+
+CREATE TABLE IF NOT EXISTS request_matches (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  request_id BIGINT NOT NULL,
+  item_id BIGINT NOT NULL,
+  shared_terms INTEGER NOT NULL,
+  created TIMESTAMP NOT NULL,
+  CONSTRAINT pk_request_matches PRIMARY KEY (id),
+  CONSTRAINT uq_request_matches_request_item UNIQUE (request_id, item_id),
+  CONSTRAINT fk_request_matches_request_id FOREIGN KEY(request_id) REFERENCES requests (id),
+  CONSTRAINT fk_request_matches_item_id FOREIGN KEY(item_id) REFERENCES items (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_request_matches_item ON request_matches (item_id);
+
 ALTER TABLE items ADD CONSTRAINT fk_item_request_id FOREIGN KEY(request_id) REFERENCES requests (id);
\ No newline at end of file
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.dto.UserCacheStatsDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = AdminController.class)
+public class AdminControllerIntegrationTest {
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private UserService userService;
+
+    @SneakyThrows
+    @Test
+    void getUserCacheStatsWhenInvokeThenStatsInBody() {
+        UserCacheStatsDto stats = UserCacheStatsDto.builder().enabled(true).size(1).hits(3).misses(1).hitRate(0.75)
+                .build();
+        when(userService.getCacheStats()).thenReturn(stats);
+
+        String result = mockMvc.perform(get("/admin/cache/users"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(stats), result);
+    }
+}
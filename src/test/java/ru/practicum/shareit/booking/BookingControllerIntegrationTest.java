@@ -8,14 +8,25 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInitial;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingWindowDto;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -23,6 +34,9 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.item.ItemController.USERID_HEADER;
 
@@ -150,6 +164,41 @@ public class BookingControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @SneakyThrows
+    @Test
+    void setStatusesWhenInvokeThenReturnStatusOkAndResultsInBody() {
+        List<BookingStatusUpdateDto> updates = List.of(BookingStatusUpdateDto.builder()
+                .bookingId(1L)
+                .approved(true).build());
+        List<BookingStatusResultDto> results = List.of(BookingStatusResultDto.builder()
+                .bookingId(1L)
+                .status(BookingState.APPROVED).build());
+        when(bookingService.setStatuses(userId, updates)).thenReturn(results);
+
+        String result = mockMvc.perform(patch("/bookings/batch")
+                        .header(USERID_HEADER, userId.toString())
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(updates)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(results), result);
+    }
+
+    @SneakyThrows
+    @Test
+    void setStatusesWhenEmptyBatchThenReturnStatusBadRequest() {
+        mockMvc.perform(patch("/bookings/batch")
+                        .header(USERID_HEADER, userId.toString())
+                        .contentType("application/json")
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).setStatuses(any(), any());
+    }
+
     @SneakyThrows
     @Test
     void findByIdWhenInvokeThenReturnStatusOK() {
@@ -270,6 +319,34 @@ public class BookingControllerIntegrationTest {
         assertEquals(objectMapper.writeValueAsString(responseDtoList), result);
     }
 
+    @SneakyThrows
+    @Test
+    void findAllByItemOwnerWhenDateWindowGivenThenWindowSearchUsed() {
+        LocalDateTime dateFrom = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime dateTo = LocalDateTime.of(2024, 2, 1, 0, 0);
+        BookingWindowDto window = BookingWindowDto.builder()
+                .dateFrom(dateFrom)
+                .dateTo(dateTo)
+                .afterStart(dateFrom.plusDays(3))
+                .afterId(42L)
+                .build();
+        when(bookingService.findAllByItemOwnerInWindow(userId, "WAITING", window, 5))
+                .thenReturn(List.of(bookingResponseDto));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(USERID_HEADER, userId.toString())
+                        .param("state", "WAITING")
+                        .param("size", "5")
+                        .param("dateFrom", "2024-01-01T00:00:00")
+                        .param("dateTo", "2024-02-01T00:00:00")
+                        .param("afterStart", "2024-01-04T00:00:00")
+                        .param("afterId", "42"))
+                .andExpect(status().isOk());
+
+        verify(bookingService).findAllByItemOwnerInWindow(userId, "WAITING", window, 5);
+        verify(bookingService, never()).findAllByItemOwner(any(), any(), any(), any());
+    }
+
     @SneakyThrows
     @Test
     void findAllByItemOwnerWhenNotValidParamsThenReturnStatusBadRequest() {
@@ -283,4 +360,82 @@ public class BookingControllerIntegrationTest {
                         .param("size", Integer.toString(size)))
                 .andExpect(status().isBadRequest());
     }
+
+    @SneakyThrows
+    @Test
+    void subscribeWhenInvokeThenEventStreamStartedWithLastEventId() {
+        when(bookingService.subscribe(userId, 42L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/bookings/events")
+                        .header(USERID_HEADER, userId.toString())
+                        .header("Last-Event-ID", "42")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(bookingService).subscribe(userId, 42L);
+    }
+
+    @SneakyThrows
+    @Test
+    void findStatsWhenInvokeThenStatusOkStatsInBody() {
+        BookingStatsDto stats = BookingStatsDto.builder().all(3L).future(2L).waiting(1L).build();
+        when(bookingService.findStats(userId)).thenReturn(stats);
+
+        String result = mockMvc.perform(get("/bookings/stats")
+                        .header(USERID_HEADER, userId.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(stats), result);
+    }
+
+    @SneakyThrows
+    @Test
+    void findOwnerStatsWhenInvokeThenStatusOkStatsInBody() {
+        BookingStatsDto stats = BookingStatsDto.builder().all(1L).past(1L).build();
+        when(bookingService.findOwnerStats(userId)).thenReturn(stats);
+
+        String result = mockMvc.perform(get("/bookings/owner/stats")
+                        .header(USERID_HEADER, userId.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(stats), result);
+        verify(bookingService, never()).findAllByItemOwner(any(), any(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void exportAllByItemOwnerWhenCsvThenStreamedAsAttachment() {
+        when(bookingService.exportAllByItemOwner(userId, BookingExportFormat.CSV))
+                .thenReturn(out -> out.write("id\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header(USERID_HEADER, userId.toString())
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.csv\""))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id\n"));
+    }
+
+    @SneakyThrows
+    @Test
+    void exportAllWhenUnknownFormatThenStatusBadRequest() {
+        mockMvc.perform(get("/bookings/export")
+                        .header(USERID_HEADER, userId.toString())
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).exportAll(any(), any());
+    }
 }
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional
+@SpringBootTest(
+        properties = {"db.name=test", "shareit.bookings.archive.enabled=true"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingArchiverIntegrationTest {
+    private final EntityManager entityManager;
+    private final BookingArchiver bookingArchiver;
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+
+    private User booker;
+    private Item item;
+    private Booking oldBooking;
+    private Booking recentBooking;
+
+    @BeforeEach
+    void beforeEach() {
+        User owner = userRepository.save(User.builder().name("Owner").email("owner@archive.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email("booker@archive.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("Drill")
+                .description("Drill")
+                .available(true)
+                .owner(owner).build());
+        oldBooking = bookingRepository.saveAndFlush(Booking.builder()
+                .start(LocalDateTime.now().minusYears(2))
+                .end(LocalDateTime.now().minusYears(2).plusDays(1))
+                .item(item)
+                .booker(booker)
+                .status(BookingState.APPROVED).build());
+        recentBooking = bookingRepository.saveAndFlush(Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(item)
+                .booker(booker)
+                .status(BookingState.REJECTED).build());
+    }
+
+    @Test
+    void archiveWhenBookingEndedLongAgoThenMovedToArchive() {
+        bookingArchiver.archive();
+        entityManager.clear();
+
+        assertFalse(bookingRepository.existsById(oldBooking.getId()));
+        assertTrue(archivedBookingRepository.existsById(oldBooking.getId()));
+        assertTrue(bookingRepository.existsById(recentBooking.getId()));
+    }
+
+    @Test
+    void findAllByStateWhenPastPageReachesArchiveThenArchivedBookingsAppended() {
+        bookingArchiver.archive();
+        entityManager.clear();
+
+        List<BookingDto> past = bookingService.findAllByState(booker.getId(), "PAST", 0, 10);
+
+        assertEquals(2, past.size());
+        assertEquals(recentBooking.getId(), past.get(0).getId());
+        assertEquals(oldBooking.getId(), past.get(1).getId());
+
+        List<BookingDto> secondPage = bookingService.findAllByState(booker.getId(), "ALL", 1, 1);
+
+        assertEquals(1, secondPage.size());
+        assertEquals(oldBooking.getId(), secondPage.get(0).getId());
+    }
+
+    @Test
+    void createCommentWhenRentedBookingArchivedThenCommentCreated() {
+        bookingArchiver.archive();
+        entityManager.clear();
+
+        CommentDto comment = itemService.createComment(booker.getId(), item.getId(),
+                CommentDto.builder().text("Still works").build());
+
+        assertNotNull(comment.getId());
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.booking.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookingEventStreamTest {
+    private static final Long BOOKER_ID = 1L;
+    private static final Long OWNER_ID = 2L;
+    private static final Long STRANGER_ID = 3L;
+
+    private BookingEventProperties properties;
+    private final List<Runnable> pendingSends = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new BookingEventProperties();
+        properties.setBufferSize(4);
+        properties.setReplaySize(3);
+    }
+
+    @Test
+    void onBookingEventWhenPublishedThenDeliveredToBookerAndOwnerOnly() {
+        BookingEventStream stream = stream(Runnable::run);
+        RecordingEmitter booker = (RecordingEmitter) stream.subscribe(BOOKER_ID, null);
+        RecordingEmitter owner = (RecordingEmitter) stream.subscribe(OWNER_ID, null);
+        RecordingEmitter stranger = (RecordingEmitter) stream.subscribe(STRANGER_ID, null);
+
+        stream.onBookingEvent(event(10L, BookingState.APPROVED));
+
+        assertEquals(List.of("1"), booker.ids());
+        assertEquals(List.of("1"), owner.ids());
+        assertTrue(stranger.ids().isEmpty());
+    }
+
+    @Test
+    void subscribeWhenLastEventIdGivenThenMissedEventsReplayed() {
+        BookingEventStream stream = stream(Runnable::run);
+        stream.onBookingEvent(event(10L, BookingState.WAITING));
+        stream.onBookingEvent(event(11L, BookingState.WAITING));
+        stream.onBookingEvent(event(10L, BookingState.APPROVED));
+
+        RecordingEmitter booker = (RecordingEmitter) stream.subscribe(BOOKER_ID, 1L);
+
+        assertEquals(List.of("2", "3"), booker.ids());
+        assertFalse(booker.names().contains(BookingEventStream.RESYNC_EVENT));
+    }
+
+    @Test
+    void subscribeWhenLastEventIdOutOfRingBufferThenResyncSentFirst() {
+        BookingEventStream stream = stream(Runnable::run);
+        for (long bookingId = 10; bookingId < 15; bookingId++) {
+            stream.onBookingEvent(event(bookingId, BookingState.WAITING));
+        }
+
+        RecordingEmitter booker = (RecordingEmitter) stream.subscribe(BOOKER_ID, 1L);
+
+        assertEquals(BookingEventStream.RESYNC_EVENT, booker.names().get(0));
+        assertEquals(List.of("5", "3", "4", "5"), booker.ids());
+    }
+
+    @Test
+    void onBookingEventWhenSubscriberBufferFullThenSubscriberDisconnected() {
+        BookingEventStream stream = stream(pendingSends::add);
+        stream.subscribe(BOOKER_ID, null);
+
+        for (long bookingId = 10; bookingId < 15; bookingId++) {
+            stream.onBookingEvent(event(bookingId, BookingState.WAITING));
+        }
+
+        assertEquals(0, stream.subscriberCount(BOOKER_ID));
+        assertEquals(1, pendingSends.size());
+    }
+
+    private BookingEventStream stream(Executor executor) {
+        return new BookingEventStream(properties, executor) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    private BookingEvent event(Long bookingId, BookingState status) {
+        return BookingEvent.builder()
+                .bookingId(bookingId)
+                .itemId(100L)
+                .bookerId(BOOKER_ID)
+                .ownerId(OWNER_ID)
+                .status(status)
+                .build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> lines = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().forEach(data -> lines.add(data.getData().toString()));
+        }
+
+        List<String> ids() {
+            return field("id:");
+        }
+
+        List<String> names() {
+            return field("event:");
+        }
+
+        private List<String> field(String prefix) {
+            return lines.stream()
+                    .flatMap(chunk -> chunk.lines())
+                    .filter(line -> line.startsWith(prefix))
+                    .map(line -> line.substring(prefix.length()))
+                    .collect(Collectors.toList());
+        }
+    }
+}
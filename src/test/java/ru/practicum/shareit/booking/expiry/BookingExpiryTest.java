@@ -0,0 +1,165 @@
+package ru.practicum.shareit.booking.expiry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemCalendarCache;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingExpiryTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ItemCalendarCache itemCalendarCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BookingExpiryProperties properties;
+    private BookingExpiry bookingExpiry;
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new BookingExpiryProperties();
+        properties.setTtl(Duration.ofHours(1));
+        bookingExpiry = new BookingExpiry(bookingRepository, jdbcTemplate, transactionTemplate,
+                itemCalendarCache, eventPublisher, properties);
+    }
+
+    @Test
+    void onBookingEventWhenNotWaitingThenNotScheduled() {
+        bookingExpiry.onBookingEvent(event(1L, BookingState.APPROVED, LocalDateTime.now().plusDays(1)));
+
+        assertEquals(0, bookingExpiry.pending());
+    }
+
+    @Test
+    void onBookingEventWhenStartAfterTtlThenScheduled() {
+        bookingExpiry.onBookingEvent(event(1L, BookingState.WAITING, LocalDateTime.now().plusDays(1)));
+
+        assertEquals(1, bookingExpiry.pending());
+
+        bookingExpiry.expire();
+
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void onBookingEventWhenCreatedMoreThanTtlAgoThenDueOnNextTick() {
+        inTransaction();
+        BookingEvent event = BookingEvent.builder()
+                .bookingId(1L)
+                .status(BookingState.WAITING)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .created(LocalDateTime.now().minusHours(2))
+                .build();
+        bookingExpiry.onBookingEvent(event);
+
+        bookingExpiry.expire();
+
+        verify(bookingRepository).updateStatusByIdInAndStatus(List.of(1L), BookingState.WAITING,
+                BookingState.CANCELED);
+    }
+
+    @Test
+    void onBookingEventWhenNoTtlAndNoExpireOnStartThenNotScheduled() {
+        properties.setTtl(Duration.ZERO);
+        properties.setExpireOnStart(false);
+
+        bookingExpiry.onBookingEvent(event(1L, BookingState.WAITING, LocalDateTime.now().minusDays(1)));
+
+        assertEquals(0, bookingExpiry.pending());
+    }
+
+    @Test
+    void expireWhenStartPassedThenCanceledInBatches() {
+        properties.setBatchSize(2);
+        inTransaction();
+        Booking canceled = booking(1L, BookingState.CANCELED);
+        when(bookingRepository.updateStatusByIdInAndStatus(any(), any(), any())).thenReturn(1, 0);
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(canceled, booking(2L, BookingState.APPROVED)));
+        for (long id = 1; id <= 3; id++) {
+            bookingExpiry.onBookingEvent(event(id, BookingState.WAITING, LocalDateTime.now().minusMinutes(1)));
+        }
+
+        bookingExpiry.expire();
+
+        verify(bookingRepository).updateStatusByIdInAndStatus(List.of(1L, 2L), BookingState.WAITING,
+                BookingState.CANCELED);
+        verify(bookingRepository).updateStatusByIdInAndStatus(List.of(3L), BookingState.WAITING,
+                BookingState.CANCELED);
+        verify(itemCalendarCache).evict(canceled.getItem().getId());
+        verify(eventPublisher).publishEvent(any(BookingEvent.class));
+        assertEquals(0, bookingExpiry.pending());
+    }
+
+    @Test
+    void expireWhenUpdateFailsThenRetriedOnNextTick() {
+        inTransaction();
+        when(bookingRepository.updateStatusByIdInAndStatus(any(), any(), any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(0);
+        bookingExpiry.onBookingEvent(event(1L, BookingState.WAITING, LocalDateTime.now().minusMinutes(1)));
+
+        bookingExpiry.expire();
+        assertEquals(1, bookingExpiry.pending());
+
+        bookingExpiry.expire();
+        assertEquals(0, bookingExpiry.pending());
+        verify(bookingRepository, times(2)).updateStatusByIdInAndStatus(List.of(1L), BookingState.WAITING,
+                BookingState.CANCELED);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void inTransaction() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Integer>) invocation.getArgument(0))
+                        .doInTransaction(null));
+    }
+
+    private static BookingEvent event(Long bookingId, BookingState status, LocalDateTime start) {
+        return BookingEvent.builder()
+                .bookingId(bookingId)
+                .status(status)
+                .start(start)
+                .end(start.plusDays(1))
+                .created(LocalDateTime.now())
+                .build();
+    }
+
+    private static Booking booking(Long id, BookingState status) {
+        User owner = User.builder().id(10L).build();
+        return Booking.builder()
+                .id(id)
+                .item(Item.builder().id(id + 100).owner(owner).build())
+                .booker(User.builder().id(20L).build())
+                .status(status)
+                .build();
+    }
+}
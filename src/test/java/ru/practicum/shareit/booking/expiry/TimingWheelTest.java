@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+    private static final long TICK = 1000;
+
+    @Test
+    void addWhenDeadlinePassedThenNotScheduled() {
+        TimingWheel wheel = new TimingWheel(TICK, 8, 10_000);
+
+        assertFalse(wheel.add(1L, 9_000));
+        assertFalse(wheel.add(2L, 10_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceWhenDeadlineInFirstLevelThenExpiredOnTime() {
+        TimingWheel wheel = new TimingWheel(TICK, 8, 0);
+        wheel.add(1L, 3_000);
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(2_999, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(3_000, expired::add);
+        assertEquals(List.of(1L), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceWhenDeadlineNotOnTickThenNeverExpiredEarly() {
+        TimingWheel wheel = new TimingWheel(TICK, 8, 0);
+        wheel.add(1L, 2_500);
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(2_000, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(3_000, expired::add);
+        assertEquals(List.of(1L), expired);
+    }
+
+    @Test
+    void advanceWhenFarDeadlinesThenCascadedThroughLevels() {
+        TimingWheel wheel = new TimingWheel(TICK, 4, 0);
+        long[] deadlines = {5_000, 17_000, 63_000, 64_000, 300_000, 1_000_000};
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.add(i, deadlines[i]);
+        }
+        assertTrue(wheel.levelCount() > 3);
+
+        for (int i = 0; i < deadlines.length; i++) {
+            List<Long> expired = new ArrayList<>();
+            wheel.advance(deadlines[i] - 1, expired::add);
+            assertTrue(expired.isEmpty(), "expired before " + deadlines[i]);
+
+            wheel.advance(deadlines[i], expired::add);
+            assertEquals(List.of((long) i), expired);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceWhenSeveralTicksMissedThenAllDueExpired() {
+        TimingWheel wheel = new TimingWheel(TICK, 8, 0);
+        for (long id = 1; id <= 100; id++) {
+            wheel.add(id, id * 500);
+        }
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(50_000, expired::add);
+
+        assertEquals(100, expired.size());
+        assertEquals(0, wheel.size());
+    }
+}
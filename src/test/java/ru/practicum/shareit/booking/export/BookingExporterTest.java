@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import ru.practicum.shareit.booking.model.BookingExportRow;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingExporterTest {
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 10, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingExporter bookingExporter;
+
+    @BeforeEach
+    void beforeEach() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        bookingExporter = new BookingExporter(bookingRepository, archivedBookingRepository,
+                transactionManager, objectMapper);
+    }
+
+    @Test
+    void exportByItemOwnerWhenCsvThenLiveAndArchivedRowsWrittenInReadOnlyTransaction() throws Exception {
+        when(bookingRepository.streamExportByItemOwnerId(1L))
+                .thenReturn(Stream.of(row(2L, "drill, \"big\"")));
+        when(archivedBookingRepository.streamExportByItemOwnerId(1L))
+                .thenReturn(Stream.of(row(1L, "saw")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookingExporter.exportByItemOwner(1L, BookingExportFormat.CSV).writeTo(out);
+
+        assertEquals("id,start,end,status,itemId,itemName,bookerId\n" +
+                        "2,2023-01-01T10:00,2023-01-01T12:00,APPROVED,10,\"drill, \"\"big\"\"\",20\n" +
+                        "1,2023-01-01T10:00,2023-01-01T12:00,APPROVED,10,saw,20\n",
+                out.toString(StandardCharsets.UTF_8));
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        assertEquals(TransactionDefinition.ISOLATION_REPEATABLE_READ, definition.getValue().getIsolationLevel());
+    }
+
+    @Test
+    void exportByBookerWhenNdjsonThenOneObjectPerLine() throws Exception {
+        when(bookingRepository.streamExportByBookerId(20L))
+                .thenReturn(Stream.of(row(2L, "drill"), row(3L, "saw")));
+        when(archivedBookingRepository.streamExportByBookerId(20L)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookingExporter.exportByBooker(20L, BookingExportFormat.NDJSON).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":2,"));
+        assertTrue(lines[0].contains("\"itemName\":\"drill\""));
+        assertTrue(lines[1].contains("\"start\":\"2023-01-01T10:00:00\""));
+    }
+
+    @Test
+    void fromWhenUnknownFormatThenValidationExceptionThrow() {
+        assertEquals(BookingExportFormat.CSV, BookingExportFormat.from("csv"));
+        assertThrows(ValidationException.class,
+                () -> BookingExportFormat.from("xml"));
+    }
+
+    private static BookingExportRow row(Long id, String itemName) {
+        return new BookingExportRow(id, START, START.plusHours(2), BookingState.APPROVED, 10L, itemName, 20L);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares booking throughput when every writer books its own item with the case where all of them book
+ * the same one. Each simulated transaction holds its lock for a fixed time, as the check and insert would.
+ * Run with -Dbenchmark=true.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ItemLocksContentionBenchmarkTest {
+    private static final int THREADS = 16;
+    private static final int BOOKINGS_PER_THREAD = 200;
+    private static final long TRANSACTION_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Test
+    void distinctItemsScaleWhileSameItemSerializes() throws Exception {
+        ItemLocks itemLocks = new ItemLocks(new ItemLockProperties(), null);
+
+        double sameItem = run(itemLocks, thread -> 1L);
+        double distinctItems = run(itemLocks, thread -> thread + 1L);
+
+        log.info("Item locks: {} bookings/s on one item, {} bookings/s on {} items",
+                Math.round(sameItem), Math.round(distinctItems), THREADS);
+        assertTrue(distinctItems > sameItem * 2);
+    }
+
+    private static double run(ItemLocks itemLocks, IntToLongFunction itemOfThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                long itemId = itemOfThread.applyAsLong(t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                        book(itemLocks, itemId);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - started;
+            return THREADS * BOOKINGS_PER_THREAD / (elapsed / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void book(ItemLocks itemLocks, long itemId) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemLocks.lockUntilCompletion(itemId);
+            LockSupport.parkNanos(TRANSACTION_NANOS);
+        } finally {
+            List<TransactionSynchronization> synchronizations =
+                    TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        }
+    }
+}
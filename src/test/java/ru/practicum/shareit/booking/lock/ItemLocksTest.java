@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemLocksTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ItemLockProperties properties;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new ItemLockProperties();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void constructorWhenStripesNotPowerOfTwoThenRoundedUp() {
+        properties.setStripes(1000);
+
+        assertEquals(1024, new ItemLocks(properties, jdbcTemplate).stripeCount());
+    }
+
+    @Test
+    void lockUntilCompletionWhenNoTransactionThenIllegalStateExceptionThrow() {
+        ItemLocks itemLocks = new ItemLocks(properties, jdbcTemplate);
+
+        assertThrows(IllegalStateException.class, () -> itemLocks.lockUntilCompletion(1L));
+    }
+
+    @Test
+    void lockUntilCompletionWhenSameItemThenWaitsForCompletion() throws Exception {
+        ItemLocks itemLocks = new ItemLocks(properties, jdbcTemplate);
+        TransactionSynchronizationManager.initSynchronization();
+        itemLocks.lockUntilCompletion(1L);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        Future<?> other = executor.submit(() -> inTransaction(() -> {
+            itemLocks.lockUntilCompletion(1L);
+            locked.countDown();
+        }));
+
+        assertFalse(locked.await(100, TimeUnit.MILLISECONDS));
+
+        complete();
+
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+        other.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void lockUntilCompletionWhenOtherStripeThenNotBlocked() throws Exception {
+        ItemLocks itemLocks = new ItemLocks(properties, jdbcTemplate);
+        long otherItemId = 2L;
+        while (itemLocks.stripeIndex(otherItemId) == itemLocks.stripeIndex(1L)) {
+            otherItemId++;
+        }
+        long itemId = otherItemId;
+        TransactionSynchronizationManager.initSynchronization();
+        itemLocks.lockUntilCompletion(1L);
+
+        Future<?> other = executor.submit(() -> inTransaction(() -> itemLocks.lockUntilCompletion(itemId)));
+
+        try {
+            other.get(5, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            fail("Lock of another item waited for the first transaction.");
+        } finally {
+            complete();
+        }
+    }
+
+    @Test
+    void lockUntilCompletionWhenAdvisoryThenAdvisoryLockTakenInOrder() {
+        properties.setAdvisory(true);
+        ItemLocks itemLocks = new ItemLocks(properties, jdbcTemplate);
+        TransactionSynchronizationManager.initSynchronization();
+
+        itemLocks.lockUntilCompletion(List.of(3L, 1L, 3L));
+        complete();
+
+        var inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).query(anyString(), any(ResultSetExtractor.class), eq(1L));
+        inOrder.verify(jdbcTemplate).query(anyString(), any(ResultSetExtractor.class), eq(3L));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    private static void inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+        } finally {
+            complete();
+        }
+    }
+
+    private static void complete() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
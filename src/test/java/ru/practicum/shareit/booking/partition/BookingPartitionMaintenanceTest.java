@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking.partition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingPartitionMaintenanceTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingPartitionProperties properties;
+    private BookingPartitionMaintenance maintenance;
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new BookingPartitionProperties();
+        properties.setMonthsAhead(2);
+        maintenance = new BookingPartitionMaintenance(jdbcTemplate, transactionManager, properties);
+    }
+
+    @Test
+    void maintainWhenNoRetentionThenCreateMissingPartitionsAndDetachNothing() {
+        YearMonth current = YearMonth.now();
+        String existing = BookingPartitionMaintenance.partitionName(current);
+        String upcoming = BookingPartitionMaintenance.partitionName(current.plusMonths(2));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any()))
+                .thenAnswer(invocation -> existing.equals(invocation.getArgument(2)) ? 1 : 0);
+        when(jdbcTemplate.update(anyString())).thenReturn(0);
+
+        maintenance.maintain();
+
+        verify(jdbcTemplate, times(2)).execute(startsWith("CREATE TABLE bookings_p"));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE " + existing));
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute(startsWith("CREATE TABLE " + upcoming));
+        inOrder.verify(jdbcTemplate).update(startsWith("WITH moved AS (DELETE FROM bookings_default"));
+        inOrder.verify(jdbcTemplate).execute(startsWith("ALTER TABLE bookings ATTACH PARTITION " + upcoming));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE bookings DETACH"));
+    }
+
+    @Test
+    void maintainWhenRetentionSetThenDetachExpiredPartitions() {
+        properties.setRetentionMonths(12);
+        YearMonth current = YearMonth.now();
+        String expired = BookingPartitionMaintenance.partitionName(current.minusMonths(13));
+        String kept = BookingPartitionMaintenance.partitionName(current.minusMonths(12));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of(expired, kept, "bookings_default"));
+
+        maintenance.maintain();
+
+        verify(jdbcTemplate).execute("ALTER TABLE bookings DETACH PARTITION " + expired);
+        verify(jdbcTemplate, never()).execute("ALTER TABLE bookings DETACH PARTITION " + kept);
+        verify(jdbcTemplate, never()).execute("ALTER TABLE bookings DETACH PARTITION bookings_default");
+    }
+
+    @Test
+    void maintainWhenPartitionCannotBeCreatedThenOtherMonthsHandledAndFailureThrown() {
+        YearMonth current = YearMonth.now();
+        String failing = BookingPartitionMaintenance.partitionName(current.plusMonths(1));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any())).thenReturn(0);
+        lenient().doThrow(new DataIntegrityViolationException("overlaps"))
+                .when(jdbcTemplate).execute(startsWith("ALTER TABLE bookings ATTACH PARTITION " + failing));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> maintenance.maintain());
+
+        assertTrue(e.getMessage().contains(failing));
+        verify(jdbcTemplate).execute(startsWith("ALTER TABLE bookings ATTACH PARTITION "
+                + BookingPartitionMaintenance.partitionName(current.plusMonths(2))));
+    }
+
+    @Test
+    void onStartupWhenPartitionCannotBeCreatedThenFailureNotThrown() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any())).thenReturn(0);
+        lenient().doThrow(new DataIntegrityViolationException("overlaps"))
+                .when(jdbcTemplate).execute(startsWith("ALTER TABLE bookings ATTACH PARTITION "));
+
+        assertDoesNotThrow(() -> maintenance.onStartup());
+
+        verify(jdbcTemplate, times(3)).execute(startsWith("ALTER TABLE bookings ATTACH PARTITION "));
+    }
+
+    @Test
+    void monthOfWhenNotMonthlyPartitionThenNull() {
+        assertEquals(YearMonth.of(2023, 7), BookingPartitionMaintenance.monthOf("bookings_p202307"));
+        assertNull(BookingPartitionMaintenance.monthOf("bookings_default"));
+        assertNull(BookingPartitionMaintenance.monthOf("bookings_pold"));
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.booking.pipeline;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoInitial;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        properties = {"db.name=test", "shareit.bookings.write-pipeline.enabled=true"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingWritePipelineIntegrationTest {
+    private final BookingWritePipeline pipeline;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(User.builder().name("Owner").email("owner@pipeline.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email("booker@pipeline.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("Saw")
+                .description("Saw")
+                .available(true)
+                .owner(owner).build());
+    }
+
+    @AfterEach
+    void afterEach() {
+        bookingRepository.deleteAll();
+        itemRepository.delete(item);
+        userRepository.deleteAll(List.of(owner, booker));
+    }
+
+    @Test
+    void createWhenConcurrentRequestsThenEveryBookingWrittenWithOwnId() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            BookingDtoInitial dto = bookingDto(item.getId(), i);
+            results.add(callers.submit(() -> pipeline.create(booker.getId(), dto)));
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<BookingDto> result : results) {
+            BookingDto booking = result.get();
+            assertEquals(BookingState.WAITING, booking.getStatus());
+            assertEquals(item.getId(), booking.getItem().getId());
+            ids.add(booking.getId());
+        }
+        callers.shutdown();
+
+        assertEquals(50, ids.size());
+        Set<Long> stored = bookingRepository.findAllById(ids).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toSet());
+        assertEquals(ids, stored);
+    }
+
+    @Test
+    void createWhenItemNotFoundThenOnlyThatCommandFails() {
+        assertThrows(EntityNotFoundException.class, () -> pipeline.create(booker.getId(), bookingDto(-1L, 0)));
+
+        BookingDto booking = pipeline.create(booker.getId(), bookingDto(item.getId(), 1));
+
+        assertNotNull(booking.getId());
+    }
+
+    @Test
+    void createWhenOwnerBooksOwnItemThenEntityNotFoundExceptionThrow() {
+        assertThrows(EntityNotFoundException.class, () -> pipeline.create(owner.getId(), bookingDto(item.getId(), 0)));
+    }
+
+    private BookingDtoInitial bookingDto(Long itemId, int hoursFromNow) {
+        return BookingDtoInitial.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusHours(hoursFromNow + 1))
+                .end(LocalDateTime.now().plusHours(hoursFromNow + 2)).build();
+    }
+}
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.booking.pipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoInitial;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.lock.ItemLocks;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCalendarCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingWritePipelineTest {
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ItemLocks itemLocks;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private BookingMapper bookingMapper;
+    @Mock
+    private ItemCalendarCache itemCalendarCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BookingWritePipeline pipeline;
+    private BookingDtoInitial bookingDtoInitial;
+
+    @BeforeEach
+    void beforeEach() {
+        BookingWritePipelineProperties properties = new BookingWritePipelineProperties();
+        properties.setQueueCapacity(1);
+        properties.setWriterThreads(0);
+        properties.setRequestTimeout(Duration.ofMillis(20));
+        pipeline = new BookingWritePipeline(userRepository, itemRepository, bookingRepository, itemLocks,
+                jdbcTemplate, transactionTemplate,
+                bookingMapper, itemCalendarCache, eventPublisher, properties);
+        pipeline.start();
+        bookingDtoInitial = BookingDtoInitial.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusHours(2)).build();
+    }
+
+    @AfterEach
+    void afterEach() {
+        pipeline.stop();
+    }
+
+    @Test
+    void createWhenNotWrittenInTimeThenServiceUnavailableExceptionThrow() {
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> pipeline.create(1L, bookingDtoInitial));
+
+        assertTrue(e.getMessage().contains("not written in time"));
+    }
+
+    @Test
+    void createWhenQueueFullThenServiceUnavailableExceptionThrow() {
+        assertThrows(ServiceUnavailableException.class, () -> pipeline.create(1L, bookingDtoInitial));
+
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> pipeline.create(2L, bookingDtoInitial));
+
+        assertTrue(e.getMessage().contains("retry later"));
+        assertFalse(e.getMessage().contains("not written in time"));
+    }
+
+    @Test
+    void writeWhenCommandClaimedByTimedOutCallerThenSkipped() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        BookingWritePipeline.CreateCommand command = new BookingWritePipeline.CreateCommand(1L, bookingDtoInitial);
+        assertTrue(command.claim());
+
+        pipeline.write(List.of(command));
+
+        verifyNoInteractions(bookingRepository, jdbcTemplate, itemCalendarCache, eventPublisher);
+    }
+
+    @Test
+    void writeWhenBatchRefusedThenRowsInsertedOneByOneAndOnlyRefusedOneFails() throws SQLException {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        User owner = User.builder().id(3L).build();
+        when(userRepository.findAllById(any())).thenReturn(List.of(User.builder().id(1L).build(),
+                User.builder().id(2L).build()));
+        when(itemRepository.findAllById(any())).thenReturn(List.of(Item.builder().id(1L).owner(owner)
+                .available(true).build()));
+        when(bookingMapper.bookingFromDtoInitial(any(), any(), any())).thenAnswer(invocation -> Booking.builder()
+                .start(bookingDtoInitial.getStart())
+                .end(bookingDtoInitial.getEnd()).build());
+        when(bookingMapper.bookingToDto(any())).thenReturn(BookingDto.builder().build());
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.setSavepoint()).thenReturn(mock(Savepoint.class));
+        when(connection.prepareStatement(anyString(), any(String[].class))).thenReturn(statement);
+        when(statement.executeBatch())
+                .thenThrow(new SQLException("refused", "23505"))
+                .thenReturn(new int[]{1})
+                .thenThrow(new SQLException("refused", "23505"));
+        when(statement.getGeneratedKeys()).thenReturn(mock(ResultSet.class));
+        when(jdbcTemplate.getExceptionTranslator()).thenReturn(new SQLStateSQLExceptionTranslator());
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+                invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        BookingWritePipeline.CreateCommand first = new BookingWritePipeline.CreateCommand(1L, bookingDtoInitial);
+        BookingWritePipeline.CreateCommand refused = new BookingWritePipeline.CreateCommand(2L, bookingDtoInitial);
+
+        pipeline.write(List.of(first, refused));
+
+        assertTrue(first.result().isDone());
+        assertFalse(first.result().isCompletedExceptionally());
+        assertTrue(refused.result().isCompletedExceptionally());
+        verify(statement, times(3)).executeBatch();
+        verify(connection, times(2)).rollback(any(Savepoint.class));
+        verify(eventPublisher, times(1)).publishEvent(any(BookingEvent.class));
+    }
+
+    @Test
+    void createWhenEndBeforeStartThenValidationExceptionThrowWithoutQueueing() {
+        bookingDtoInitial.setEnd(bookingDtoInitial.getStart().minusHours(1));
+
+        assertThrows(ValidationException.class, () -> pipeline.create(1L, bookingDtoInitial));
+        verifyNoInteractions(transactionTemplate);
+    }
+}
@@ -0,0 +1,212 @@
+package ru.practicum.shareit.booking.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.util.Pagination;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on Postgres for the SQL of every booking listing and fails when a plan scans a table bigger
+ * than shareit.explain.max-seq-scan-rows sequentially. Plans are generic, so they hold for any parameter.
+ * Needs an empty Postgres database, which is migrated by Flyway and filled with generated rows:
+ * <pre>
+ * mvn test -Dtest=BookingQueryPlanTest -Dshareit.explain.url=jdbc:postgresql://localhost:5432/explain
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "shareit.explain.url", matches = ".+")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.profiles.active=explain",
+        "spring.datasource.url=${shareit.explain.url}",
+        "spring.datasource.username=${shareit.explain.username:root}",
+        "spring.datasource.password=${shareit.explain.password:root}",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "ru.practicum.shareit.booking.repository.BookingQueryPlanTest$RecordingInspector",
+        "shareit.bookings.expiry.enabled=false",
+        "shareit.bookings.archive.enabled=false"})
+public class BookingQueryPlanTest {
+    private static final String SEED = "INSERT INTO users (name, email) " +
+            "SELECT 'user' || g, 'user' || g || '@explain.test' FROM generate_series(1, 2000) g; " +
+            "INSERT INTO items (name, description, available, owner_id) " +
+            "SELECT 'item' || g, 'description', true, (SELECT min(id) FROM users) + g % 2000 " +
+            "FROM generate_series(1, 10000) g; " +
+            "INSERT INTO bookings (start_date, end_date, item_id, booker_id, status, created) " +
+            "SELECT now() - interval '1 hour' * (g % 20000), now() - interval '1 hour' * (g % 20000 - 48), " +
+            "(SELECT min(id) FROM items) + g % 10000, (SELECT min(id) FROM users) + g % 2000, " +
+            "(ARRAY['WAITING', 'APPROVED', 'REJECTED', 'CANCELED'])[1 + g % 4], now() " +
+            "FROM generate_series(1, 200000) g; " +
+            "ANALYZE";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Value("${shareit.explain.max-seq-scan-rows:1000}")
+    private long maxSeqScanRows;
+
+    @BeforeEach
+    void beforeEach() {
+        Long bookings = jdbcTemplate.queryForObject("SELECT count(*) FROM bookings", Long.class);
+        if (bookings == null || bookings == 0) {
+            jdbcTemplate.execute(SEED);
+        }
+    }
+
+    @Test
+    void bookingQueriesDoNotScanLargeTables() {
+        Long userId = jdbcTemplate.queryForObject("SELECT min(id) FROM users", Long.class);
+        Long itemId = jdbcTemplate.queryForObject("SELECT min(id) FROM items", Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        Pagination page = new Pagination(0, 10);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findAllByBookerIdOrderByStartDesc",
+                () -> bookingRepository.findAllByBookerIdOrderByStartDesc(userId, page));
+        queries.put("findByBookerIdAndStartBeforeAndEndAfterOrderByStartAsc",
+                () -> bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartAsc(userId, now, now, page));
+        queries.put("findAllByBookerIdAndEndBeforeOrderByStartDesc",
+                () -> bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, now, page));
+        queries.put("findAllByBookerIdAndStartAfterOrderByStartDesc",
+                () -> bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, now, page));
+        queries.put("findAllByBookerIdAndStatusOrderByStartDesc",
+                () -> bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingState.WAITING, page));
+        queries.put("findByItemOwnerIdOrderByStartDesc",
+                () -> bookingRepository.findByItemOwnerIdOrderByStartDesc(userId, page));
+        queries.put("findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc",
+                () -> bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, now, now, page));
+        queries.put("findByItemOwnerIdAndEndBeforeOrderByStartDesc",
+                () -> bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(userId, now, page));
+        queries.put("findByItemOwnerIdAndStartAfterOrderByStartDesc",
+                () -> bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(userId, now, page));
+        queries.put("findByItemOwnerIdAndStatusOrderByStartDesc",
+                () -> bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(userId, BookingState.REJECTED, page));
+        queries.put("existsByItemIdAndStatusAndStartBeforeAndEndAfter",
+                () -> bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(itemId,
+                        BookingState.APPROVED, now, now));
+        queries.put("findFirstByItemIdAndBookerIdAndStatusAndEndBefore",
+                () -> bookingRepository.findFirstByItemIdAndBookerIdAndStatusAndEndBefore(itemId, userId,
+                        BookingState.APPROVED, now));
+        queries.put("findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc",
+                () -> bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(itemId,
+                        BookingState.APPROVED, now));
+        queries.put("findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc",
+                () -> bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc(itemId,
+                        BookingState.APPROVED, now));
+        queries.put("findByItemIdAndStatusInAndEndAfterOrderByStartAsc",
+                () -> bookingRepository.findByItemIdAndStatusInAndEndAfterOrderByStartAsc(itemId,
+                        List.of(BookingState.WAITING, BookingState.APPROVED), now));
+        queries.put("findTimelineByBookerId", () -> bookingRepository.findTimelineByBookerId(userId));
+        queries.put("findTimelineByItemOwnerId", () -> bookingRepository.findTimelineByItemOwnerId(userId));
+        queries.put("streamExportByItemOwnerId", () -> transactionTemplate.executeWithoutResult(status ->
+                bookingRepository.streamExportByItemOwnerId(userId).close()));
+        queries.put("countStatesByBookerId", () -> bookingRepository.countStatesByBookerId(userId, now));
+        queries.put("countStatesByItemOwnerId", () -> bookingRepository.countStatesByItemOwnerId(userId, now));
+
+        List<String> failures = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            RecordingInspector.STATEMENTS.clear();
+            query.run();
+            for (String sql : RecordingInspector.STATEMENTS) {
+                for (String relation : sequentiallyScanned(sql)) {
+                    failures.add(String.format("%s scans %s", name, relation));
+                }
+            }
+        });
+
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    private List<String> sequentiallyScanned(String sql) {
+        String numbered = numberParameters(sql);
+        int parameters = countParameters(sql);
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE shareit_explain AS " + numbered);
+                String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+                try (ResultSet rs = statement.executeQuery("EXPLAIN (FORMAT JSON) EXECUTE shareit_explain" + arguments)) {
+                    rs.next();
+                    return rs.getString(1);
+                } finally {
+                    statement.execute("DEALLOCATE shareit_explain");
+                }
+            }
+        });
+
+        List<String> scanned = new ArrayList<>();
+        try {
+            collectSeqScans(objectMapper.readTree(plan).get(0).get("Plan"), scanned);
+        } catch (Exception e) {
+            throw new IllegalStateException("Plan cannot be read: " + plan, e);
+        }
+        return scanned;
+    }
+
+    private void collectSeqScans(JsonNode node, List<String> scanned) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            String relation = node.path("Relation Name").asText();
+            Double rows = jdbcTemplate.queryForObject("SELECT reltuples FROM pg_class WHERE relname = ?",
+                    Double.class, relation);
+            if (rows != null && rows > maxSeqScanRows) {
+                scanned.add(String.format("%s (%.0f rows)", relation, rows));
+            }
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, scanned);
+        }
+    }
+
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    private static int countParameters(String sql) {
+        return (int) sql.chars().filter(c -> c == '?').count();
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
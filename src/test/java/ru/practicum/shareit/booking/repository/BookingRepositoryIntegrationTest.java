@@ -8,7 +8,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingExportRow;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStateCounts;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
@@ -20,10 +22,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -190,6 +196,44 @@ public class BookingRepositoryIntegrationTest {
         assertEquals(booking2, bookingsPage.getContent().get(0));
     }
 
+    @Test
+    void findWindowByItemOwnerIdPagesByStartAndId() {
+        User itemOwner = saveRandomUser();
+        Item item = saveRandomItem(itemOwner);
+        LocalDateTime dateFrom = LocalDateTime.now().plusDays(10).withNano(0);
+        LocalDateTime dateTo = dateFrom.plusDays(5);
+        saveBooking(item, dateFrom.minusHours(1));
+        Booking first = saveBooking(item, dateFrom.plusHours(1));
+        Booking second = saveBooking(item, dateFrom.plusHours(1));
+        Booking third = saveBooking(item, dateFrom.plusDays(1));
+        saveBooking(item, dateTo);
+
+        List<Booking> page1 = bookingRepository.findWindowByItemOwnerId(itemOwner.getId(), false,
+                List.of(BookingState.WAITING), dateFrom, dateTo, dateFrom, 0L, new Pagination(0, 2));
+        Booking last = page1.get(page1.size() - 1);
+        List<Booking> page2 = bookingRepository.findWindowByItemOwnerId(itemOwner.getId(), false,
+                List.of(BookingState.WAITING), dateFrom, dateTo, last.getStart(), last.getId(), new Pagination(0, 2));
+
+        assertThat(page1, equalTo(List.of(first, second)));
+        assertThat(page2, equalTo(List.of(third)));
+    }
+
+    @Test
+    void findWindowByItemOwnerIdReturnsEveryStatus() {
+        User itemOwner = saveRandomUser();
+        Item item = saveRandomItem(itemOwner);
+        LocalDateTime dateFrom = LocalDateTime.now().plusDays(10).withNano(0);
+        Booking waiting = saveBooking(item, dateFrom.plusHours(1));
+        Booking rejected = saveBooking(item, dateFrom.plusHours(2));
+        rejected.setStatus(BookingState.REJECTED);
+        bookingRepository.save(rejected);
+
+        List<Booking> page = bookingRepository.findWindowByItemOwnerId(itemOwner.getId(), true,
+                List.of(BookingState.WAITING), dateFrom, dateFrom.plusDays(1), dateFrom, 0L, new Pagination(0, 10));
+
+        assertThat(page, equalTo(List.of(waiting, rejected)));
+    }
+
     @Test
     void findByItemOwnerIdAndEndIsAfterAndStartIsBefore() {
         Pagination pageRequest = new Pagination(0, 1);
@@ -299,6 +343,79 @@ public class BookingRepositoryIntegrationTest {
         assertThat(last.get(), equalTo(lastBooking));
     }
 
+    @Test
+    void findAllWithItemAndBookerByIdInAndItemOwnerIdThenUpdateStatusByIdIn() {
+        User itemOwner = saveRandomUser();
+        Item item = saveRandomItem(itemOwner);
+        Booking waiting = bookingRepository.save(Booking.builder()
+                .item(item)
+                .status(BookingState.WAITING)
+                .booker(saveRandomUser())
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusHours(2))
+                .build());
+        Booking approved = bookingRepository.save(Booking.builder()
+                .item(item)
+                .status(BookingState.APPROVED)
+                .booker(saveRandomUser())
+                .start(LocalDateTime.now().plusHours(3))
+                .end(LocalDateTime.now().plusHours(4))
+                .build());
+        Booking canceled = bookingRepository.save(Booking.builder()
+                .item(item)
+                .status(BookingState.CANCELED)
+                .booker(saveRandomUser())
+                .start(LocalDateTime.now().plusHours(5))
+                .end(LocalDateTime.now().plusHours(6))
+                .build());
+        Booking foreign = bookingRepository.save(Booking.builder()
+                .item(saveRandomItem(saveRandomUser()))
+                .status(BookingState.WAITING)
+                .booker(saveRandomUser())
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusHours(2))
+                .build());
+
+        List<Booking> owned = bookingRepository.findAllWithItemAndBookerByIdInAndItemOwnerId(
+                List.of(waiting.getId(), approved.getId(), canceled.getId(), foreign.getId()), itemOwner.getId());
+
+        assertThat(owned, hasSize(3));
+        assertThat(owned.get(0).getItem().getId(), equalTo(item.getId()));
+
+        int updated = bookingRepository.updateStatusByIdIn(
+                List.of(waiting.getId(), approved.getId(), canceled.getId()), BookingState.APPROVED);
+
+        assertThat(updated, equalTo(1));
+        assertThat(bookingRepository.findById(waiting.getId()).get().getStatus(), equalTo(BookingState.APPROVED));
+        assertThat(bookingRepository.findById(canceled.getId()).get().getStatus(), equalTo(BookingState.CANCELED));
+    }
+
+    @Test
+    void findItemIdByIdThenForUpdateByIdAndOverlapExcludesBookingItself() {
+        Item item = saveRandomItem(saveRandomUser());
+        Booking booking = saveBooking(item, LocalDateTime.now().plusDays(1));
+        booking.setStatus(BookingState.APPROVED);
+        bookingRepository.save(booking);
+
+        assertThat(bookingRepository.findItemIdById(booking.getId()).orElseThrow(), equalTo(item.getId()));
+        assertThat(bookingRepository.findForUpdateById(booking.getId()).orElseThrow().getId(),
+                equalTo(booking.getId()));
+        assertFalse(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(item.getId(),
+                BookingState.APPROVED, booking.getEnd(), booking.getStart(), booking.getId()));
+        assertTrue(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(item.getId(),
+                BookingState.APPROVED, booking.getEnd(), booking.getStart(), booking.getId() + 1));
+    }
+
+    private Booking saveBooking(Item item, LocalDateTime start) {
+        return bookingRepository.save(Booking.builder()
+                .booker(saveRandomUser())
+                .item(item)
+                .status(BookingState.WAITING)
+                .start(start)
+                .end(start.plusHours(2))
+                .build());
+    }
+
     private User saveRandomUser() {
         return userRepository.save(User.builder()
                 .name("name")
@@ -315,6 +432,45 @@ public class BookingRepositoryIntegrationTest {
                 .build());
     }
 
+    @Test
+    void countStatesByBookerId() {
+        BookingStateCounts counts = bookingRepository.countStatesByBookerId(bookerId, LocalDateTime.now());
+
+        assertThat(counts.getAll(), equalTo(5L));
+        assertThat(counts.getCurrent(), equalTo(1L));
+        assertThat(counts.getPast(), equalTo(1L));
+        assertThat(counts.getFuture(), equalTo(3L));
+        assertThat(counts.getWaiting(), equalTo(1L));
+        assertThat(counts.getRejected(), equalTo(1L));
+    }
+
+    @Test
+    void countStatesByItemOwnerId() {
+        BookingStateCounts counts = bookingRepository.countStatesByItemOwnerId(ownerId, LocalDateTime.now());
+
+        assertThat(counts.getAll(), equalTo(5L));
+        assertThat(counts.getCurrent(), equalTo(1L));
+        assertThat(counts.getPast(), equalTo(1L));
+        assertThat(counts.getFuture(), equalTo(3L));
+        assertThat(counts.getWaiting(), equalTo(1L));
+        assertThat(counts.getRejected(), equalTo(1L));
+    }
+
+    @Test
+    void streamExportByItemOwnerId() {
+        List<BookingExportRow> rows;
+        try (Stream<BookingExportRow> stream = bookingRepository.streamExportByItemOwnerId(ownerId)) {
+            rows = stream.collect(Collectors.toList());
+        }
+
+        assertThat(rows, hasSize(5));
+        for (int i = 1; i < rows.size(); i++) {
+            assertTrue(!rows.get(i).getStart().isAfter(rows.get(i - 1).getStart()));
+        }
+        assertThat(rows.get(0).getItemName(), equalTo("name"));
+        assertThat(rows.stream().map(BookingExportRow::getBookerId).distinct().count(), equalTo(1L));
+    }
+
     private Map<String, Long> saveOneBookingForEachBookingStateSearchDtoWithSameBookerAndItemOwner() {
         User itemOwner = saveRandomUser();
         User booker = saveRandomUser();
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.Pagination;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Guards the entity graphs on the list methods: mapping a page of bookings to DTOs must not load
+ * items or bookers one by one.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookingRepositoryQueryCountTest {
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final BookingMapper bookingMapper = Mappers.getMapper(BookingMapper.class);
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = entityManager.persist(User.builder().name("owner").email("owner@email.ru").build());
+        booker = entityManager.persist(User.builder().name("booker").email("booker@email.ru").build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Item item = entityManager.persist(Item.builder()
+                    .name("item" + i)
+                    .description("desc")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            entityManager.persist(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingState.WAITING)
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i + 1))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllByBookerIdThenOneQueryPerPage() {
+        assertOneQuery(() -> bookingRepository.findAllByBookerIdOrderByStartDesc(booker.getId(),
+                new Pagination(0, PAGE_SIZE)));
+    }
+
+    @Test
+    void findAllByBookerIdAndStatusThenOneQueryPerPage() {
+        assertOneQuery(() -> bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(booker.getId(),
+                BookingState.WAITING, new Pagination(0, PAGE_SIZE)));
+    }
+
+    @Test
+    void findByItemOwnerIdThenOneQueryPerPage() {
+        assertOneQuery(() -> bookingRepository.findByItemOwnerIdOrderByStartDesc(owner.getId(),
+                new Pagination(0, PAGE_SIZE)));
+    }
+
+    @Test
+    void findByItemOwnerIdAndStartAfterThenOneQueryPerPage() {
+        assertOneQuery(() -> bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(owner.getId(),
+                LocalDateTime.now(), new Pagination(0, PAGE_SIZE)));
+    }
+
+    private void assertOneQuery(Supplier<List<Booking>> query) {
+        List<BookingDto> bookings = query.get().stream()
+                .map(bookingMapper::bookingToDto)
+                .collect(Collectors.toList());
+
+        assertThat(bookings, hasSize(PAGE_SIZE));
+        assertThat(bookings.get(0).getItem().getName(), equalTo("item" + (PAGE_SIZE - 1)));
+        assertThat(bookings.get(0).getBooker().getId(), equalTo(booker.getId()));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+}
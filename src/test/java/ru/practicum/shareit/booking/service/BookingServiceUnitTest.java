@@ -5,26 +5,52 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInitial;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingWindowDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventStream;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
+import ru.practicum.shareit.booking.export.BookingExporter;
+import ru.practicum.shareit.booking.lock.ItemLocks;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStateCounts;
+import ru.practicum.shareit.booking.model.BookingTimelineRow;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
+import ru.practicum.shareit.booking.timeline.BookingTimelineStore;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.item.service.ItemCalendarCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Function;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +65,22 @@ public class BookingServiceUnitTest {
     private UserService userService;
     @Mock
     private BookingMapper bookingMapper;
+    @Mock
+    private ItemCalendarCache itemCalendarCache;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private BookingEventStream bookingEventStream;
+    @Mock
+    private BookingStatsCache bookingStatsCache;
+    @Mock
+    private BookingTimelineStore bookingTimelineStore;
+    @Mock
+    private ItemLocks itemLocks;
+    @Mock
+    private BookingExporter bookingExporter;
     @InjectMocks
     private BookingServiceImpl bookingService;
     @Captor
@@ -90,6 +132,26 @@ public class BookingServiceUnitTest {
         assertNotNull(savedBooking.getBooker());
         assertNotNull(savedBooking.getItem());
         assertEquals(BookingState.WAITING, savedBooking.getStatus());
+        assertNotNull(savedBooking.getCreated());
+        verify(itemCalendarCache).evict(item.getId());
+        verify(eventPublisher).publishEvent(any(BookingEvent.class));
+    }
+
+    @Test
+    void createWhenItemAlreadyBookedThenConflictExceptionThrow() {
+        item.setId(1L);
+        when(userRepository.findById(userId)).thenReturn(Optional.ofNullable(user));
+        when(itemRepository.findById(any())).thenReturn(Optional.ofNullable(item));
+        when(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingState.APPROVED,
+                bookingDtoInitial.getEnd(), bookingDtoInitial.getStart())).thenReturn(true);
+
+        assertThrows(ConflictException.class,
+                () -> bookingService.create(userId, bookingDtoInitial));
+
+        InOrder inOrder = inOrder(itemLocks, bookingRepository);
+        inOrder.verify(itemLocks).lockUntilCompletion(item.getId());
+        inOrder.verify(bookingRepository).existsByItemIdAndStatusAndStartBeforeAndEndAfter(any(), any(), any(), any());
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -133,6 +195,18 @@ public class BookingServiceUnitTest {
         verify(bookingRepository, never()).save(any());
     }
 
+    @Test
+    void createWhenItemOwnerDeletedThenEntityNotFoundExceptionThrow() {
+        user.setDeletedAt(LocalDateTime.now());
+        when(userRepository.findById(userId)).thenReturn(Optional.ofNullable(booker));
+        when(itemRepository.findById(any())).thenReturn(Optional.ofNullable(item));
+
+        assertThrows(EntityNotFoundException.class,
+                () -> bookingService.create(userId, bookingDtoInitial));
+        verify(bookingRepository, never()).save(any());
+        verifyNoInteractions(itemLocks);
+    }
+
     @Test
     void createWhenItemNotFoundThenEntityNotFoundExceptionThrow() {
         user.setId(0L);
@@ -150,7 +224,7 @@ public class BookingServiceUnitTest {
         booking.setStatus(BookingState.WAITING);
         booking.setItem(item);
         booking.setBooker(user);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.ofNullable(booking));
+        stubLockedBooking();
         when(bookingMapper.bookingToDto(any())).thenReturn(bookingDtoResponse);
 
         BookingDto actualBooking = bookingService.setStatus(userId, bookingId, true);
@@ -170,7 +244,7 @@ public class BookingServiceUnitTest {
         booking.setStatus(BookingState.WAITING);
         booking.setItem(item);
         booking.setBooker(user);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.ofNullable(booking));
+        stubLockedBooking();
         when(bookingMapper.bookingToDto(any())).thenReturn(bookingDtoResponse);
 
         BookingDto actualBooking = bookingService.setStatus(userId, bookingId, false);
@@ -186,7 +260,7 @@ public class BookingServiceUnitTest {
 
     @Test
     void setStatusWhenBookingNotFoundThenEntityNotFoundExceptionThrow() {
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
+        when(bookingRepository.findItemIdById(bookingId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
                 () -> bookingService.setStatus(userId, bookingId, true));
@@ -198,7 +272,7 @@ public class BookingServiceUnitTest {
         booking.setStatus(BookingState.WAITING);
         booking.setItem(item);
         booking.setBooker(user);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.ofNullable(booking));
+        stubLockedBooking();
 
         assertThrows(EntityNotFoundException.class,
                 () -> bookingService.setStatus(userId, bookingId, true));
@@ -212,13 +286,180 @@ public class BookingServiceUnitTest {
         booking.setStatus(BookingState.APPROVED);
         booking.setItem(item);
         booking.setBooker(user);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.ofNullable(booking));
+        stubLockedBooking();
 
         assertThrows(ValidationException.class,
                 () -> bookingService.setStatus(userId, bookingId, true));
         verify(bookingRepository, never()).save(any());
     }
 
+    @Test
+    void setStatusWhenBookingCanceledThenValidationExceptionThrow() {
+        user.setId(0L);
+        booking.setStatus(BookingState.CANCELED);
+        booking.setItem(item);
+        booking.setBooker(user);
+        stubLockedBooking();
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.setStatus(userId, bookingId, true));
+        assertEquals(BookingState.CANCELED, booking.getStatus());
+    }
+
+    @Test
+    void setStatusWhenApprovalOverlapsApprovedBookingThenConflictExceptionThrow() {
+        user.setId(0L);
+        booking.setId(bookingId);
+        booking.setStatus(BookingState.WAITING);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+        stubLockedBooking();
+        when(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(item.getId(),
+                BookingState.APPROVED, booking.getEnd(), booking.getStart(), bookingId)).thenReturn(true);
+
+        assertThrows(ConflictException.class,
+                () -> bookingService.setStatus(userId, bookingId, true));
+
+        assertEquals(BookingState.WAITING, booking.getStatus());
+        InOrder inOrder = inOrder(itemLocks, bookingRepository);
+        inOrder.verify(itemLocks).lockUntilCompletion(item.getId());
+        inOrder.verify(bookingRepository).findForUpdateById(bookingId);
+        inOrder.verify(bookingRepository).existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(any(), any(),
+                any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void setStatusWhenRejectedThenOverlapNotChecked() {
+        user.setId(0L);
+        booking.setStatus(BookingState.WAITING);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        stubLockedBooking();
+
+        bookingService.setStatus(userId, bookingId, false);
+
+        assertEquals(BookingState.REJECTED, booking.getStatus());
+        verify(bookingRepository, never()).existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(any(), any(),
+                any(), any(), any());
+    }
+
+    @Test
+    void setStatusesWhenMixedBatchThenUpdateOwnedBookingsWithOneQueryPerStatus() {
+        Booking waitingToApprove = Booking.builder().id(1L).item(item).booker(booker).status(BookingState.WAITING).build();
+        Booking alreadyApproved = Booking.builder().id(2L).item(item).booker(booker).status(BookingState.APPROVED).build();
+        Booking waitingToReject = Booking.builder().id(3L).item(item).booker(booker).status(BookingState.WAITING).build();
+        stubOwnedBookings(waitingToApprove, alreadyApproved, waitingToReject);
+        when(bookingRepository.updateStatusByIdIn(List.of(1L), BookingState.APPROVED)).thenReturn(1);
+        when(bookingRepository.updateStatusByIdIn(List.of(3L), BookingState.REJECTED)).thenReturn(1);
+
+        List<BookingStatusResultDto> results = bookingService.setStatuses(userId, List.of(
+                BookingStatusUpdateDto.builder().bookingId(1L).approved(true).build(),
+                BookingStatusUpdateDto.builder().bookingId(2L).approved(true).build(),
+                BookingStatusUpdateDto.builder().bookingId(3L).approved(false).build(),
+                BookingStatusUpdateDto.builder().bookingId(4L).approved(true).build()));
+
+        assertEquals(4, results.size());
+        assertEquals(BookingState.APPROVED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertNotNull(results.get(1).getError());
+        assertEquals(BookingState.REJECTED, results.get(2).getStatus());
+        assertNull(results.get(2).getError());
+        assertNull(results.get(3).getStatus());
+        assertNotNull(results.get(3).getError());
+        InOrder inOrder = inOrder(bookingRepository, itemLocks, eventPublisher);
+        inOrder.verify(bookingRepository).findAllWithItemAndBookerByIdInAndItemOwnerId(any(), eq(userId));
+        inOrder.verify(itemLocks).lockUntilCompletion(new TreeSet<>(List.of(10L)));
+        inOrder.verify(bookingRepository).updateStatusByIdIn(List.of(1L), BookingState.APPROVED);
+        inOrder.verify(bookingRepository).updateStatusByIdIn(List.of(3L), BookingState.REJECTED);
+        inOrder.verify(eventPublisher, times(2)).publishEvent(any(BookingEvent.class));
+    }
+
+    @Test
+    void setStatusesWhenBookingCanceledThenReportedAndNotUpdated() {
+        Booking canceled = Booking.builder().id(1L).item(item).booker(booker).status(BookingState.CANCELED).build();
+        stubOwnedBookings(canceled);
+
+        List<BookingStatusResultDto> results = bookingService.setStatuses(userId, List.of(
+                BookingStatusUpdateDto.builder().bookingId(1L).approved(true).build()));
+
+        assertEquals(BookingState.CANCELED, results.get(0).getStatus());
+        assertEquals("Booking is canceled.", results.get(0).getError());
+        verify(bookingRepository, never()).updateStatusByIdIn(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void setStatusesWhenUpdateMissesRowsThenConflictExceptionThrowAndNothingPublished() {
+        Booking first = Booking.builder().id(1L).item(item).booker(booker).status(BookingState.WAITING).build();
+        Booking second = Booking.builder().id(2L).item(item).booker(booker).status(BookingState.WAITING).build();
+        stubOwnedBookings(first, second);
+        when(bookingRepository.updateStatusByIdIn(List.of(1L, 2L), BookingState.REJECTED)).thenReturn(1);
+
+        assertThrows(ConflictException.class, () -> bookingService.setStatuses(userId, List.of(
+                BookingStatusUpdateDto.builder().bookingId(1L).approved(false).build(),
+                BookingStatusUpdateDto.builder().bookingId(2L).approved(false).build())));
+
+        verifyNoInteractions(eventPublisher);
+        verifyNoInteractions(itemCalendarCache);
+    }
+
+    @Test
+    void setStatusesWhenApprovalsOverlapThenItemsLockedInOrderAndLaterOneReported() {
+        Item otherItem = Item.builder().id(5L).owner(user).available(true).build();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = Booking.builder().id(1L).item(item).booker(booker).status(BookingState.WAITING)
+                .start(start).end(start.plusDays(2)).build();
+        Booking overlapping = Booking.builder().id(2L).item(item).booker(booker).status(BookingState.WAITING)
+                .start(start.plusDays(1)).end(start.plusDays(3)).build();
+        Booking bookedByOthers = Booking.builder().id(3L).item(otherItem).booker(booker).status(BookingState.WAITING)
+                .start(start).end(start.plusDays(1)).build();
+        stubOwnedBookings(first, overlapping, bookedByOthers);
+        when(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(any(), any(), any(),
+                any(), any())).thenAnswer(invocation -> invocation.getArgument(4).equals(3L));
+        when(bookingRepository.updateStatusByIdIn(List.of(1L), BookingState.APPROVED)).thenReturn(1);
+
+        List<BookingStatusResultDto> results = bookingService.setStatuses(userId, List.of(
+                BookingStatusUpdateDto.builder().bookingId(1L).approved(true).build(),
+                BookingStatusUpdateDto.builder().bookingId(2L).approved(true).build(),
+                BookingStatusUpdateDto.builder().bookingId(3L).approved(true).build()));
+
+        assertEquals(BookingState.APPROVED, results.get(0).getStatus());
+        assertEquals("Item is already booked for these dates.", results.get(1).getError());
+        assertEquals(BookingState.WAITING, results.get(1).getStatus());
+        assertEquals("Item is already booked for these dates.", results.get(2).getError());
+        InOrder inOrder = inOrder(itemLocks, bookingRepository);
+        inOrder.verify(itemLocks).lockUntilCompletion(new TreeSet<>(List.of(5L, 10L)));
+        inOrder.verify(bookingRepository, atLeastOnce())
+                .existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(any(), any(), any(), any(), any());
+        inOrder.verify(bookingRepository).updateStatusByIdIn(List.of(1L), BookingState.APPROVED);
+        verify(eventPublisher, times(1)).publishEvent(any(BookingEvent.class));
+    }
+
+    @Test
+    void setStatusesWhenUserOwnsNoBookingsThenNothingUpdated() {
+        when(bookingRepository.findAllWithItemAndBookerByIdInAndItemOwnerId(any(), eq(userId))).thenReturn(List.of());
+
+        List<BookingStatusResultDto> results = bookingService.setStatuses(userId, List.of(
+                BookingStatusUpdateDto.builder().bookingId(1L).approved(true).build()));
+
+        assertEquals(1, results.size());
+        assertNotNull(results.get(0).getError());
+        verify(bookingRepository, never()).updateStatusByIdIn(any(), any());
+        verifyNoInteractions(itemLocks);
+    }
+
+    @Test
+    void setStatusesWhenBookingIdRepeatedThenValidationExceptionThrow() {
+        assertThrows(ValidationException.class, () -> bookingService.setStatuses(userId, List.of(
+                BookingStatusUpdateDto.builder().bookingId(1L).approved(true).build(),
+                BookingStatusUpdateDto.builder().bookingId(1L).approved(false).build())));
+
+        verifyNoInteractions(bookingRepository, itemLocks, eventPublisher);
+    }
+
     @Test
     void findAllByStateWhenWrongStateThenValidationExceptionThrow() {
         String state = "wrong";
@@ -325,7 +566,6 @@ public class BookingServiceUnitTest {
     @Test
     void findAllByStateWhenNotOwnerAndPASTStateThenInvokeFindAllByBookerIdAndEndBeforeOrderByStartDesc() {
         String state = "PAST";
-        when(userService.findById(anyLong())).thenReturn(new UserDto());
 
 
         bookingService.findAllByState(userId, state, 1, 1);
@@ -338,7 +578,6 @@ public class BookingServiceUnitTest {
     @Test
     void findAllByStateWhenNotOwnerAndWAITINGStateThenInvokeFindAllByBookerIdAndStatusOrderByStartDescWithWaitingInParams() {
         String state = "WAITING";
-        when(userService.findById(anyLong())).thenReturn(new UserDto());
 
         bookingService.findAllByState(userId, state, 1, 1);
         verify(bookingRepository, times(1))
@@ -353,7 +592,6 @@ public class BookingServiceUnitTest {
     @Test
     void findAllByStateWhenNotOwnerAndREJECTEDStateThenInvokeFindAllByBookerIdAndStatusOrderByStartDescWithRejectedInParams() {
         String state = "REJECTED";
-        when(userService.findById(anyLong())).thenReturn(new UserDto());
 
         bookingService.findAllByState(userId, state, 1, 1);
         verify(bookingRepository, times(1))
@@ -368,7 +606,6 @@ public class BookingServiceUnitTest {
     @Test
     void findAllByStateWhenNotOwnerAndAllStateThenInvokeFindAllByBookerIdOrderByStartDesc() {
         String state = "ALL";
-        when(userService.findById(anyLong())).thenReturn(new UserDto());
 
         bookingService.findAllByState(userId, state, 1, 1);
         verify(bookingRepository, times(1))
@@ -381,7 +618,6 @@ public class BookingServiceUnitTest {
         booking.setStatus(BookingState.WAITING);
         booking.setItem(item);
         booking.setBooker(booker);
-        when(userService.findById(anyLong())).thenReturn(new UserDto());
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.ofNullable(booking));
         when(bookingMapper.bookingToDto(booking)).thenReturn(bookingDtoResponse);
 
@@ -393,7 +629,6 @@ public class BookingServiceUnitTest {
 
     @Test
     void findByIdWhenBookingNotFoundThenEntityNotFoundExceptionThrow() {
-        when(userService.findById(anyLong())).thenReturn(new UserDto());
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
         assertThrows(EntityNotFoundException.class,
                 () -> bookingService.findById(userId, bookingId));
@@ -405,7 +640,6 @@ public class BookingServiceUnitTest {
         booking.setStatus(BookingState.WAITING);
         booking.setItem(item);
         booking.setBooker(user);
-        when(userService.findById(anyLong())).thenReturn(new UserDto());
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.ofNullable(booking));
         when(bookingMapper.bookingToDto(booking)).thenReturn(bookingDtoResponse);
 
@@ -420,7 +654,6 @@ public class BookingServiceUnitTest {
         booking.setStatus(BookingState.WAITING);
         booking.setItem(item);
         booking.setBooker(booker);
-        when(userService.findById(anyLong())).thenReturn(new UserDto());
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.ofNullable(booking));
         when(bookingMapper.bookingToDto(booking)).thenReturn(bookingDtoResponse);
 
@@ -438,11 +671,255 @@ public class BookingServiceUnitTest {
         booking.setStatus(BookingState.WAITING);
         booking.setItem(item);
         booking.setBooker(booker);
-        when(userService.findById(anyLong())).thenReturn(new UserDto());
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.ofNullable(booking));
 
         assertThrows(EntityNotFoundException.class,
                 () -> bookingService.findById(userId, bookingId));
     }
 
+    @Test
+    void findAllByStateWhenPastThenHotAndArchivedBookingsMergedByStart() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(eq(userId), any(), any()))
+                .thenReturn(List.of(Booking.builder().id(1L).start(now.minusDays(10)).build()));
+        when(archivedBookingRepository.findAllByBookerIdOrderByStartDesc(eq(userId), any()))
+                .thenReturn(List.of(ArchivedBooking.builder().id(5L).start(now.minusDays(5)).build()));
+        stubMapperCopiesIdAndStart();
+
+        List<BookingDto> bookings = bookingService.findAllByState(userId, "PAST", 0, 3);
+
+        assertEquals(List.of(5L, 1L), bookings.stream().map(BookingDto::getId).collect(Collectors.toList()));
+        verify(archivedBookingRepository).findAllByBookerIdOrderByStartDesc(eq(userId),
+                argThat(page -> page.getOffset() == 0 && page.getPageSize() == 3));
+    }
+
+    @Test
+    void findAllByStateWhenLaterPageThenBothSourcesReadUpToPageEndAndMerged() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.findAllByBookerIdOrderByStartDesc(eq(userId), any())).thenReturn(List.of(
+                Booking.builder().id(1L).start(now.minusDays(1)).build(),
+                Booking.builder().id(2L).start(now.minusDays(3)).build(),
+                Booking.builder().id(3L).start(now.minusDays(5)).build()));
+        when(archivedBookingRepository.findAllByBookerIdOrderByStartDesc(eq(userId), any())).thenReturn(List.of(
+                ArchivedBooking.builder().id(4L).start(now.minusDays(2)).build(),
+                ArchivedBooking.builder().id(5L).start(now.minusDays(4)).build()));
+        stubMapperCopiesIdAndStart();
+
+        List<BookingDto> bookings = bookingService.findAllByState(userId, "ALL", 2, 2);
+
+        assertEquals(List.of(2L, 5L), bookings.stream().map(BookingDto::getId).collect(Collectors.toList()));
+        verify(bookingRepository).findAllByBookerIdOrderByStartDesc(eq(userId),
+                argThat(page -> page.getOffset() == 0 && page.getPageSize() == 4));
+        verify(archivedBookingRepository).findAllByBookerIdOrderByStartDesc(eq(userId),
+                argThat(page -> page.getOffset() == 0 && page.getPageSize() == 4));
+    }
+
+    @Test
+    void subscribeWhenUserExistsThenReturnEmitterOfEventStream() {
+        SseEmitter emitter = new SseEmitter();
+        when(bookingEventStream.subscribe(userId, 7L)).thenReturn(emitter);
+
+        assertSame(emitter, bookingService.subscribe(userId, 7L));
+        verify(userService).checkExists(userId);
+    }
+
+    @Test
+    void subscribeWhenUserNotFoundThenEntityNotFoundExceptionThrow() {
+        doThrow(EntityNotFoundException.class).when(userService).checkExists(userId);
+
+        assertThrows(EntityNotFoundException.class, () -> bookingService.subscribe(userId, null));
+        verifyNoInteractions(bookingEventStream);
+    }
+
+    @Test
+    void findOwnerStatsWhenInvokeThenArchivedBookingsCountedAsPast() {
+        BookingStateCounts counts = mock(BookingStateCounts.class);
+        when(counts.getAll()).thenReturn(6L);
+        when(counts.getCurrent()).thenReturn(1L);
+        when(counts.getPast()).thenReturn(2L);
+        when(counts.getFuture()).thenReturn(3L);
+        when(counts.getWaiting()).thenReturn(4L);
+        when(counts.getRejected()).thenReturn(0L);
+        when(bookingStatsCache.getOwnerStats(eq(userId), any())).thenAnswer(invocation ->
+                invocation.<Function<Long, BookingStatsDto>>getArgument(1).apply(userId));
+        when(bookingRepository.countStatesByItemOwnerId(eq(userId), any())).thenReturn(counts);
+        when(archivedBookingRepository.countByItemOwnerId(userId)).thenReturn(10L);
+
+        BookingStatsDto stats = bookingService.findOwnerStats(userId);
+
+        assertEquals(BookingStatsDto.builder()
+                .all(16L)
+                .current(1L)
+                .past(12L)
+                .future(3L)
+                .waiting(4L)
+                .rejected(0L).build(), stats);
+        verify(bookingRepository, never()).countStatesByBookerId(any(), any());
+    }
+
+    @Test
+    void exportAllByItemOwnerWhenInvokeThenExporterUsed() {
+        StreamingResponseBody body = out -> { };
+        when(bookingExporter.exportByItemOwner(userId, BookingExportFormat.CSV)).thenReturn(body);
+
+        assertSame(body, bookingService.exportAllByItemOwner(userId, BookingExportFormat.CSV));
+        verify(userService).checkExists(userId);
+    }
+
+    @Test
+    void exportAllWhenUserNotFoundThenEntityNotFoundExceptionThrow() {
+        doThrow(new EntityNotFoundException(User.class, "not found")).when(userService).checkExists(userId);
+
+        assertThrows(EntityNotFoundException.class,
+                () -> bookingService.exportAll(userId, BookingExportFormat.NDJSON));
+        verifyNoInteractions(bookingExporter);
+    }
+
+    @Test
+    void findStatsWhenCachedThenRepositoryNotQueried() {
+        BookingStatsDto cached = BookingStatsDto.builder().all(1L).build();
+        when(bookingStatsCache.getBookerStats(eq(userId), any())).thenReturn(cached);
+
+        assertSame(cached, bookingService.findStats(userId));
+        verify(bookingRepository, never()).countStatesByBookerId(any(), any());
+    }
+
+    @Test
+    void findAllByStateWhenTimelineEnabledThenPageLoadedByIdsInTimelineOrder() {
+        BookingTimeline timeline = BookingTimeline.of(List.of(
+                timelineRow(1L, LocalDateTime.now().minusDays(3)),
+                timelineRow(2L, LocalDateTime.now().minusDays(2))));
+        Booking hot = Booking.builder().id(2L).build();
+        ArchivedBooking archived = ArchivedBooking.builder().id(1L).build();
+        when(bookingTimelineStore.isEnabled()).thenReturn(true);
+        when(bookingTimelineStore.getBookerTimeline(userId)).thenReturn(timeline);
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(List.of(2L, 1L))).thenReturn(List.of(hot));
+        when(archivedBookingRepository.findAllWithItemAndBookerByIdIn(List.of(1L))).thenReturn(List.of(archived));
+        when(bookingMapper.bookingToDto(hot)).thenReturn(BookingDto.builder().id(2L).build());
+        when(bookingMapper.archivedBookingToDto(archived)).thenReturn(BookingDto.builder().id(1L).build());
+
+        List<BookingDto> bookings = bookingService.findAllByState(userId, "PAST", 0, 10);
+
+        assertEquals(2L, bookings.get(0).getId());
+        assertEquals(1L, bookings.get(1).getId());
+        verify(bookingRepository, never()).findAllByBookerIdAndEndBeforeOrderByStartDesc(any(), any(), any());
+    }
+
+    @Test
+    void findAllByItemOwnerWhenTimelineEnabledAndEmptyThenValidationExceptionThrow() {
+        when(bookingTimelineStore.isEnabled()).thenReturn(true);
+        when(bookingTimelineStore.getOwnerTimeline(userId)).thenReturn(BookingTimeline.of(List.of()));
+
+        assertThrows(ValidationException.class, () -> bookingService.findAllByItemOwner(userId, "ALL", 0, 10));
+        verify(bookingRepository, never()).findByItemOwnerIdOrderByStartDesc(any(), any());
+    }
+
+    @Test
+    void findAllByItemOwnerInWindowThenLiveAndArchivedMergedByStartAndId() {
+        LocalDateTime dateFrom = LocalDateTime.of(2024, 1, 1, 0, 0);
+        BookingWindowDto window = BookingWindowDto.builder()
+                .dateFrom(dateFrom)
+                .dateTo(dateFrom.plusMonths(1))
+                .build();
+        Booking hot = Booking.builder().id(3L).build();
+        ArchivedBooking archivedFirst = ArchivedBooking.builder().id(1L).build();
+        ArchivedBooking archivedLast = ArchivedBooking.builder().id(7L).build();
+        when(bookingRepository.findWindowByItemOwnerId(eq(userId), eq(true), any(), eq(dateFrom),
+                eq(dateFrom.plusMonths(1)), eq(dateFrom), eq(0L), any())).thenReturn(List.of(hot));
+        when(archivedBookingRepository.findWindowByItemOwnerId(eq(userId), eq(true), any(), eq(dateFrom),
+                eq(dateFrom.plusMonths(1)), eq(dateFrom), eq(0L), any()))
+                .thenReturn(List.of(archivedFirst, archivedLast));
+        when(bookingMapper.bookingToDto(hot))
+                .thenReturn(BookingDto.builder().id(3L).start(dateFrom.plusDays(2)).build());
+        when(bookingMapper.archivedBookingToDto(archivedFirst))
+                .thenReturn(BookingDto.builder().id(1L).start(dateFrom.plusDays(2)).build());
+        when(bookingMapper.archivedBookingToDto(archivedLast))
+                .thenReturn(BookingDto.builder().id(7L).start(dateFrom.plusDays(5)).build());
+
+        List<BookingDto> bookings = bookingService.findAllByItemOwnerInWindow(userId, "ALL", window, 2);
+
+        assertEquals(2, bookings.size());
+        assertEquals(1L, bookings.get(0).getId());
+        assertEquals(3L, bookings.get(1).getId());
+    }
+
+    @Test
+    void findAllInWindowWhenStateIsWaitingThenStatusConditionUsed() {
+        LocalDateTime dateFrom = LocalDateTime.of(2024, 1, 1, 0, 0);
+        BookingWindowDto window = BookingWindowDto.builder()
+                .dateFrom(dateFrom)
+                .dateTo(dateFrom.plusMonths(1))
+                .build();
+
+        bookingService.findAllInWindow(userId, "WAITING", window, 10);
+
+        verify(bookingRepository).findWindowByBookerId(eq(userId), eq(false), eq(EnumSet.of(BookingState.WAITING)),
+                eq(dateFrom), eq(dateFrom.plusMonths(1)), eq(dateFrom), eq(0L), any());
+        verify(archivedBookingRepository).findWindowByBookerId(eq(userId), eq(false),
+                eq(EnumSet.of(BookingState.WAITING)), eq(dateFrom), eq(dateFrom.plusMonths(1)), eq(dateFrom), eq(0L),
+                any());
+    }
+
+    @Test
+    void findAllInWindowWhenStateIsCurrentThenValidationExceptionThrow() {
+        BookingWindowDto window = BookingWindowDto.builder()
+                .dateFrom(LocalDateTime.now())
+                .dateTo(LocalDateTime.now().plusDays(1))
+                .build();
+
+        assertThrows(ValidationException.class, () -> bookingService.findAllInWindow(userId, "CURRENT", window, 10));
+        verify(bookingRepository, never())
+                .findWindowByBookerId(any(), anyBoolean(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void findAllInWindowWhenAfterStartWithoutAfterIdThenValidationExceptionThrow() {
+        LocalDateTime now = LocalDateTime.now();
+        BookingWindowDto window = BookingWindowDto.builder()
+                .dateFrom(now)
+                .dateTo(now.plusDays(1))
+                .afterStart(now.plusHours(1))
+                .build();
+
+        assertThrows(ValidationException.class, () -> bookingService.findAllInWindow(userId, "ALL", window, 10));
+    }
+
+    @Test
+    void findAllInWindowWhenDateToMissingThenValidationExceptionThrow() {
+        BookingWindowDto window = BookingWindowDto.builder()
+                .dateFrom(LocalDateTime.now())
+                .build();
+
+        assertThrows(ValidationException.class, () -> bookingService.findAllInWindow(userId, "WAITING", window, 10));
+    }
+
+    private BookingTimelineRow timelineRow(Long id, LocalDateTime start) {
+        BookingTimelineRow row = mock(BookingTimelineRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getStart()).thenReturn(start);
+        when(row.getEnd()).thenReturn(start.plusDays(1));
+        when(row.getStatus()).thenReturn(BookingState.APPROVED);
+        return row;
+    }
+
+    private void stubLockedBooking() {
+        item.setId(10L);
+        when(bookingRepository.findItemIdById(bookingId)).thenReturn(Optional.of(item.getId()));
+        when(bookingRepository.findForUpdateById(bookingId)).thenReturn(Optional.of(booking));
+    }
+
+    private void stubMapperCopiesIdAndStart() {
+        when(bookingMapper.bookingToDto(any())).thenAnswer(invocation -> BookingDto.builder()
+                .id(invocation.<Booking>getArgument(0).getId())
+                .start(invocation.<Booking>getArgument(0).getStart()).build());
+        when(bookingMapper.archivedBookingToDto(any())).thenAnswer(invocation -> BookingDto.builder()
+                .id(invocation.<ArchivedBooking>getArgument(0).getId())
+                .start(invocation.<ArchivedBooking>getArgument(0).getStart()).build());
+    }
+
+    private void stubOwnedBookings(Booking... bookings) {
+        item.setId(10L);
+        when(bookingRepository.findAllWithItemAndBookerByIdInAndItemOwnerId(any(), eq(userId)))
+                .thenReturn(List.of(bookings));
+    }
 }
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BookingStatsCacheTest {
+
+    @Test
+    void getBookerStatsWhenTtlZeroThenLoadedEveryTime() {
+        BookingStatsCache cache = new BookingStatsCache(new BookingStatsProperties());
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getBookerStats(1L, countingLoader(loads));
+        cache.getBookerStats(1L, countingLoader(loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getOwnerStatsWhenCachedThenEvictedByBookingEventOfOwner() {
+        BookingStatsProperties properties = new BookingStatsProperties();
+        properties.setTtl(Duration.ofMinutes(1));
+        BookingStatsCache cache = new BookingStatsCache(properties);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOwnerStats(2L, countingLoader(loads));
+        cache.getOwnerStats(2L, countingLoader(loads));
+        assertEquals(1, loads.get());
+
+        cache.onBookingEvent(BookingEvent.builder().bookerId(1L).ownerId(2L).build());
+        cache.getOwnerStats(2L, countingLoader(loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    private Function<Long, BookingStatsDto> countingLoader(AtomicInteger loads) {
+        return userId -> {
+            loads.incrementAndGet();
+            return BookingStatsDto.builder().all(userId).build();
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking.timeline;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.BookingStateDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.booking.timeline.BookingTimelineTest.row;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingTimelineStoreTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    private BookingTimelineProperties properties;
+    private BookingTimelineStore store;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new BookingTimelineProperties();
+        properties.setEnabled(true);
+        properties.setMaxUsers(2);
+        store = new BookingTimelineStore(bookingRepository, archivedBookingRepository, properties);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void getBookerTimelineWhenLoadedThenHotAndArchivedRowsMergedAndLoadedOnce() {
+        when(bookingRepository.findTimelineByBookerId(1L))
+                .thenReturn(List.of(row(10L, now.plusDays(1), now.plusDays(2), BookingState.WAITING)));
+        when(archivedBookingRepository.findTimelineByBookerId(1L))
+                .thenReturn(List.of(row(2L, now.minusYears(1), now.minusYears(1).plusDays(1), BookingState.APPROVED)));
+
+        store.getBookerTimeline(1L);
+        BookingTimeline timeline = store.getBookerTimeline(1L);
+
+        assertEquals(List.of(10L, 2L), timeline.page(BookingStateDto.ALL, now, false, 0, 10));
+        verify(bookingRepository, times(1)).findTimelineByBookerId(1L);
+    }
+
+    @Test
+    void onBookingEventWhenTimelineLoadedThenUpdatedWithoutReload() {
+        when(bookingRepository.findTimelineByItemOwnerId(2L)).thenReturn(List.of());
+        when(archivedBookingRepository.findTimelineByItemOwnerId(2L)).thenReturn(List.of());
+        store.getOwnerTimeline(2L);
+
+        store.onBookingEvent(BookingEvent.builder()
+                .bookingId(11L)
+                .bookerId(1L)
+                .ownerId(2L)
+                .status(BookingState.WAITING)
+                .start(now.plusDays(1))
+                .end(now.plusDays(2)).build());
+
+        assertEquals(List.of(11L), store.getOwnerTimeline(2L).page(BookingStateDto.WAITING, now, false, 0, 10));
+        verify(bookingRepository, times(1)).findTimelineByItemOwnerId(2L);
+        verify(bookingRepository, never()).findTimelineByBookerId(any());
+    }
+
+    @Test
+    void getBookerTimelineWhenMaxUsersReachedThenOtherTimelineDropped() {
+        when(bookingRepository.findTimelineByBookerId(anyLong())).thenReturn(List.of());
+        when(archivedBookingRepository.findTimelineByBookerId(anyLong())).thenReturn(List.of());
+
+        store.getBookerTimeline(1L);
+        store.getBookerTimeline(2L);
+        store.getBookerTimeline(3L);
+        store.getBookerTimeline(1L);
+        store.getBookerTimeline(2L);
+        store.getBookerTimeline(3L);
+
+        verify(bookingRepository, atLeast(4)).findTimelineByBookerId(anyLong());
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking.timeline;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingStateDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingTimelineRow;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BookingTimelineTest {
+    private LocalDateTime now;
+    private BookingTimeline timeline;
+
+    @BeforeEach
+    void beforeEach() {
+        now = LocalDateTime.of(2030, 1, 10, 12, 0);
+        timeline = BookingTimeline.of(List.of(
+                row(5L, now.plusDays(2), now.plusDays(3), BookingState.WAITING),
+                row(1L, now.minusDays(5), now.minusDays(4), BookingState.APPROVED),
+                row(3L, now.minusHours(2), now.plusHours(2), BookingState.APPROVED),
+                row(2L, now.minusDays(3), now.minusDays(2), BookingState.REJECTED),
+                row(4L, now.minusHours(1), now.plusHours(1), BookingState.APPROVED),
+                row(6L, now.plusDays(4), now.plusDays(5), BookingState.REJECTED)));
+    }
+
+    @Test
+    void pageWhenAllThenOrderedByStartDescending() {
+        assertEquals(List.of(6L, 5L, 4L, 3L, 2L, 1L), timeline.page(BookingStateDto.ALL, now, false, 0, 10));
+        assertEquals(List.of(4L, 3L), timeline.page(BookingStateDto.ALL, now, false, 2, 2));
+    }
+
+    @Test
+    void pageWhenTimeStatesThenSplitByNow() {
+        assertEquals(List.of(6L, 5L), timeline.page(BookingStateDto.FUTURE, now, false, 0, 10));
+        assertEquals(List.of(2L, 1L), timeline.page(BookingStateDto.PAST, now, false, 0, 10));
+        assertEquals(List.of(3L, 4L), timeline.page(BookingStateDto.CURRENT, now, true, 0, 10));
+        assertEquals(List.of(4L, 3L), timeline.page(BookingStateDto.CURRENT, now, false, 0, 10));
+    }
+
+    @Test
+    void pageWhenStatusStatesThenFilteredByStatus() {
+        assertEquals(List.of(5L), timeline.page(BookingStateDto.WAITING, now, false, 0, 10));
+        assertEquals(List.of(6L, 2L), timeline.page(BookingStateDto.REJECTED, now, false, 0, 10));
+        assertEquals(List.of(2L), timeline.page(BookingStateDto.REJECTED, now, false, 1, 10));
+    }
+
+    @Test
+    void pageWhenStartEqualsNowThenNeitherPastNorFuture() {
+        BookingTimeline startsNow = BookingTimeline.of(List.of(row(1L, now, now.plusHours(1), BookingState.WAITING)));
+
+        assertTrue(startsNow.page(BookingStateDto.FUTURE, now, false, 0, 10).isEmpty());
+        assertTrue(startsNow.page(BookingStateDto.CURRENT, now, true, 0, 10).isEmpty());
+        assertEquals(List.of(1L), startsNow.page(BookingStateDto.FUTURE, now.minusNanos(1_000), false, 0, 10));
+    }
+
+    @Test
+    void withWhenBookingChangedThenReplacedAndNewOneInsertedInOrder() {
+        BookingTimeline changed = timeline
+                .with(5L, now.plusDays(2), now.plusDays(3), BookingState.APPROVED)
+                .with(7L, now.plusDays(1), now.plusDays(2), BookingState.WAITING);
+
+        assertEquals(7, changed.size());
+        assertEquals(List.of(7L), changed.page(BookingStateDto.WAITING, now, false, 0, 10));
+        assertEquals(List.of(6L, 5L, 7L), changed.page(BookingStateDto.FUTURE, now, false, 0, 10));
+        assertEquals(List.of(5L), timeline.page(BookingStateDto.WAITING, now, false, 0, 10));
+    }
+
+    static BookingTimelineRow row(Long id, LocalDateTime start, LocalDateTime end, BookingState status) {
+        return new BookingTimelineRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+
+            @Override
+            public BookingState getStatus() {
+                return status;
+            }
+        };
+    }
+}
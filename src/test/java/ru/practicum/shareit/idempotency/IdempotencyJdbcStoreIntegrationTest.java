@@ -0,0 +1,44 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.transaction.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional
+@SpringBootTest(
+        properties = {"db.name=test", "shareit.idempotency.jdbc=true"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class IdempotencyJdbcStoreIntegrationTest {
+    private final IdempotencyJdbcStore jdbcStore;
+
+    @Test
+    void claimWhenKeyHeldThenRefusedUntilReleased() {
+        assertTrue(jdbcStore.claim("1:POST /items:key", "hash"));
+        assertFalse(jdbcStore.claim("1:POST /items:key", "hash"));
+        assertTrue(jdbcStore.find("1:POST /items:key").isPending());
+
+        jdbcStore.release("1:POST /items:key");
+
+        assertNull(jdbcStore.find("1:POST /items:key"));
+        assertTrue(jdbcStore.claim("1:POST /items:key", "hash"));
+    }
+
+    @Test
+    void completeWhenClaimedThenResponseStoredAndNotReleased() {
+        jdbcStore.claim("1:POST /items:key", "hash");
+
+        jdbcStore.complete("1:POST /items:key", new IdempotencyRecord("hash", "{\"id\":1}"));
+        jdbcStore.release("1:POST /items:key");
+
+        IdempotencyRecord record = jdbcStore.find("1:POST /items:key");
+        assertFalse(record.isPending());
+        assertEquals("{\"id\":1}", record.getResponse());
+        assertFalse(jdbcStore.claim("1:POST /items:key", "hash"));
+    }
+}
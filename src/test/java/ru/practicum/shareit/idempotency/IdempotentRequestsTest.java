@@ -0,0 +1,240 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotentRequestsTest {
+    @Mock
+    private ObjectProvider<IdempotencyJdbcStore> jdbcStoreProvider;
+    @Mock
+    private IdempotencyJdbcStore jdbcStore;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private IdempotencyProperties properties;
+    private ExecutorService executor;
+    private AtomicInteger calls;
+    private ItemDto request;
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new IdempotencyProperties();
+        executor = Executors.newSingleThreadExecutor();
+        calls = new AtomicInteger();
+        request = ItemDto.builder().name("drill").description("cordless").available(true).build();
+    }
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void executeWhenSameKeyAndBodyThenStoredResponseReplayed() {
+        IdempotentRequests idempotentRequests = localOnly();
+
+        ItemDto first = idempotentRequests.execute("key", 1L, "POST /items", request, ItemDto.class, this::create);
+        ItemDto second = idempotentRequests.execute("key", 1L, "POST /items", request, ItemDto.class, this::create);
+
+        assertEquals(1, calls.get());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void executeWhenSameKeyOtherBodyThenConflictExceptionThrow() {
+        IdempotentRequests idempotentRequests = localOnly();
+        idempotentRequests.execute("key", 1L, "POST /items", request, ItemDto.class, this::create);
+        request.setName("saw");
+
+        assertThrows(ConflictException.class,
+                () -> idempotentRequests.execute("key", 1L, "POST /items", request, ItemDto.class, this::create));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void executeWhenSameKeyOtherUserThenActionRunsAgain() {
+        IdempotentRequests idempotentRequests = localOnly();
+
+        idempotentRequests.execute("key", 1L, "POST /items", request, ItemDto.class, this::create);
+        idempotentRequests.execute("key", 2L, "POST /items", request, ItemDto.class, this::create);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void executeWhenActionFailedThenRetryRunsAction() {
+        IdempotentRequests idempotentRequests = localOnly();
+
+        assertThrows(IllegalStateException.class, () -> idempotentRequests.execute("key", 1L, "POST /items",
+                request, ItemDto.class, () -> {
+                    throw new IllegalStateException("failed");
+                }));
+        idempotentRequests.execute("key", 1L, "POST /items", request, ItemDto.class, this::create);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void executeWhenKeyBlankThenValidationExceptionThrow() {
+        IdempotentRequests idempotentRequests = localOnly();
+
+        assertThrows(ValidationException.class,
+                () -> idempotentRequests.execute(" ", 1L, "POST /items", request, ItemDto.class, this::create));
+    }
+
+    @Test
+    void executeWhenDuplicateInFlightThenWaitsForFirstRequest() throws Exception {
+        IdempotentRequests idempotentRequests = localOnly();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<ItemDto> first = executor.submit(() -> idempotentRequests.execute("key", 1L, "POST /items",
+                request, ItemDto.class, () -> {
+                    started.countDown();
+                    awaitQuietly(release);
+                    return create();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        ExecutorService duplicateExecutor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ItemDto> duplicate = duplicateExecutor.submit(() -> idempotentRequests.execute("key", 1L,
+                    "POST /items", request, ItemDto.class, this::create));
+            Thread.sleep(100);
+            assertFalse(duplicate.isDone());
+
+            release.countDown();
+
+            assertEquals(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            duplicateExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executeWhenJdbcStoreHasKeyThenResponseParsedFromStore() throws Exception {
+        when(jdbcStoreProvider.getIfAvailable()).thenReturn(jdbcStore);
+        IdempotentRequests idempotentRequests = new IdempotentRequests(objectMapper, properties, jdbcStoreProvider);
+        String requestHash = storedHashOf("body");
+        when(jdbcStore.find("1:POST /bookings:key")).thenReturn(new IdempotencyRecord(requestHash, "\"stored\""));
+
+        String response = idempotentRequests.execute("key", 1L, "POST /bookings", "body", String.class,
+                () -> "created");
+
+        assertEquals("stored", response);
+    }
+
+    @Test
+    void executeWhenJdbcStoreEnabledThenKeyClaimedBeforeActionAndResponseStored() {
+        when(jdbcStoreProvider.getIfAvailable()).thenReturn(jdbcStore);
+        IdempotentRequests idempotentRequests = new IdempotentRequests(objectMapper, properties, jdbcStoreProvider);
+        when(jdbcStore.claim(eq("1:POST /bookings:key"), anyString())).thenReturn(true);
+
+        idempotentRequests.execute("key", 1L, "POST /bookings", "body", String.class, () -> {
+            verify(jdbcStore).claim(eq("1:POST /bookings:key"), anyString());
+            return "created";
+        });
+
+        ArgumentCaptor<IdempotencyRecord> record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(jdbcStore).complete(eq("1:POST /bookings:key"), record.capture());
+        assertEquals("\"created\"", record.getValue().getResponse());
+        verify(jdbcStore, never()).release(any());
+    }
+
+    @Test
+    void executeWhenJdbcStoreEnabledAndActionFailsThenClaimReleased() {
+        when(jdbcStoreProvider.getIfAvailable()).thenReturn(jdbcStore);
+        IdempotentRequests idempotentRequests = new IdempotentRequests(objectMapper, properties, jdbcStoreProvider);
+        when(jdbcStore.claim(eq("1:POST /bookings:key"), anyString())).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> idempotentRequests.execute("key", 1L, "POST /bookings",
+                "body", String.class, () -> {
+                    throw new IllegalStateException("failed");
+                }));
+
+        verify(jdbcStore).release("1:POST /bookings:key");
+        verify(jdbcStore, never()).complete(any(), any());
+    }
+
+    @Test
+    void executeWhenKeyClaimedByOtherNodeThenStoredResponseAwaitedWithoutRunningAction() throws Exception {
+        when(jdbcStoreProvider.getIfAvailable()).thenReturn(jdbcStore);
+        IdempotentRequests idempotentRequests = new IdempotentRequests(objectMapper, properties, jdbcStoreProvider);
+        String requestHash = storedHashOf("body");
+        when(jdbcStore.find("1:POST /bookings:key"))
+                .thenReturn(null)
+                .thenReturn(new IdempotencyRecord(requestHash, null))
+                .thenReturn(new IdempotencyRecord(requestHash, "\"stored\""));
+        when(jdbcStore.claim("1:POST /bookings:key", requestHash)).thenReturn(false);
+
+        String response = idempotentRequests.execute("key", 1L, "POST /bookings", "body", String.class, () -> {
+            calls.incrementAndGet();
+            return "created";
+        });
+
+        assertEquals("stored", response);
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void executeWhenKeyClaimedByOtherNodeForOtherBodyThenConflictExceptionThrow() throws Exception {
+        when(jdbcStoreProvider.getIfAvailable()).thenReturn(jdbcStore);
+        IdempotentRequests idempotentRequests = new IdempotentRequests(objectMapper, properties, jdbcStoreProvider);
+        when(jdbcStore.find("1:POST /bookings:key"))
+                .thenReturn(null)
+                .thenReturn(new IdempotencyRecord(storedHashOf("other"), null));
+        when(jdbcStore.claim(eq("1:POST /bookings:key"), anyString())).thenReturn(false);
+
+        assertThrows(ConflictException.class, () -> idempotentRequests.execute("key", 1L, "POST /bookings",
+                "body", String.class, () -> "created"));
+    }
+
+    private IdempotentRequests localOnly() {
+        return new IdempotentRequests(objectMapper, properties, jdbcStoreProvider);
+    }
+
+    private String storedHashOf(String body) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8));
+        return String.format("%064x", new BigInteger(1, digest));
+    }
+
+    private ItemDto create() {
+        return ItemDto.builder().id((long) calls.incrementAndGet()).name(request.getName()).build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -13,11 +13,13 @@ import org.springframework.test.web.servlet.ResultActions;
 import ru.practicum.shareit.exception.AccessException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBookingsAndComments;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -324,4 +326,26 @@ public class ItemControllerIntegrationTest {
                         .content(objectMapper.writeValueAsString(commentDto)))
                 .andExpect(status().isBadRequest());
     }
+
+    @SneakyThrows
+    @Test
+    void findAvailabilityWhenInvokeThenStatusOkFreeIntervalsInBody() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+        List<AvailabilityIntervalDto> free = List.of(AvailabilityIntervalDto.builder()
+                .start(from)
+                .end(to).build());
+        when(itemService.findAvailability(userId, itemId, from, to)).thenReturn(free);
+
+        String result = mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                        .header(USERID_HEADER, userId.toString())
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(free), result);
+    }
 }
@@ -20,6 +20,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @DataJpaTest
@@ -90,6 +91,50 @@ public class ItemRepositoryIntegrationTest {
         assertFalse(itemsList.contains(item3));
     }
 
+    @Test
+    void searchWhenOwnerDeletedThenItemsHidden() {
+        User owner = saveRandomUser();
+        User deletedOwner = saveRandomUser();
+        deletedOwner.setDeletedAt(LocalDateTime.now());
+        userRepository.save(deletedOwner);
+        Item item = itemRepository.save(Item.builder()
+                .name("drill")
+                .description("desc")
+                .available(true)
+                .owner(owner)
+                .build());
+        itemRepository.save(Item.builder()
+                .name("drill")
+                .description("desc")
+                .available(true)
+                .owner(deletedOwner)
+                .build());
+
+        Page<Item> items = itemRepository.search("drill", new Pagination(0, 10));
+
+        assertThat(items.getContent(), equalTo(List.of(item)));
+        assertThat(items.getTotalElements(), equalTo(1L));
+    }
+
+    @Test
+    void findByIdAndRequestAnswersWhenOwnerDeletedThenItemHidden() {
+        User deletedOwner = saveRandomUser();
+        deletedOwner.setDeletedAt(LocalDateTime.now());
+        userRepository.save(deletedOwner);
+        ItemRequest itemRequest = saveRandomRequest();
+        Item item = itemRepository.save(Item.builder()
+                .name("drill")
+                .description("desc")
+                .available(true)
+                .owner(deletedOwner)
+                .request(itemRequest)
+                .build());
+
+        assertTrue(itemRepository.findByIdAndOwnerDeletedAtIsNull(item.getId()).isEmpty());
+        assertFalse(itemRepository.existsByIdAndOwnerDeletedAtIsNull(item.getId()));
+        assertThat(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId())), empty());
+    }
+
     @Test
     void findAllWhenInvokedThenItemsWithRequestFound() {
         User owner = saveRandomUser();
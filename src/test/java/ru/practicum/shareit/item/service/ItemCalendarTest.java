@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.BookingPeriod;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ItemCalendarTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 3, 1, 0, 0);
+
+    @Test
+    void freeIntervalsWhenOverlappingPeriodsThenMergedBeforeSweep() {
+        ItemCalendar calendar = ItemCalendar.of(base, List.of(
+                period(1, 3),
+                period(2, 4),
+                period(4, 5),
+                period(7, 8)));
+
+        List<AvailabilityIntervalDto> free = calendar.freeIntervals(day(0), day(10));
+
+        assertEquals(3, free.size());
+        assertEquals(interval(0, 1), free.get(0));
+        assertEquals(interval(5, 7), free.get(1));
+        assertEquals(interval(8, 10), free.get(2));
+    }
+
+    @Test
+    void freeIntervalsWhenWindowStartsInsideBusyPeriodThenFreeFromItsEnd() {
+        ItemCalendar calendar = ItemCalendar.of(base, List.of(period(1, 3), period(6, 9)));
+
+        List<AvailabilityIntervalDto> free = calendar.freeIntervals(day(2), day(7));
+
+        assertEquals(List.of(interval(3, 6)), free);
+    }
+
+    @Test
+    void freeIntervalsWhenWindowFullyBookedThenEmpty() {
+        ItemCalendar calendar = ItemCalendar.of(base, List.of(period(1, 9)));
+
+        assertEquals(List.of(), calendar.freeIntervals(day(2), day(7)));
+    }
+
+    @Test
+    void freeIntervalsWhenNoBookingsThenWholeWindowFree() {
+        ItemCalendar calendar = ItemCalendar.of(base, List.of());
+
+        assertEquals(List.of(interval(2, 7)), calendar.freeIntervals(day(2), day(7)));
+    }
+
+    @Test
+    void freeIntervalsWhenWindowStartsAtPeriodEndThenPeriodSkipped() {
+        ItemCalendar calendar = ItemCalendar.of(base, List.of(period(1, 3), period(5, 6)));
+
+        assertEquals(List.of(interval(3, 5), interval(6, 8)), calendar.freeIntervals(day(3), day(8)));
+    }
+
+    private LocalDateTime day(int day) {
+        return base.plusDays(day);
+    }
+
+    private AvailabilityIntervalDto interval(int start, int end) {
+        return AvailabilityIntervalDto.builder()
+                .start(day(start))
+                .end(day(end))
+                .build();
+    }
+
+    private BookingPeriod period(int start, int end) {
+        return new BookingPeriod() {
+            @Override
+            public LocalDateTime getStart() {
+                return day(start);
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return day(end);
+            }
+        };
+    }
+}
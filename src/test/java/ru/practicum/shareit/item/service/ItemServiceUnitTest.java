@@ -5,18 +5,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPeriod;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.AccessException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBookingsAndComments;
+import ru.practicum.shareit.item.event.ItemCreatedEvent;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
@@ -31,11 +37,13 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.util.Pagination;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -59,6 +67,12 @@ public class ItemServiceUnitTest {
     private ItemMapper itemMapper;
     @Mock
     private UserMapper userMapper;
+    @Mock
+    private ItemCalendarCache itemCalendarCache;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ItemServiceImpl itemService;
@@ -106,8 +120,8 @@ public class ItemServiceUnitTest {
         when(itemRepository.save(item)).thenReturn(itemSaved);
         when(itemMapper.itemToDto(itemSaved)).thenReturn(savedItemDto);
 
-        ItemRequest request = ItemRequest.builder().id(0L).build();
-        when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.ofNullable(request));
+        ItemRequest request = ItemRequest.builder().id(0L).requestor(User.builder().id(1L).build()).build();
+        when(itemRequestRepository.findForUpdateById(anyLong())).thenReturn(Optional.ofNullable(request));
 
         ItemDto actualItemDto = itemService.create(userId, itemDto);
 
@@ -122,6 +136,7 @@ public class ItemServiceUnitTest {
         assertEquals(0L, savedItem.getOwner().getId());
         assertNotNull(savedItem.getRequest());
         assertEquals(0L, savedItem.getRequest().getId());
+        verify(eventPublisher).publishEvent(any(ItemCreatedEvent.class));
     }
 
     @Test
@@ -133,9 +148,20 @@ public class ItemServiceUnitTest {
         Mockito.verify(itemRepository, never()).save(Mockito.any());
     }
 
+    @Test
+    void createWhenRequestorDeletedThenEntityNotFoundExceptionThrow() {
+        User requestor = User.builder().id(1L).deletedAt(LocalDateTime.now()).build();
+        when(itemRequestRepository.findForUpdateById(any()))
+                .thenReturn(Optional.of(ItemRequest.builder().id(0L).requestor(requestor).build()));
+
+        assertThrows(EntityNotFoundException.class,
+                () -> itemService.create(userId, itemDto));
+        Mockito.verify(itemRepository, never()).save(Mockito.any());
+    }
+
     @Test
     void createWithUserExistRequestNotExistThenEntityNotFoundExceptionThrow() {
-        when(itemRequestRepository.findById(any())).thenReturn(Optional.empty());
+        when(itemRequestRepository.findForUpdateById(any())).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
                 () -> itemService.create(userId, itemDto));
@@ -188,7 +214,7 @@ public class ItemServiceUnitTest {
     @Test
     void findByIdWhenInvokeThenReturnItemDtoWithBookingsAndComments() {
         item.setOwner(user);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(Optional.of(item));
         when(itemMapper.itemToItemDtoWithBookingAndComments(item)).thenReturn(itemDtoWithBookingsAndComments);
         when(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc(any(), any(), any()))
                 .thenReturn(Optional.of(Booking.builder().build()));
@@ -209,7 +235,7 @@ public class ItemServiceUnitTest {
 
     @Test
     void findByIdWhenItemNotFoundThenEntityNotFoundExceptionThrow() {
-        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(itemRepository.findByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
                 () -> itemService.findById(userId, itemId));
@@ -221,7 +247,7 @@ public class ItemServiceUnitTest {
         item.setOwner(user);
         ItemDtoWithBookingsAndComments itemDtoWithBookingsAndComments = ItemDtoWithBookingsAndComments.builder().build();
         List<Comment> comments = List.of(Comment.builder().build());
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(Optional.of(item));
         when(itemMapper.itemToItemDtoWithBookingAndComments(item)).thenReturn(itemDtoWithBookingsAndComments);
         when(commentRepository.findByItemIdOrderByCreatedDesc(any())).thenReturn(comments);
         when(commentMapper.commentToDto(any())).thenReturn(CommentDto.builder().build());
@@ -241,7 +267,7 @@ public class ItemServiceUnitTest {
         ItemDtoWithBookingsAndComments itemDtoWithBookingsAndComments = ItemDtoWithBookingsAndComments.builder().build();
         BookingInfoDto booking = BookingInfoDto.builder().id(1L).build();
         List<Comment> comments = Collections.emptyList();
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(Optional.of(item));
         when(itemMapper.itemToItemDtoWithBookingAndComments(item)).thenReturn(itemDtoWithBookingsAndComments);
         when(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc(any(), any(), any()))
                 .thenReturn(Optional.of(Booking.builder().build()));
@@ -363,7 +389,7 @@ public class ItemServiceUnitTest {
         Comment savedComment = Comment.builder().build();
         CommentDto savedDto = CommentDto.builder().text("saved").build();
         when(userService.findById(userId)).thenReturn(userDto);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(Optional.of(item));
         when(userMapper.userFromDto(userDto)).thenReturn(user);
         when(bookingRepository
                 .findFirstByItemIdAndBookerIdAndStatusAndEndBefore(any(), any(), any(), any()))
@@ -399,7 +425,7 @@ public class ItemServiceUnitTest {
     @Test
     void createCommentWhenItemNotExistThenEntityNotFoundExceptionThrow() {
         CommentDto commentDto = CommentDto.builder().text("Comment").build();
-        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(itemRepository.findByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
                 () -> itemService.createComment(userId, itemId, commentDto));
@@ -413,7 +439,7 @@ public class ItemServiceUnitTest {
         UserDto userDto = UserDto.builder().build();
         User user = User.builder().build();
         when(userService.findById(userId)).thenReturn(userDto);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(Optional.of(item));
         when(userMapper.userFromDto(userDto)).thenReturn(user);
         when(bookingRepository
                 .findFirstByItemIdAndBookerIdAndStatusAndEndBefore(any(), any(), any(), any()))
@@ -424,4 +450,80 @@ public class ItemServiceUnitTest {
 
         verify(commentRepository, never()).save(any(Comment.class));
     }
+
+    @Test
+    void createCommentWhenRentedBookingArchivedThenReturnCommentDto() {
+        CommentDto commentDto = CommentDto.builder().text("Comment").build();
+        Comment comment = Comment.builder().build();
+        when(userService.findById(userId)).thenReturn(userDto);
+        when(itemRepository.findByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(Optional.of(item));
+        when(userMapper.userFromDto(userDto)).thenReturn(user);
+        when(bookingRepository
+                .findFirstByItemIdAndBookerIdAndStatusAndEndBefore(any(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(archivedBookingRepository.existsByItemIdAndBookerIdAndStatus(itemId, userId, BookingState.APPROVED))
+                .thenReturn(true);
+        when(commentMapper.commentFromDto(commentDto)).thenReturn(comment);
+        when(commentRepository.save(comment)).thenReturn(comment);
+        when(commentMapper.commentToDto(comment)).thenReturn(commentDto);
+
+        assertEquals(commentDto, itemService.createComment(userId, itemId, commentDto));
+    }
+
+    @Test
+    void findAvailabilityWhenWindowInPastThenQueryWindowAndSkipCache() {
+        LocalDateTime from = LocalDateTime.now().minusDays(2);
+        LocalDateTime to = from.plusDays(1);
+        BookingPeriod busy = mock(BookingPeriod.class);
+        when(busy.getStart()).thenReturn(from.plusHours(1));
+        when(busy.getEnd()).thenReturn(from.plusHours(2));
+        when(itemRepository.existsByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(true);
+        when(bookingRepository.findByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAsc(
+                eq(itemId), any(), eq(to), eq(from)))
+                .thenReturn(List.of(busy));
+
+        List<AvailabilityIntervalDto> free = itemService.findAvailability(userId, itemId, from, to);
+
+        assertEquals(2, free.size());
+        assertEquals(from, free.get(0).getStart());
+        assertEquals(from.plusHours(1), free.get(0).getEnd());
+        assertEquals(from.plusHours(2), free.get(1).getStart());
+        assertEquals(to, free.get(1).getEnd());
+        verify(itemCalendarCache, never()).get(any(), any());
+    }
+
+    @Test
+    void findAvailabilityWhenWindowInFutureThenServedFromCache() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(1);
+        when(itemRepository.existsByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(true);
+        when(itemCalendarCache.get(eq(itemId), any()))
+                .thenReturn(ItemCalendar.of(LocalDateTime.now(), List.of()));
+
+        List<AvailabilityIntervalDto> free = itemService.findAvailability(userId, itemId, from, to);
+
+        assertEquals(1, free.size());
+        assertEquals(from, free.get(0).getStart());
+        assertEquals(to, free.get(0).getEnd());
+        verify(bookingRepository, never())
+                .findByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAsc(any(), any(), any(), any());
+    }
+
+    @Test
+    void findAvailabilityWhenWindowEndBeforeStartThenValidationExceptionThrow() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        assertThrows(ValidationException.class,
+                () -> itemService.findAvailability(userId, itemId, from, from.minusHours(1)));
+        verify(itemRepository, never()).existsById(any());
+    }
+
+    @Test
+    void findAvailabilityWhenItemNotFoundThenEntityNotFoundExceptionThrow() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        when(itemRepository.existsByIdAndOwnerDeletedAtIsNull(itemId)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class,
+                () -> itemService.findAvailability(userId, itemId, from, from.plusDays(1)));
+    }
 }
@@ -10,14 +10,17 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.item.ItemController.USERID_HEADER;
 
@@ -133,7 +136,7 @@ public class ItemRequestControllerIntegrationTest {
     void getAllRequestsWithValidParams() {
         List<ItemRequestDto> itemRequestDtoList = List.of(ItemRequestDto.builder()
                 .description("desc").build());
-        when(itemRequestService.getAllRequests(userId, 1, 1)).thenReturn(itemRequestDtoList);
+        when(itemRequestService.getAllRequests(userId, false, 1, 1)).thenReturn(itemRequestDtoList);
 
         String result = mockMvc.perform(get("/requests/all")
                         .header(USERID_HEADER, userId.toString())
@@ -155,6 +158,61 @@ public class ItemRequestControllerIntegrationTest {
                         .param("from", "-1")
                         .param("size", "-1"))
                 .andExpect(status().isBadRequest());
-        verify(itemRequestService, never()).getAllRequests(userId, 1, 1);
+        verify(itemRequestService, never()).getAllRequests(any(), anyBoolean(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllRequestsWhenCursorGivenThenKeysetPageReturned() {
+        LocalDateTime afterCreated = LocalDateTime.of(2024, 3, 1, 12, 0);
+        List<ItemRequestDto> itemRequestDtoList = List.of(ItemRequestDto.builder()
+                .description("desc").build());
+        when(itemRequestService.getAllRequestsAfter(userId, false, afterCreated, 7L, 5)).thenReturn(itemRequestDtoList);
+
+        String result = mockMvc.perform(get("/requests/all")
+                        .header(USERID_HEADER, userId.toString())
+                        .param("afterCreated", "2024-03-01T12:00:00")
+                        .param("afterId", "7")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(itemRequestDtoList), result);
+        verify(itemRequestService, never()).getAllRequests(any(), anyBoolean(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllRequestsWhenIncludeClosedGivenThenPassedToService() {
+        when(itemRequestService.getAllRequests(userId, true, 0, 10)).thenReturn(List.of());
+
+        mockMvc.perform(get("/requests/all")
+                        .header(USERID_HEADER, userId.toString())
+                        .param("includeClosed", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+    }
+
+    @SneakyThrows
+    @Test
+    void getMatchesWhenInvokeThenStatusOkAndMatchesInBody() {
+        List<RequestMatchDto> matches = List.of(RequestMatchDto.builder()
+                .requestId(1L)
+                .itemId(2L)
+                .itemName("drill")
+                .sharedTerms(2)
+                .build());
+        when(itemRequestService.getMatches(userId, 0, 20)).thenReturn(matches);
+
+        String result = mockMvc.perform(get("/requests/matches")
+                        .header(USERID_HEADER, userId.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(matches), result);
     }
 }
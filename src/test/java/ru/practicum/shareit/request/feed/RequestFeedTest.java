@@ -0,0 +1,148 @@
+package ru.practicum.shareit.request.feed;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import ru.practicum.shareit.item.event.ItemCreatedEvent;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.request.event.ItemRequestCreatedEvent;
+import ru.practicum.shareit.request.model.RequestStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RequestFeedTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RequestFeedProperties properties;
+    private RequestFeed requestFeed;
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new RequestFeedProperties();
+        properties.setEnabled(true);
+        properties.setCapacity(3);
+        requestFeed = new RequestFeed(jdbcTemplate, properties);
+    }
+
+    @Test
+    void pageWhenWindowHoldsAllRequestsThenServedWithRequestorExcluded() {
+        load(entry(1L, 10L, 0), entry(2L, 20L, 0), entry(3L, 10L, 1));
+
+        assertEquals(List.of(1L, 3L), ids(requestFeed.page(20L, null, null, 0, 5)));
+        assertEquals(List.of(3L), ids(requestFeed.page(20L, null, null, 1, 5)));
+        assertEquals(List.of(2L), ids(requestFeed.page(10L, null, null, 0, 5)));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), eq(4));
+    }
+
+    @Test
+    void pageWhenRunsPastWindowAndMoreRequestsExistThenEmpty() {
+        load(entry(1L, 10L, 0), entry(2L, 20L, 0), entry(3L, 10L, 0), entry(4L, 10L, 0));
+
+        assertEquals(List.of(1L, 3L), ids(requestFeed.page(20L, null, null, 0, 2)));
+        assertTrue(requestFeed.page(20L, null, null, 1, 2).isEmpty());
+        assertEquals(3, requestFeed.size());
+    }
+
+    @Test
+    void pageWhenCursorGivenThenStartsAfterIt() {
+        load(entry(1L, 10L, 0), entry(2L, 10L, 0));
+
+        assertEquals(List.of(2L), ids(requestFeed.page(20L, START.plusMinutes(1), 1L, 0, 5)));
+    }
+
+    @Test
+    void onRequestCreatedWhenWindowFullThenLastEvictedAndWindowIncomplete() {
+        load(entry(1L, 10L, 0), entry(2L, 10L, 0));
+        requestFeed.page(20L, null, null, 0, 1);
+
+        requestFeed.onRequestCreated(requestEvent(3L, START.plusMinutes(3)));
+        requestFeed.onRequestCreated(requestEvent(4L, START.plusMinutes(4)));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(requestFeed.page(20L, null, null, 0, 3)));
+        assertTrue(requestFeed.page(20L, null, null, 0, 4).isEmpty());
+    }
+
+    @Test
+    void onItemCreatedWhenAnswersRequestInWindowThenItemCountIncremented() {
+        load(entry(1L, 10L, 0));
+        requestFeed.page(20L, null, null, 0, 1);
+
+        requestFeed.onItemCreated(ItemCreatedEvent.builder().itemId(7L).requestId(1L).build());
+
+        assertEquals(1, requestFeed.page(20L, null, null, 0, 1).get().get(0).getItemCount());
+    }
+
+    @Test
+    void onRequestClosedWhenRequestInWindowThenDropped() {
+        load(entry(1L, 10L, 0), entry(2L, 10L, 1), entry(3L, 10L, 0));
+        requestFeed.page(20L, null, null, 0, 1);
+
+        requestFeed.onRequestClosed(new ItemRequestClosedEvent(List.of(2L, 9L), RequestStatus.FULFILLED));
+
+        assertEquals(List.of(1L, 3L), ids(requestFeed.page(20L, null, null, 0, 5)));
+    }
+
+    @Test
+    void onRequestClosedWhenIncompleteWindowDrainedThenReloadedByNextPage() {
+        load(entry(1L, 10L, 0), entry(2L, 10L, 0), entry(3L, 10L, 0), entry(4L, 10L, 0));
+        requestFeed.page(20L, null, null, 0, 1);
+
+        requestFeed.onRequestClosed(new ItemRequestClosedEvent(List.of(1L, 2L, 3L), RequestStatus.EXPIRED));
+        requestFeed.onRequestCreated(requestEvent(5L, START.plusMinutes(5)));
+
+        assertEquals(0, requestFeed.size());
+        requestFeed.page(20L, null, null, 0, 1);
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), eq(4));
+    }
+
+    @Test
+    void onRequestCreatedWhenNotLoadedThenIgnored() {
+        requestFeed.onRequestCreated(requestEvent(1L, START));
+
+        assertEquals(0, requestFeed.size());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load(RequestFeedEntry... rows) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(4))).thenReturn(new ArrayList<>(List.of(rows)));
+    }
+
+    private RequestFeedEntry entry(Long id, Long requestorId, int itemCount) {
+        return new RequestFeedEntry(id, requestorId, "request " + id, START.plusMinutes(id), itemCount);
+    }
+
+    private ItemRequestCreatedEvent requestEvent(Long id, LocalDateTime created) {
+        return ItemRequestCreatedEvent.builder()
+                .requestId(id)
+                .requestorId(10L)
+                .description("request " + id)
+                .created(created)
+                .build();
+    }
+
+    private List<Long> ids(Optional<List<RequestFeedEntry>> page) {
+        return page.orElseThrow().stream()
+                .map(RequestFeedEntry::getId)
+                .collect(Collectors.toList());
+    }
+}
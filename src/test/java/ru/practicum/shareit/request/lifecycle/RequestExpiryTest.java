@@ -0,0 +1,102 @@
+package ru.practicum.shareit.request.lifecycle;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.request.model.RequestStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RequestExpiryTest {
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Captor
+    private ArgumentCaptor<ItemRequestClosedEvent> eventCaptor;
+
+    private RequestExpiry requestExpiry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void beforeEach() {
+        RequestLifecycleProperties properties = new RequestLifecycleProperties();
+        properties.setBatchSize(2);
+        requestExpiry = new RequestExpiry(jdbcTemplate, transactionTemplate, eventPublisher, properties);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Integer>) invocation.getArgument(0))
+                        .doInTransaction(null));
+    }
+
+    @Test
+    void expireBatchWhenOpenRequestsOutlivedTtlThenExpiredAndClosedEventPublished() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM requests"), any(SqlParameterSource.class),
+                eq(Long.class))).thenReturn(List.of(1L, 2L));
+
+        assertEquals(2, requestExpiry.expireBatch(LocalDateTime.now()));
+
+        verify(jdbcTemplate).update(startsWith("UPDATE requests SET status = 'EXPIRED'"),
+                any(SqlParameterSource.class));
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(List.of(1L, 2L), eventCaptor.getValue().getRequestIds());
+        assertEquals(RequestStatus.EXPIRED, eventCaptor.getValue().getStatus());
+    }
+
+    @Test
+    void expireBatchWhenNothingOutlivedTtlThenNothingWritten() {
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of());
+
+        assertEquals(0, requestExpiry.expireBatch(LocalDateTime.now()));
+
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void archiveBatchWhenUnansweredExpiredRequestsThenCopiedMatchesDroppedAndDeleted() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT r.id FROM requests"), any(SqlParameterSource.class),
+                eq(Long.class))).thenReturn(List.of(3L));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(1);
+
+        assertEquals(1, requestExpiry.archiveBatch());
+
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(startsWith("INSERT INTO requests_archive"), any(SqlParameterSource.class));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM request_matches"), any(SqlParameterSource.class));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM requests"), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void runWhenBatchFullThenNextBatchTaken() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM requests"), any(SqlParameterSource.class),
+                eq(Long.class))).thenReturn(List.of(1L, 2L), List.of(3L));
+        when(jdbcTemplate.queryForList(startsWith("SELECT r.id FROM requests"), any(SqlParameterSource.class),
+                eq(Long.class))).thenReturn(List.of());
+
+        requestExpiry.run();
+
+        verify(eventPublisher, times(2)).publishEvent(any(ItemRequestClosedEvent.class));
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.request.lifecycle;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.item.event.ItemCreatedEvent;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.request.model.RequestStatus;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RequestLifecycleTest {
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Captor
+    private ArgumentCaptor<ItemRequestClosedEvent> eventCaptor;
+
+    private RequestLifecycle requestLifecycle;
+
+    @BeforeEach
+    void beforeEach() {
+        RequestLifecycleProperties properties = new RequestLifecycleProperties();
+        properties.setFulfilledAfterItems(2);
+        requestLifecycle = new RequestLifecycle(itemRequestRepository, eventPublisher, properties);
+    }
+
+    @Test
+    void onItemCreatedWhenRequestFulfilledThenClosedEventPublished() {
+        when(itemRequestRepository.markFulfilled(1L, 2)).thenReturn(1);
+
+        requestLifecycle.onItemCreated(ItemCreatedEvent.builder().itemId(5L).requestId(1L).build());
+
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(List.of(1L), eventCaptor.getValue().getRequestIds());
+        assertEquals(RequestStatus.FULFILLED, eventCaptor.getValue().getStatus());
+    }
+
+    @Test
+    void onItemCreatedWhenRequestStaysOpenThenNothingPublished() {
+        when(itemRequestRepository.markFulfilled(1L, 2)).thenReturn(0);
+
+        requestLifecycle.onItemCreated(ItemCreatedEvent.builder().itemId(5L).requestId(1L).build());
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void onItemCreatedWhenItemAnswersNoRequestThenIgnored() {
+        requestLifecycle.onItemCreated(ItemCreatedEvent.builder().itemId(5L).build());
+
+        verifyNoInteractions(itemRequestRepository, eventPublisher);
+    }
+}
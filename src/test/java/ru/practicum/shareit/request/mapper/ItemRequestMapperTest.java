@@ -101,4 +101,28 @@ public class ItemRequestMapperTest {
         assertEquals(true, actualItemDto.getAvailable());
         assertEquals(0L, actualItemDto.getRequestId());
     }
+
+    @Test
+    void toDtoWithItemsThenGivenItemsUsedInsteadOfCollection() {
+        ItemRequest itemRequest = ItemRequest.builder()
+                .id(1L)
+                .description("desc")
+                .created(LocalDateTime.parse("2023-07-20T22:03:23.909930411"))
+                .build();
+        Item item = Item.builder()
+                .id(2L)
+                .name("itemName")
+                .description("descItem")
+                .available(true)
+                .request(itemRequest)
+                .build();
+
+        ItemRequestDto actualDto = mapper.itemRequestToDto(itemRequest, List.of(item));
+
+        assertEquals(1L, actualDto.getId());
+        assertEquals("desc", actualDto.getDescription());
+        assertEquals(1, actualDto.getItems().size());
+        assertEquals(2L, actualDto.getItems().get(0).getId());
+        assertEquals(1L, actualDto.getItems().get(0).getRequestId());
+    }
 }
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.request.match;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.item.event.ItemCreatedEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.request.event.ItemRequestCreatedEvent;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestMatch;
+import ru.practicum.shareit.request.model.RequestStatus;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestMatchRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RequestMatcherTest {
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private RequestMatchRepository requestMatchRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Captor
+    private ArgumentCaptor<List<RequestMatch>> matchesCaptor;
+
+    private RequestMatcher requestMatcher;
+
+    @BeforeEach
+    void beforeEach() {
+        requestMatcher = new RequestMatcher(itemRequestRepository, itemRepository, requestMatchRepository,
+                jdbcTemplate, transactionManager, new RequestMatchProperties());
+    }
+
+    @Test
+    void onItemCreatedWhenRequestSharesTermsThenMatchRecorded() {
+        ItemRequest request = ItemRequest.builder().id(1L).build();
+        Item item = Item.builder().id(5L).build();
+        when(itemRequestRepository.getReferenceById(1L)).thenReturn(request);
+        when(itemRepository.getReferenceById(5L)).thenReturn(item);
+        requestMatcher.onRequestCreated(requestEvent(1L, 10L, "Need a cordless drill for a weekend"));
+        requestMatcher.onRequestCreated(requestEvent(2L, 11L, "Camping tent"));
+
+        requestMatcher.onItemCreated(itemEvent(5L, 20L, null));
+
+        verify(requestMatchRepository).saveAll(matchesCaptor.capture());
+        List<RequestMatch> matches = matchesCaptor.getValue();
+        assertEquals(1, matches.size());
+        assertEquals(request, matches.get(0).getRequest());
+        assertEquals(item, matches.get(0).getItem());
+        assertEquals(2, matches.get(0).getSharedTerms());
+    }
+
+    @Test
+    void onItemCreatedWhenNothingMatchesThenNothingWritten() {
+        requestMatcher.onRequestCreated(requestEvent(2L, 11L, "Camping tent"));
+
+        requestMatcher.onItemCreated(itemEvent(5L, 20L, null));
+
+        verifyNoInteractions(requestMatchRepository, transactionManager);
+    }
+
+    @Test
+    void onItemCreatedWhenItemAnswersRequestThenNoMatchWithThatRequest() {
+        requestMatcher.onRequestCreated(requestEvent(1L, 10L, "Need a cordless drill"));
+
+        requestMatcher.onItemCreated(itemEvent(5L, 20L, 1L));
+
+        assertEquals(1, requestMatcher.openRequests());
+        verifyNoInteractions(requestMatchRepository);
+    }
+
+    @Test
+    void onRequestClosedThenRequestRemovedFromIndex() {
+        requestMatcher.onRequestCreated(requestEvent(1L, 10L, "Need a cordless drill"));
+        requestMatcher.onRequestCreated(requestEvent(2L, 11L, "Camping tent"));
+
+        requestMatcher.onRequestClosed(new ItemRequestClosedEvent(List.of(1L), RequestStatus.FULFILLED));
+
+        assertEquals(1, requestMatcher.openRequests());
+        requestMatcher.onItemCreated(itemEvent(5L, 20L, null));
+        verifyNoInteractions(requestMatchRepository);
+    }
+
+    @Test
+    void onItemCreatedWhenSaveFailsThenItemEventNotFailed() {
+        when(requestMatchRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("fk"));
+        requestMatcher.onRequestCreated(requestEvent(1L, 10L, "Need a cordless drill"));
+
+        requestMatcher.onItemCreated(itemEvent(5L, 20L, null));
+
+        verify(transactionManager).rollback(any());
+    }
+
+    private ItemRequestCreatedEvent requestEvent(Long requestId, Long requestorId, String description) {
+        return ItemRequestCreatedEvent.builder()
+                .requestId(requestId)
+                .requestorId(requestorId)
+                .description(description)
+                .build();
+    }
+
+    private ItemCreatedEvent itemEvent(Long itemId, Long ownerId, Long requestId) {
+        return ItemCreatedEvent.builder()
+                .itemId(itemId)
+                .ownerId(ownerId)
+                .requestId(requestId)
+                .name("Cordless drill")
+                .description("Drill with two batteries")
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.request.match;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TermIndexTest {
+    private final TermIndex index = new TermIndex(3);
+
+    @Test
+    void termsWhenMixedCaseAndPunctuationThenLowercaseWordsOfMinLength() {
+        assertEquals(Set.of("cordless", "drill", "дрель"), index.terms("A cordless Drill, or a ДРЕЛЬ!"));
+    }
+
+    @Test
+    void matchWhenEnoughSharedTermsThenBestRequestsFirst() {
+        index.put(1L, 10L, "Need a cordless drill");
+        index.put(2L, 11L, "Looking for a drill with a cordless battery");
+        index.put(3L, 12L, "Tent for camping");
+
+        List<TermIndex.Candidate> candidates = index.match("Cordless drill with spare battery", 20L, 2, 10);
+
+        assertEquals(List.of(2L, 1L), ids(candidates));
+        assertEquals(4, candidates.get(0).getSharedTerms());
+    }
+
+    @Test
+    void matchWhenRequestHasFewerTermsThanMinimumThenAllOfThemAreEnough() {
+        index.put(1L, 10L, "Drill");
+
+        assertEquals(List.of(1L), ids(index.match("Old drill", 20L, 2, 10)));
+    }
+
+    @Test
+    void matchWhenRequestOfItemOwnerThenSkipped() {
+        index.put(1L, 10L, "Need a cordless drill");
+
+        assertTrue(index.match("Cordless drill", 10L, 2, 10).isEmpty());
+    }
+
+    @Test
+    void matchWhenMoreCandidatesThanLimitThenTruncated() {
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, id, "garden ladder");
+        }
+
+        assertEquals(List.of(1L, 2L), ids(index.match("Garden ladder", null, 2, 2)));
+    }
+
+    @Test
+    void removeThenRequestNoLongerMatched() {
+        index.put(1L, 10L, "Need a cordless drill");
+
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+        assertTrue(index.match("Cordless drill", 20L, 2, 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void putWhenRequestAlreadyIndexedThenTermsReplaced() {
+        index.put(1L, 10L, "Need a cordless drill");
+        index.put(1L, 10L, "Need a camping tent");
+
+        assertTrue(index.match("Cordless drill", 20L, 2, 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.match("Camping tent", 20L, 2, 10)));
+    }
+
+    private List<Long> ids(List<TermIndex.Candidate> candidates) {
+        return candidates.stream()
+                .map(TermIndex.Candidate::getRequestId)
+                .collect(Collectors.toList());
+    }
+}
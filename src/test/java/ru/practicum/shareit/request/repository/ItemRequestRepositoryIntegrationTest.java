@@ -3,9 +3,13 @@ package ru.practicum.shareit.request.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestStatus;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.util.Pagination;
@@ -13,6 +17,7 @@ import ru.practicum.shareit.util.Pagination;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -25,6 +30,10 @@ public class ItemRequestRepositoryIntegrationTest {
     ItemRequestRepository itemRequestRepository;
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    TestEntityManager entityManager;
 
     @Test
     void testFindAllByRequestorId() {
@@ -85,4 +94,92 @@ public class ItemRequestRepositoryIntegrationTest {
                 .build());
     }
 
+    @Test
+    void testFindAllExceptRequestorIdAfter() {
+        itemRequestRepository.deleteAll();
+        User viewer = saveRandomUser();
+        User requestor = saveRandomUser();
+        ItemRequest request1 = saveRequest(requestor, "request1");
+        saveRequest(viewer, "own request");
+        ItemRequest request2 = saveRequest(requestor, "request2");
+        ItemRequest request3 = saveRequest(requestor, "request3");
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ItemRequest> firstPage = itemRequestRepository.findAllExceptRequestorIdOrderByCreatedAsc(viewer.getId(),
+                new Pagination(0, 2));
+        ItemRequest last = firstPage.get(firstPage.size() - 1);
+        List<ItemRequest> nextPage = itemRequestRepository.findAllExceptRequestorIdAfter(viewer.getId(),
+                last.getCreated(), last.getId(), new Pagination(0, 2));
+
+        assertThat(ids(firstPage), equalTo(List.of(request1.getId(), request2.getId())));
+        assertThat(ids(nextPage), equalTo(List.of(request3.getId())));
+    }
+
+    @Test
+    void testFindOpenExceptRequestorIdSkipsClosedRequests() {
+        itemRequestRepository.deleteAll();
+        User viewer = saveRandomUser();
+        User requestor = saveRandomUser();
+        ItemRequest open = saveRequest(requestor, "open");
+        ItemRequest fulfilled = saveRequest(requestor, "fulfilled");
+        fulfilled.setStatus(RequestStatus.FULFILLED);
+        itemRequestRepository.save(fulfilled);
+
+        List<ItemRequest> requests = itemRequestRepository.findOpenExceptRequestorIdOrderByCreatedAsc(viewer.getId(),
+                new Pagination(0, 10));
+
+        assertThat(requests, equalTo(List.of(open)));
+    }
+
+    @Test
+    void testFindExceptRequestorIdSkipsDeletedRequestors() {
+        itemRequestRepository.deleteAll();
+        User viewer = saveRandomUser();
+        User requestor = saveRandomUser();
+        User deletedRequestor = saveRandomUser();
+        deletedRequestor.setDeletedAt(LocalDateTime.now());
+        userRepository.save(deletedRequestor);
+        ItemRequest request = saveRequest(requestor, "request");
+        ItemRequest hidden = saveRequest(deletedRequestor, "hidden");
+
+        assertThat(itemRequestRepository.findAllExceptRequestorIdOrderByCreatedAsc(viewer.getId(),
+                new Pagination(0, 10)), equalTo(List.of(request)));
+        assertThat(itemRequestRepository.findOpenExceptRequestorIdOrderByCreatedAsc(viewer.getId(),
+                new Pagination(0, 10)), equalTo(List.of(request)));
+        assertThat(itemRequestRepository.findByIdAndRequestorDeletedAtIsNull(hidden.getId()).isPresent(),
+                equalTo(false));
+    }
+
+    @Test
+    void testMarkFulfilledOnlyOnceEnoughItemsAnswer() {
+        User requestor = saveRandomUser();
+        User owner = saveRandomUser();
+        ItemRequest request = saveRequest(requestor, "request");
+
+        assertThat(itemRequestRepository.markFulfilled(request.getId(), 1), equalTo(0));
+
+        itemRepository.save(Item.builder()
+                .name("item")
+                .description("answer")
+                .available(true)
+                .owner(owner)
+                .request(request)
+                .build());
+
+        assertThat(itemRequestRepository.markFulfilled(request.getId(), 2), equalTo(0));
+        assertThat(itemRequestRepository.markFulfilled(request.getId(), 1), equalTo(1));
+        assertThat(itemRequestRepository.markFulfilled(request.getId(), 1), equalTo(0));
+    }
+
+    private ItemRequest saveRequest(User requestor, String description) {
+        return itemRequestRepository.save(ItemRequest.builder()
+                .description(description)
+                .requestor(requestor)
+                .build());
+    }
+
+    private List<Long> ids(List<ItemRequest> requests) {
+        return requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
+    }
 }
@@ -7,14 +7,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ArchivedItemRequest;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestStatus;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.transaction.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -97,6 +101,27 @@ public class ItemRequestServiceIntegrationTest {
         assertNotNull(targetItemRequest.getCreated());
     }
 
+    @Test
+    void getRequestsOfUserWhenRequestArchivedThenStillReturned() {
+        Long liveId = itemRequestService.create(userId, itemRequestDto).getId();
+        entityManager.persist(ArchivedItemRequest.builder()
+                .id(liveId + 1000)
+                .description("expired")
+                .requestor(entityManager.getReference(User.class, userId))
+                .created(LocalDateTime.now().minusDays(40))
+                .status(RequestStatus.EXPIRED)
+                .build());
+
+        List<ItemRequestDto> targetRequests = itemRequestService.getAllRequestByUser(userId);
+        ItemRequestDto archived = itemRequestService.getRequestById(userId, liveId + 1000);
+
+        assertThat(targetRequests, hasSize(2));
+        assertEquals("expired", targetRequests.get(0).getDescription());
+        assertEquals(liveId, targetRequests.get(1).getId());
+        assertEquals(RequestStatus.EXPIRED, archived.getStatus());
+        assertThat(archived.getItems(), empty());
+    }
+
     @Test
     void getAllRequests() {
         Long userId2 = userService.create(userDtoNew).getId();
@@ -104,7 +129,7 @@ public class ItemRequestServiceIntegrationTest {
             itemRequestService.create(userId2, requestDto);
         }
 
-        List<ItemRequestDto> targetRequests = itemRequestService.getAllRequests(userId, 0, 5);
+        List<ItemRequestDto> targetRequests = itemRequestService.getAllRequests(userId, false, 0, 5);
 
         assertThat(targetRequests, hasSize(sourceRequests.size()));
         for (ItemRequestDto sourceRequest : sourceRequests) {
@@ -125,12 +150,12 @@ public class ItemRequestServiceIntegrationTest {
         int from = 0;
         int size = 2;
 
-        List<ItemRequestDto> targetRequests = itemRequestService.getAllRequests(userId, from, size);
+        List<ItemRequestDto> targetRequests = itemRequestService.getAllRequests(userId, false, from, size);
 
         assertThat(targetRequests, hasSize(size));
 
         from = 2;
-        targetRequests = itemRequestService.getAllRequests(userId2, from, size);
+        targetRequests = itemRequestService.getAllRequests(userId2, false, from, size);
 
         assertThat(targetRequests, hasSize(0));
     }
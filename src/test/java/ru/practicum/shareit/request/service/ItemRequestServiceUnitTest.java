@@ -5,11 +5,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.event.ItemRequestCreatedEvent;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.feed.RequestFeedEntry;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ArchivedItemRequest;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestMatch;
+import ru.practicum.shareit.request.repository.ArchivedItemRequestRepository;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestMatchRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -34,8 +46,18 @@ public class ItemRequestServiceUnitTest {
     @Mock
     private ItemRequestRepository itemRequestRepository;
     @Mock
+    private ArchivedItemRequestRepository archivedItemRequestRepository;
+    @Mock
     private ItemRequestMapper itemRequestMapper;
     @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private RequestMatchRepository requestMatchRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private RequestFeed requestFeed;
+    @Mock
     private UserMapper userMapper;
 
     @InjectMocks
@@ -91,6 +113,7 @@ public class ItemRequestServiceUnitTest {
         ItemRequest savedRequest = argumentCaptorItemRequest.getValue();
 
         assertEquals(user, savedRequest.getRequestor());
+        Mockito.verify(eventPublisher).publishEvent(any(ItemRequestCreatedEvent.class));
     }
 
     @Test
@@ -105,7 +128,7 @@ public class ItemRequestServiceUnitTest {
     void findAllRequestByUserWhenInvokeThenReturnListItemRequestDto() {
         List<ItemRequest> requestsList = List.of(itemRequest);
         when(itemRequestRepository.findByRequestorIdOrderByCreatedAsc(userId)).thenReturn(requestsList);
-        when(itemRequestMapper.itemRequestToDto(itemRequest)).thenReturn(itemRequestDto);
+        when(itemRequestMapper.itemRequestToDto(itemRequest, List.of())).thenReturn(itemRequestDto);
 
         List<ItemRequestDto> actualRequestsList = itemRequestService.getAllRequestByUser(userId);
 
@@ -115,7 +138,7 @@ public class ItemRequestServiceUnitTest {
 
     @Test
     void getRequestByIdWhenItemRequestFoundThenReturnItemRequestDto() {
-        when(itemRequestRepository.findById(requestId)).thenReturn(Optional.of(itemRequest));
+        when(itemRequestRepository.findByIdAndRequestorDeletedAtIsNull(requestId)).thenReturn(Optional.of(itemRequest));
         when(itemRequestMapper.itemRequestToDto(itemRequest)).thenReturn(itemRequestDto);
 
         ItemRequestDto actualRequestDto = itemRequestService.getRequestById(userId, requestId);
@@ -125,11 +148,47 @@ public class ItemRequestServiceUnitTest {
 
     @Test
     void getRequestByIdWhenItemRequestNotFoundThenEntityNotFoundExceptionThrow() {
-        when(itemRequestRepository.findById(requestId)).thenThrow(EntityNotFoundException.class);
+        when(itemRequestRepository.findByIdAndRequestorDeletedAtIsNull(requestId)).thenThrow(EntityNotFoundException.class);
 
         assertThrows(EntityNotFoundException.class, () -> itemRequestService.getRequestById(userId, requestId));
     }
 
+    @Test
+    void getRequestByIdWhenRequestOnlyInArchiveThenArchivedRequestReturned() {
+        ArchivedItemRequest archived = ArchivedItemRequest.builder().id(requestId).build();
+        when(itemRequestRepository.findByIdAndRequestorDeletedAtIsNull(requestId)).thenReturn(Optional.empty());
+        when(archivedItemRequestRepository.findByIdAndRequestorDeletedAtIsNull(requestId)).thenReturn(Optional.of(archived));
+        when(itemRequestMapper.archivedItemRequestToDto(archived)).thenReturn(itemRequestDto);
+
+        assertEquals(itemRequestDto, itemRequestService.getRequestById(userId, requestId));
+    }
+
+    @Test
+    void getRequestByIdWhenRequestNeitherLiveNorArchivedThenEntityNotFoundExceptionThrow() {
+        when(itemRequestRepository.findByIdAndRequestorDeletedAtIsNull(requestId)).thenReturn(Optional.empty());
+        when(archivedItemRequestRepository.findByIdAndRequestorDeletedAtIsNull(requestId)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> itemRequestService.getRequestById(userId, requestId));
+    }
+
+    @Test
+    void findAllRequestByUserWhenSomeRequestsArchivedThenMergedByCreated() {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 0, 0);
+        ItemRequest live = ItemRequest.builder().id(2L).build();
+        ArchivedItemRequest archived = ArchivedItemRequest.builder().id(1L).build();
+        when(itemRequestRepository.findByRequestorIdOrderByCreatedAsc(userId)).thenReturn(List.of(live));
+        when(archivedItemRequestRepository.findByRequestorIdOrderByCreatedAsc(userId)).thenReturn(List.of(archived));
+        when(itemRepository.findAllByRequestIdIn(List.of(2L))).thenReturn(List.of());
+        when(itemRequestMapper.itemRequestToDto(live, List.of()))
+                .thenReturn(ItemRequestDto.builder().id(2L).created(created.plusDays(1)).build());
+        when(itemRequestMapper.archivedItemRequestToDto(archived))
+                .thenReturn(ItemRequestDto.builder().id(1L).created(created).build());
+
+        List<ItemRequestDto> requests = itemRequestService.getAllRequestByUser(userId);
+
+        assertEquals(List.of(1L, 2L), List.of(requests.get(0).getId(), requests.get(1).getId()));
+    }
+
     @Test
     void getAllRequestsWhenInvokeThenReturnCollectionItemRequestDto() {
         int from = 1;
@@ -137,11 +196,132 @@ public class ItemRequestServiceUnitTest {
         Pagination page = new Pagination(from, size);
         List<ItemRequest> requests = List.of(itemRequest);
         when(itemRequestRepository.findAllExceptRequestorIdOrderByCreatedAsc(userId, page)).thenReturn(requests);
-        when(itemRequestMapper.itemRequestToDto(itemRequest)).thenReturn(itemRequestDto);
+        when(itemRequestMapper.itemRequestToDto(itemRequest, List.of())).thenReturn(itemRequestDto);
 
-        List<ItemRequestDto> actualRequests = itemRequestService.getAllRequests(userId, from, size);
+        List<ItemRequestDto> actualRequests = itemRequestService.getAllRequests(userId, true, from, size);
 
         assertFalse(actualRequests.isEmpty());
         assertEquals(itemRequestDto, actualRequests.get(0));
     }
+
+    @Test
+    void getAllRequestsWhenItemsAnswerRequestsThenItemsLoadedOnceAndGroupedByRequest() {
+        ItemRequest first = ItemRequest.builder().id(1L).build();
+        ItemRequest second = ItemRequest.builder().id(2L).build();
+        Item firstAnswer = Item.builder().id(10L).request(first).build();
+        Item secondAnswer = Item.builder().id(11L).request(first).build();
+        ItemRequestDto firstDto = ItemRequestDto.builder().id(1L).build();
+        ItemRequestDto secondDto = ItemRequestDto.builder().id(2L).build();
+        when(itemRequestRepository.findAllExceptRequestorIdOrderByCreatedAsc(userId, new Pagination(0, 10)))
+                .thenReturn(List.of(first, second));
+        when(itemRepository.findAllByRequestIdIn(List.of(1L, 2L))).thenReturn(List.of(firstAnswer, secondAnswer));
+        when(itemRequestMapper.itemRequestToDto(first, List.of(firstAnswer, secondAnswer))).thenReturn(firstDto);
+        when(itemRequestMapper.itemRequestToDto(second, List.of())).thenReturn(secondDto);
+
+        List<ItemRequestDto> actualRequests = itemRequestService.getAllRequests(userId, true, 0, 10);
+
+        assertEquals(List.of(firstDto, secondDto), actualRequests);
+        Mockito.verify(itemRepository).findAllByRequestIdIn(any());
+    }
+
+    @Test
+    void getAllRequestsWhenClosedNotIncludedThenOnlyOpenRequestsQueried() {
+        when(itemRequestRepository.findOpenExceptRequestorIdOrderByCreatedAsc(userId, new Pagination(0, 10)))
+                .thenReturn(List.of(itemRequest));
+        when(itemRequestMapper.itemRequestToDto(itemRequest, List.of())).thenReturn(itemRequestDto);
+
+        List<ItemRequestDto> actualRequests = itemRequestService.getAllRequests(userId, false, 0, 10);
+
+        assertEquals(List.of(itemRequestDto), actualRequests);
+        Mockito.verify(itemRequestRepository, never()).findAllExceptRequestorIdOrderByCreatedAsc(any(), any());
+    }
+
+    @Test
+    void getAllRequestsWhenClosedIncludedThenFeedSkipped() {
+        when(itemRequestRepository.findAllExceptRequestorIdOrderByCreatedAsc(userId, new Pagination(0, 10)))
+                .thenReturn(List.of());
+
+        assertTrue(itemRequestService.getAllRequests(userId, true, 0, 10).isEmpty());
+        Mockito.verify(requestFeed, never()).page(any(), any(), any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    void getAllRequestsAfterWhenClosedNotIncludedThenOpenKeysetQueryUsed() {
+        LocalDateTime afterCreated = LocalDateTime.now();
+        when(itemRequestRepository.findOpenExceptRequestorIdAfter(userId, afterCreated, 5L, new Pagination(0, 10)))
+                .thenReturn(List.of());
+
+        assertTrue(itemRequestService.getAllRequestsAfter(userId, false, afterCreated, 5L, 10).isEmpty());
+        Mockito.verify(itemRequestRepository, never()).findAllExceptRequestorIdAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllRequestsAfterWhenCursorGivenThenKeysetQueryUsed() {
+        LocalDateTime afterCreated = LocalDateTime.now();
+        when(itemRequestRepository.findAllExceptRequestorIdAfter(userId, afterCreated, 5L, new Pagination(0, 10)))
+                .thenReturn(List.of(itemRequest));
+        when(itemRequestMapper.itemRequestToDto(itemRequest, List.of())).thenReturn(itemRequestDto);
+
+        List<ItemRequestDto> actualRequests = itemRequestService.getAllRequestsAfter(userId, true, afterCreated, 5L, 10);
+
+        assertEquals(List.of(itemRequestDto), actualRequests);
+        Mockito.verify(itemRequestRepository, never()).findAllExceptRequestorIdOrderByCreatedAsc(any(), any());
+    }
+
+    @Test
+    void getAllRequestsAfterWhenAfterIdMissingThenValidationExceptionThrow() {
+        assertThrows(ValidationException.class,
+                () -> itemRequestService.getAllRequestsAfter(userId, false, LocalDateTime.now(), null, 10));
+        Mockito.verify(itemRequestRepository, never()).findAllExceptRequestorIdAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    void getMatchesWhenInvokeThenMatchesOfRequestorMapped() {
+        RequestMatch match = RequestMatch.builder().id(3L).build();
+        RequestMatchDto matchDto = RequestMatchDto.builder().id(3L).build();
+        when(requestMatchRepository.findAllByRequestorId(userId, new Pagination(0, 20))).thenReturn(List.of(match));
+        when(itemRequestMapper.matchToDto(match)).thenReturn(matchDto);
+
+        List<RequestMatchDto> actualMatches = itemRequestService.getMatches(userId, 0, 20);
+
+        assertEquals(List.of(matchDto), actualMatches);
+    }
+
+    @Test
+    void getAllRequestsWhenFeedServesPageThenItemsLoadedOnlyForAnsweredRequests() {
+        RequestFeedEntry answered = new RequestFeedEntry(1L, 5L, "answered", LocalDateTime.now(), 1);
+        RequestFeedEntry open = new RequestFeedEntry(2L, 5L, "open", LocalDateTime.now(), 0);
+        Item answer = Item.builder().id(10L).request(ItemRequest.builder().id(1L).build()).build();
+        ItemRequestDto answeredDto = ItemRequestDto.builder().id(1L).build();
+        ItemRequestDto openDto = ItemRequestDto.builder().id(2L).build();
+        when(requestFeed.isEnabled()).thenReturn(true);
+        when(requestFeed.page(userId, null, null, 0, 10)).thenReturn(Optional.of(List.of(answered, open)));
+        when(itemRepository.findAllByRequestIdIn(List.of(1L))).thenReturn(List.of(answer));
+        when(itemRequestMapper.feedEntryToDto(answered, List.of(answer))).thenReturn(answeredDto);
+        when(itemRequestMapper.feedEntryToDto(open, List.of())).thenReturn(openDto);
+
+        List<ItemRequestDto> actualRequests = itemRequestService.getAllRequests(userId, false, 0, 10);
+
+        assertEquals(List.of(answeredDto, openDto), actualRequests);
+        Mockito.verify(itemRequestRepository, never()).findOpenExceptRequestorIdOrderByCreatedAsc(any(), any());
+    }
+
+    @Test
+    void getAllRequestsWhenFeedCannotServePageThenDatabaseUsed() {
+        when(requestFeed.isEnabled()).thenReturn(true);
+        when(requestFeed.page(userId, null, null, 40, 20)).thenReturn(Optional.empty());
+        when(itemRequestRepository.findOpenExceptRequestorIdOrderByCreatedAsc(userId, new Pagination(40, 20)))
+                .thenReturn(List.of());
+
+        assertTrue(itemRequestService.getAllRequests(userId, false, 40, 20).isEmpty());
+    }
+
+    @Test
+    void getAllRequestsWhenFromNotMultipleOfSizeThenFeedSkipsWholePages() {
+        when(requestFeed.isEnabled()).thenReturn(true);
+        when(requestFeed.page(userId, null, null, 20, 20)).thenReturn(Optional.of(List.of()));
+
+        assertTrue(itemRequestService.getAllRequests(userId, false, 35, 20).isEmpty());
+        Mockito.verify(itemRequestRepository, never()).findOpenExceptRequestorIdOrderByCreatedAsc(any(), any());
+    }
 }
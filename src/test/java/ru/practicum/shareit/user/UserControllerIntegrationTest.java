@@ -10,9 +10,17 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportErrorDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
+import ru.practicum.shareit.user.imports.UserImportFormat;
+import ru.practicum.shareit.user.model.UserDeletionStep;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -97,6 +105,70 @@ public class UserControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @SneakyThrows
+    @Test
+    void getDeletionsWhenInvokeThenReturnDeletionProgress() {
+        UserDeletionDto deletion = UserDeletionDto.builder()
+                .userId(userId)
+                .requested(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .step(UserDeletionStep.BOOKINGS)
+                .rowsDeleted(42L)
+                .build();
+        when(userService.getDeletions(0, 10)).thenReturn(List.of(deletion));
+
+        String result = mockMvc.perform(get("/users/deletions"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(List.of(deletion)), result);
+        verify(userService, never()).findById(any());
+    }
+
+    @SneakyThrows
+    @Test
+    void getDeletionWhenNotFoundThenNotFoundStatus() {
+        when(userService.getDeletion(userId)).thenThrow(EntityNotFoundException.class);
+
+        mockMvc.perform(get("/users/deletions/{id}", userId))
+                .andExpect(status().isNotFound());
+    }
+
+    @SneakyThrows
+    @Test
+    void importUsersWhenCsvThenBodyPassedAsStream() {
+        UserImportResultDto report = UserImportResultDto.builder()
+                .read(2)
+                .imported(1)
+                .failed(1)
+                .errors(List.of(new UserImportErrorDto(3, "bad", "Incorrect email format.")))
+                .build();
+        when(userService.importUsers(any(), eq(UserImportFormat.CSV))).thenReturn(report);
+
+        String result = mockMvc.perform(post("/users/import")
+                        .param("format", "csv")
+                        .contentType("text/csv")
+                        .content("name,email\nName,user@email.ru\nBad,bad\n"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(report), result);
+    }
+
+    @SneakyThrows
+    @Test
+    void importUsersWhenUnknownFormatThenBadRequest() {
+        mockMvc.perform(post("/users/import")
+                        .param("format", "xml")
+                        .content("<users/>"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).importUsers(any(), any());
+    }
+
     @SneakyThrows
     @Test
     void findAllWithValidParams() {
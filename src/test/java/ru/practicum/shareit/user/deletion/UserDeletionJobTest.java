@@ -0,0 +1,128 @@
+package ru.practicum.shareit.user.deletion;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.user.model.UserDeletionStep;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserDeletionJobTest {
+    private static final long USER_ID = 7L;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private UserDeletionJob userDeletionJob;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void beforeEach() {
+        UserDeletionProperties properties = new UserDeletionProperties();
+        properties.setBatchSize(2);
+        userDeletionJob = new UserDeletionJob(jdbcTemplate, transactionTemplate, properties, eventPublisher);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Integer>) invocation.getArgument(0))
+                        .doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void purgeWhenBatchFullThenNextBatchTakenAndUserRemovedLast() {
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM bookings WHERE"), any(SqlParameterSource.class),
+                eq(Long.class))).thenReturn(List.of(1L, 2L), List.of(3L));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(1);
+
+        userDeletionJob.purge(USER_ID, UserDeletionStep.COMMENTS);
+
+        verify(jdbcTemplate, times(2)).update(startsWith("DELETE FROM bookings WHERE id IN"),
+                any(SqlParameterSource.class));
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM bookings WHERE id IN"),
+                any(SqlParameterSource.class));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM users"), any(SqlParameterSource.class));
+        order.verify(jdbcTemplate).update(startsWith("UPDATE user_deletions SET step = 'DONE'"),
+                any(SqlParameterSource.class));
+    }
+
+    @Test
+    void purgeWhenResumedThenEarlierStepsSkipped() {
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of());
+
+        userDeletionJob.purge(USER_ID, UserDeletionStep.REQUESTS);
+
+        verify(jdbcTemplate, never()).queryForList(startsWith("SELECT id FROM comments"),
+                any(SqlParameterSource.class), eq(Long.class));
+        verify(jdbcTemplate).queryForList(startsWith("SELECT id FROM requests WHERE"),
+                any(SqlParameterSource.class), eq(Long.class));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM users"), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void purgeWhenRequestsRemovedThenClosedEventPublishedPerBatch() {
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM requests WHERE"), any(SqlParameterSource.class),
+                eq(Long.class))).thenReturn(List.of(4L, 5L), List.of(6L));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(1);
+
+        userDeletionJob.purge(USER_ID, UserDeletionStep.COMMENTS);
+
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ItemRequestClosedEvent &&
+                ((ItemRequestClosedEvent) event).getRequestIds().equals(List.of(4L, 5L))));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ItemRequestClosedEvent &&
+                ((ItemRequestClosedEvent) event).getRequestIds().equals(List.of(6L))));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void runWhenStepFailsThenDeletionStartsOverOnNextRun() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT user_id, step FROM user_deletions"),
+                any(SqlParameterSource.class)))
+                .thenReturn(List.of(Map.of("user_id", USER_ID, "step", UserDeletionStep.ITEMS.name())));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM items"), any(SqlParameterSource.class),
+                eq(Long.class))).thenReturn(List.of(1L));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).startsWith("DELETE FROM items")) {
+                throw new DataIntegrityViolationException("booked meanwhile");
+            }
+            return 1;
+        });
+
+        userDeletionJob.run();
+
+        verify(jdbcTemplate).update(startsWith("UPDATE user_deletions SET step = :step"),
+                argThat((SqlParameterSource params) ->
+                        UserDeletionStep.COMMENTS.name().equals(params.getValue("step"))));
+        verify(jdbcTemplate, never()).update(startsWith("DELETE FROM users"), any(SqlParameterSource.class));
+    }
+}
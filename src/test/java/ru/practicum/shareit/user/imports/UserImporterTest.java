@@ -0,0 +1,196 @@
+package ru.practicum.shareit.user.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.user.dto.UserImportErrorDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
+import ru.practicum.shareit.user.service.UserEmailFilter;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserImporterTest {
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private UserEmailFilter userEmailFilter;
+    @Captor
+    private ArgumentCaptor<SqlParameterSource[]> batchCaptor;
+
+    private UserImportProperties properties;
+    private UserImporter userImporter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void beforeEach() {
+        properties = new UserImportProperties();
+        properties.setBatchSize(2);
+        userImporter = new UserImporter(jdbcTemplate, transactionTemplate, userEmailFilter,
+                Validation.buildDefaultValidatorFactory().getValidator(), properties, new ObjectMapper());
+        lenient().doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void importUsersWhenNdjsonThenInsertedInBatches() throws IOException {
+        UserImportResultDto result = userImporter.importUsers(stream(
+                "{\"name\":\"one\",\"email\":\"one@email.ru\"}\n" +
+                        "\n" +
+                        "{\"email\":\"two@email.ru\",\"name\":\"two\",\"extra\":{\"nested\":[1,2]}}\n" +
+                        "{\"name\":\"three\",\"email\":\"three@email.ru\"}\n"), UserImportFormat.NDJSON);
+
+        assertEquals(3, result.getRead());
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getFailed());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batchCaptor.capture());
+        assertEquals(2, batchCaptor.getAllValues().get(0).length);
+        assertEquals("two@email.ru", batchCaptor.getAllValues().get(0)[1].getValue("email"));
+        assertEquals(1, batchCaptor.getAllValues().get(1).length);
+        verify(userEmailFilter).add("three@email.ru");
+        verify(jdbcTemplate, never()).queryForList(anyString(), any(SqlParameterSource.class), eq(String.class));
+    }
+
+    @Test
+    void importUsersWhenRowsInvalidThenReportedByLine() throws IOException {
+        UserImportResultDto result = userImporter.importUsers(stream(
+                "{\"name\":\"one\",\"email\":\"not an email\"}\n" +
+                        "{\"name\":\"two\"\n" +
+                        "[1]\n" +
+                        "{\"email\":\"four@email.ru\"}\n"), UserImportFormat.NDJSON);
+
+        assertEquals(4, result.getFailed());
+        assertEquals(0, result.getImported());
+        assertEquals(List.of(1L, 2L, 3L, 4L), lines(result));
+        assertEquals("Incorrect email format.", result.getErrors().get(0).getMessage());
+        assertEquals("Malformed line.", result.getErrors().get(1).getMessage());
+        assertEquals("Field name has to be filled.", result.getErrors().get(3).getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void importUsersWhenEmailRepeatedOrTakenThenRowRejected() throws IOException {
+        properties.setBatchSize(3);
+        when(userEmailFilter.mightExist(anyString())).thenAnswer(invocation ->
+                invocation.<String>getArgument(0).startsWith("taken"));
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(String.class)))
+                .thenReturn(List.of("taken@email.ru"));
+
+        UserImportResultDto result = userImporter.importUsers(stream(
+                "name,email\n" +
+                        "\"Smith, John\",john@email.ru\n" +
+                        "John,JOHN@email.ru\n" +
+                        "Taken,Taken@email.ru\n"), UserImportFormat.CSV);
+
+        assertEquals(1, result.getImported());
+        assertEquals(List.of(3L, 4L), lines(result));
+        assertEquals("Email repeats line 2.", result.getErrors().get(0).getMessage());
+        assertEquals(UserImporter.EMAIL_TAKEN, result.getErrors().get(1).getMessage());
+        verify(jdbcTemplate).batchUpdate(anyString(), batchCaptor.capture());
+        assertEquals("Smith, John", batchCaptor.getValue()[0].getValue("name"));
+    }
+
+    @Test
+    void importUsersWhenBatchConflictsThenRowsRetriedAlone() throws IOException {
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class)))
+                .thenThrow(new DuplicateKeyException("taken meanwhile"));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class)))
+                .thenReturn(1)
+                .thenThrow(new DuplicateKeyException("taken meanwhile"));
+
+        UserImportResultDto result = userImporter.importUsers(stream(
+                "name,email\n" +
+                        "one,one@email.ru\n" +
+                        "two,two@email.ru\n"), UserImportFormat.CSV);
+
+        assertEquals(1, result.getImported());
+        assertEquals(List.of(3L), lines(result));
+        verify(userEmailFilter).add("one@email.ru");
+        verify(userEmailFilter, never()).add("two@email.ru");
+    }
+
+    @Test
+    void importUsersWhenRetriedRowRefusedForOtherReasonThenReportedAsNotStored() throws IOException {
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class)))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class)))
+                .thenThrow(new DataIntegrityViolationException("value too long"))
+                .thenReturn(1);
+
+        UserImportResultDto result = userImporter.importUsers(stream(
+                "name,email\n" +
+                        "one,one@email.ru\n" +
+                        "two,two@email.ru\n"), UserImportFormat.CSV);
+
+        assertEquals(1, result.getImported());
+        assertEquals(UserImporter.ROW_REFUSED, result.getErrors().get(0).getMessage());
+        verify(userEmailFilter).add("two@email.ru");
+    }
+
+    @Test
+    void importUsersWhenErrorsExceedLimitThenOnlyCounted() throws IOException {
+        properties.setMaxErrors(1);
+
+        UserImportResultDto result = userImporter.importUsers(stream("x\ny\nz\n"), UserImportFormat.NDJSON);
+
+        assertEquals(3, result.getFailed());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.isErrorsTruncated());
+    }
+
+    @Test
+    void importUsersWhenCsvHeaderMissesEmailThenValidationExceptionThrow() {
+        assertThrows(ValidationException.class, () -> userImporter.importUsers(stream("name,mail\n"),
+                UserImportFormat.CSV));
+    }
+
+    @Test
+    void importUsersWhenEmptyThenNothingImported() throws IOException {
+        UserImportResultDto result = userImporter.importUsers(stream(""), UserImportFormat.NDJSON);
+
+        assertEquals(0, result.getRead());
+        assertFalse(result.isErrorsTruncated());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Long> lines(UserImportResultDto result) {
+        return result.getErrors().stream()
+                .map(UserImportErrorDto::getLine)
+                .collect(Collectors.toList());
+    }
+}
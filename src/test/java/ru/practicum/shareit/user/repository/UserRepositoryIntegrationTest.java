@@ -10,6 +10,7 @@ import ru.practicum.shareit.user.model.User;
 
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -32,6 +33,30 @@ public class UserRepositoryIntegrationTest {
         assertTrue(actualUser.isPresent());
     }
 
+    @Test
+    void existsByEmailIgnoreCase_whenEmailInOtherCase_thenTrue() {
+        assertTrue(userRepository.existsByEmailIgnoreCase("Email_1@Email.ru"));
+        assertFalse(userRepository.existsByEmailIgnoreCase("email_2@email.ru"));
+    }
+
+    @Test
+    void existsByEmailIgnoreCaseAndIdNot_whenOwnEmail_thenFalse() {
+        Long id = userRepository.findByEmail("email_1@email.ru").orElseThrow().getId();
+
+        assertFalse(userRepository.existsByEmailIgnoreCaseAndIdNot("EMAIL_1@email.ru", id));
+        assertTrue(userRepository.existsByEmailIgnoreCaseAndIdNot("EMAIL_1@email.ru", id + 1));
+    }
+
+    @Test
+    void save_whenEmailDiffersOnlyInCase_thenDataIntegrityViolationExceptionThrown() {
+        Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(User.builder()
+                        .name("user_2")
+                        .email("EMAIL_1@email.ru")
+                        .build())
+        );
+    }
+
     @Test
     void save_whenDuplicateEmail_thenDataIntegrityViolationExceptionThrown() {
 
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserCacheTest {
+
+    @Test
+    void getWhenUserCachedThenLoaderInvokedOnceAndHitCounted() {
+        UserCache cache = new UserCache(new UserCacheProperties());
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> load(id, loads));
+        cache.get(1L, id -> load(id, loads));
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.stats().getHits());
+        assertEquals(0.5, cache.stats().getHitRate());
+    }
+
+    @Test
+    void evictWhenOutsideTransactionThenNextGetReloads() {
+        UserCache cache = new UserCache(new UserCacheProperties());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, id -> load(id, loads));
+
+        cache.evict(1L);
+        cache.get(1L, id -> load(id, loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getWhenTtlZeroThenEveryCallLoads() {
+        UserCacheProperties properties = new UserCacheProperties();
+        properties.setTtl(Duration.ZERO);
+        UserCache cache = new UserCache(properties);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> load(id, loads));
+        cache.get(1L, id -> load(id, loads));
+
+        assertEquals(2, loads.get());
+        assertFalse(cache.stats().isEnabled());
+    }
+
+    private static UserDto load(Long id, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return UserDto.builder().id(id).name("user").email("user@email.ru").build();
+    }
+}
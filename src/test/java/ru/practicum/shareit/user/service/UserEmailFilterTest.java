@@ -0,0 +1,79 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserEmailFilterTest {
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserEmailFilterProperties properties;
+    private UserEmailFilter userEmailFilter;
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new UserEmailFilterProperties();
+        properties.setEnabled(true);
+        userEmailFilter = new UserEmailFilter(userRepository, transactionManager, properties);
+    }
+
+    @Test
+    void mightExistWhenLoadedThenOnlyKnownEmailsInAnyCase() {
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("first@email.ru", "Second@Email.ru"));
+
+        userEmailFilter.load();
+
+        assertTrue(userEmailFilter.mightExist("FIRST@email.ru"));
+        assertTrue(userEmailFilter.mightExist("second@email.ru"));
+        assertFalse(userEmailFilter.mightExist("third@email.ru"));
+        assertEquals(2, userEmailFilter.size());
+    }
+
+    @Test
+    void mightExistWhenAddedAfterLoadThenKnown() {
+        when(userRepository.streamAllEmails()).thenReturn(Stream.empty());
+        userEmailFilter.load();
+
+        userEmailFilter.add("new@email.ru");
+
+        assertTrue(userEmailFilter.mightExist("new@email.ru"));
+    }
+
+    @Test
+    void mightExistWhenNotLoadedThenAlwaysTrue() {
+        assertTrue(userEmailFilter.mightExist("any@email.ru"));
+    }
+
+    @Test
+    void mightExistWhenLoadFailedThenAlwaysTrue() {
+        when(userRepository.streamAllEmails()).thenThrow(new QueryTimeoutException("timeout"));
+
+        userEmailFilter.load();
+
+        assertTrue(userEmailFilter.mightExist("any@email.ru"));
+    }
+
+    @Test
+    void loadWhenDisabledThenNothingRead() {
+        properties.setEnabled(false);
+
+        userEmailFilter.load();
+
+        assertTrue(userEmailFilter.mightExist("any@email.ru"));
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.user.event.UserCreatedEvent;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserIdSetTest {
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserIdSet userIdSet;
+
+    @BeforeEach
+    void beforeEach() {
+        userIdSet = new UserIdSet(userRepository, transactionManager);
+    }
+
+    @Test
+    void rebuildWhenUsersExistThenTheirIdsContained() {
+        when(userRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L, 100_000L));
+
+        userIdSet.rebuild();
+
+        assertTrue(userIdSet.contains(1L));
+        assertTrue(userIdSet.contains(100_000L));
+        assertFalse(userIdSet.contains(3L));
+        assertFalse(userIdSet.contains(null));
+        assertEquals(3, userIdSet.size());
+    }
+
+    @Test
+    void rebuildWhenUserCreatedDuringScanThenKept() {
+        when(userRepository.streamAllIds()).thenAnswer(invocation -> {
+            userIdSet.onUserCreated(new UserCreatedEvent(5L));
+            userIdSet.onUserDeleted(new UserDeletedEvent(1L));
+            return Stream.of(1L, 2L);
+        });
+
+        userIdSet.rebuild();
+
+        assertTrue(userIdSet.contains(5L));
+        assertTrue(userIdSet.contains(2L));
+        assertFalse(userIdSet.contains(1L));
+    }
+
+    @Test
+    void rebuildWhenScanFailsThenPreviousIdsKept() {
+        userIdSet.onUserCreated(new UserCreatedEvent(7L));
+        when(userRepository.streamAllIds()).thenThrow(new QueryTimeoutException("timeout"));
+
+        userIdSet.rebuild();
+
+        assertTrue(userIdSet.contains(7L));
+        userIdSet.onUserDeleted(new UserDeletedEvent(7L));
+        assertFalse(userIdSet.contains(7L));
+    }
+}
@@ -6,12 +6,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
+import ru.practicum.shareit.user.imports.UserImportFormat;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDeletionStep;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.transaction.Transactional;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -102,6 +110,48 @@ public class UserServiceIntegrationTest {
                 () -> userService.create(userDtoDuplicate));
     }
 
+    @Test
+    void createWhenEmailDiffersOnlyInCaseThenConflict() {
+        UserDto userDtoDuplicate = UserDto.builder()
+                .name("Duplicate")
+                .email("User@Email.ru").build();
+
+        assertThrows(ConflictException.class,
+                () -> userService.create(userDtoDuplicate));
+    }
+
+    @Test
+    void updateWhenEmailTakenByAnotherUserThenConflict() {
+        Long otherId = userService.create(UserDto.builder()
+                .name("Other")
+                .email("other@email.ru").build()).getId();
+
+        assertThrows(ConflictException.class,
+                () -> userService.update(otherId, UserDto.builder().email("user@email.ru").build()));
+    }
+
+    @Test
+    void updateWhenOwnEmailInOtherCaseThenUpdated() {
+        UserDto updated = userService.update(userId, UserDto.builder().email("USER@email.ru").build());
+
+        assertEquals("USER@email.ru", updated.getEmail());
+    }
+
+    @Test
+    void importUsersWhenEmailTakenThenOthersImported() throws IOException {
+        String ndjson = "{\"name\":\"First\",\"email\":\"first@email.ru\"}\n" +
+                "{\"name\":\"Taken\",\"email\":\"USER@email.ru\"}\n" +
+                "{\"name\":\"Second\",\"email\":\"second@email.ru\"}\n";
+
+        UserImportResultDto result = userService.importUsers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), UserImportFormat.NDJSON);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        assertThat(userService.findAll(0, 10), hasSize(3));
+    }
+
     @Test
     void delete() {
         TypedQuery<User> query = entityManager.createQuery("Select u from User u where u.email = :email", User.class);
@@ -109,11 +159,15 @@ public class UserServiceIntegrationTest {
         assertNotNull(user.getId());
 
         userService.delete(user.getId());
-        TypedQuery<User> queryAfterDelete = entityManager.createQuery(
-                "Select u from User u where u.email = :email", User.class);
-        List<User> userResult = queryAfterDelete.setParameter("email", userDto.getEmail()).getResultList();
-
-        assertTrue(userResult.isEmpty());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThrows(EntityNotFoundException.class, () -> userService.findById(user.getId()));
+        assertNotNull(entityManager.find(User.class, user.getId()).getDeletedAt());
+        UserDeletionDto deletion = userService.getDeletion(user.getId());
+        assertEquals(UserDeletionStep.COMMENTS, deletion.getStep());
+        assertNull(deletion.getFinished());
+        assertThat(userService.findAll(0, 10), empty());
     }
 
     @Test
@@ -5,18 +5,30 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.request.event.ItemRequestClosedEvent;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.event.UserCreatedEvent;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+import ru.practicum.shareit.user.imports.UserImporter;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDeletion;
+import ru.practicum.shareit.user.model.UserDeletionStep;
+import ru.practicum.shareit.user.repository.UserDeletionRepository;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.util.Pagination;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -25,11 +37,27 @@ public class UserServiceUnitTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserDeletionRepository userDeletionRepository;
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
     private UserMapper userMapper;
+    @Spy
+    private UserCache userCache = new UserCache(new UserCacheProperties());
+    @Mock
+    private UserIdSet userIdSet;
+    @Mock
+    private UserEmailFilter userEmailFilter;
+    @Mock
+    private UserImporter userImporter;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private UserServiceImpl userService;
     @Captor
     private ArgumentCaptor<User> userArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<UserDeletion> deletionArgumentCaptor;
 
     private Long userId;
     private User user;
@@ -54,7 +82,7 @@ public class UserServiceUnitTest {
         Pagination page = new Pagination(from, size);
         List<User> usersFromRepository = List.of(user);
         List<UserDto> expectedUsersDto = List.of(userDto);
-        when(userRepository.findAll(page)).thenReturn(new PageImpl<>(usersFromRepository));
+        when(userRepository.findAllByDeletedAtIsNull(page)).thenReturn(usersFromRepository);
         when(userMapper.userToDto(user)).thenReturn(userDto);
 
         List<UserDto> actualUsersDto = userService.findAll(from, size);
@@ -75,6 +103,42 @@ public class UserServiceUnitTest {
         assertEquals(expectedUserDto, actualUser);
     }
 
+    @Test
+    void findByIdWhenCalledTwiceThenUserLoadedOnce() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userMapper.userToDto(user)).thenReturn(userDto);
+
+        userService.findById(userId);
+        UserDto actualUser = userService.findById(userId);
+
+        assertEquals(userDto, actualUser);
+        Mockito.verify(userRepository, times(1)).findById(userId);
+        assertEquals(1L, userService.getCacheStats().getHits());
+    }
+
+    @Test
+    void findByIdWhenUserUpdatedThenReloaded() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userMapper.userToDto(user)).thenReturn(userDto);
+        userService.findById(userId);
+
+        userService.update(userId, UserDto.builder().name("Update").build());
+        userService.findById(userId);
+
+        Mockito.verify(userRepository, times(3)).findById(userId);
+    }
+
+    @Test
+    void findByIdWhenUserDeletedThenReloaded() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userMapper.userToDto(user)).thenReturn(userDto);
+        userService.findById(userId);
+
+        userService.delete(userId);
+
+        assertThrows(EntityNotFoundException.class, () -> userService.findById(userId));
+    }
+
     @Test
     void findByIdWhenUserNotFoundThenEntityNotFoundExceptionThrow() {
         when(userRepository.findById(userId))
@@ -86,6 +150,22 @@ public class UserServiceUnitTest {
         assertEquals("User id not found in storage", entityNotFoundException.getMessage());
     }
 
+    @Test
+    void checkExistsWhenIdInSetThenDatabaseNotQueried() {
+        when(userIdSet.contains(userId)).thenReturn(true);
+
+        userService.checkExists(userId);
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void checkExistsWhenIdNotInSetThenUserLookedUp() {
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> userService.checkExists(userId));
+    }
+
     @Test
     void createWhenCreateUserReturnUserDto() {
         when(userMapper.userFromDto(userDto)).thenReturn(user);
@@ -97,13 +177,97 @@ public class UserServiceUnitTest {
 
         assertEquals(userDto, actualUserDto);
         Mockito.verify(userRepository).save(user);
+        Mockito.verify(eventPublisher).publishEvent(any(UserCreatedEvent.class));
+    }
+
+    @Test
+    void createWhenEmailTakenThenConflictExceptionThrownWithoutInsert() {
+        when(userEmailFilter.mightExist("email@email.ru")).thenReturn(true);
+        when(userRepository.existsByEmailIgnoreCase("email@email.ru")).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> userService.create(userDto));
+
+        Mockito.verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void createWhenFilterRulesEmailOutThenDuplicateQuerySkipped() {
+        when(userMapper.userFromDto(userDto)).thenReturn(user);
+        when(userRepository.save(user)).thenReturn(user);
+
+        userService.create(userDto);
+
+        Mockito.verify(userRepository, never()).existsByEmailIgnoreCase(any());
+        Mockito.verify(userEmailFilter).add(user.getEmail());
+    }
+
+    @Test
+    void createWhenInsertViolatesUniqueIndexThenConflictExceptionThrow() {
+        when(userMapper.userFromDto(userDto)).thenReturn(user);
+        when(userRepository.save(user)).thenThrow(new DataIntegrityViolationException("uq_users_email_lower"));
+
+        assertThrows(ConflictException.class, () -> userService.create(userDto));
+    }
+
+    @Test
+    void updateWhenEmailTakenByAnotherUserThenConflictExceptionThrow() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userEmailFilter.mightExist("taken@email.ru")).thenReturn(true);
+        when(userRepository.existsByEmailIgnoreCaseAndIdNot("taken@email.ru", userId)).thenReturn(true);
+
+        assertThrows(ConflictException.class,
+                () -> userService.update(userId, UserDto.builder().email("taken@email.ru").build()));
+
+        assertEquals("email@email.ru", user.getEmail());
+        Mockito.verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
-    void deleteWhenInvokeThenInvokeUserRepository() {
+    void updateWhenEmailOnlyChangesCaseThenNotChecked() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        userService.update(userId, UserDto.builder().email("EMAIL@email.ru").build());
+
+        assertEquals("EMAIL@email.ru", user.getEmail());
+        Mockito.verify(userEmailFilter, never()).mightExist(any());
+        Mockito.verify(userRepository, never()).existsByEmailIgnoreCaseAndIdNot(any(), any());
+    }
+
+    @Test
+    void deleteWhenInvokeThenUserMarkedAndDeletionRecorded() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
         userService.delete(userId);
 
-        Mockito.verify(userRepository).deleteById(0L);
+        assertNotNull(user.getDeletedAt());
+        Mockito.verify(userRepository, never()).deleteById(any());
+        Mockito.verify(userDeletionRepository).save(deletionArgumentCaptor.capture());
+        UserDeletion deletion = deletionArgumentCaptor.getValue();
+        assertEquals(userId, deletion.getUserId());
+        assertEquals(UserDeletionStep.COMMENTS, deletion.getStep());
+        assertEquals(user.getDeletedAt(), deletion.getRequested());
+        Mockito.verify(eventPublisher).publishEvent(any(UserDeletedEvent.class));
+    }
+
+    @Test
+    void deleteWhenUserHasOpenRequestsThenRequestsClosedForFeedAndMatcher() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findOpenIdsByRequestorId(userId)).thenReturn(List.of(3L, 8L));
+
+        userService.delete(userId);
+
+        Mockito.verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof ItemRequestClosedEvent &&
+                        ((ItemRequestClosedEvent) event).getRequestIds().equals(List.of(3L, 8L))));
+    }
+
+    @Test
+    void deleteWhenUserAlreadyDeletedThenEntityNotFoundExceptionThrow() {
+        user.setDeletedAt(LocalDateTime.now());
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        assertThrows(EntityNotFoundException.class, () -> userService.delete(userId));
+        Mockito.verifyNoInteractions(userDeletionRepository);
     }
 
     @Test
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdBitmapTest {
+
+    @Test
+    void addWhenIdsSparseThenContainedAndOthersNot() {
+        IdBitmap bitmap = new IdBitmap();
+
+        assertTrue(bitmap.add(1L));
+        assertTrue(bitmap.add(70_000L));
+        assertTrue(bitmap.add(5_000_000_000L));
+        assertFalse(bitmap.add(70_000L));
+
+        assertTrue(bitmap.contains(1L));
+        assertTrue(bitmap.contains(70_000L));
+        assertTrue(bitmap.contains(5_000_000_000L));
+        assertFalse(bitmap.contains(2L));
+        assertFalse(bitmap.contains(-1L));
+        assertEquals(3, bitmap.cardinality());
+    }
+
+    @Test
+    void addWhenContainerDenseThenSwitchedToBitmapAndBackOnRemove() {
+        IdBitmap bitmap = new IdBitmap();
+        for (long id = 0; id < 10_000; id++) {
+            bitmap.add(id * 3);
+        }
+
+        assertEquals(10_000, bitmap.cardinality());
+        assertTrue(bitmap.contains(29_997L));
+        assertFalse(bitmap.contains(29_998L));
+        assertEquals(8192, bitmap.sizeInBytes());
+
+        for (long id = 0; id < 6_000; id++) {
+            assertTrue(bitmap.remove(id * 3));
+        }
+
+        assertEquals(4_000, bitmap.cardinality());
+        assertFalse(bitmap.contains(0L));
+        assertTrue(bitmap.contains(18_000L));
+        assertFalse(bitmap.contains(18_001L));
+    }
+
+    @Test
+    void removeWhenLastIdOfContainerThenContainerDropped() {
+        IdBitmap bitmap = new IdBitmap();
+        bitmap.add(42L);
+
+        assertTrue(bitmap.remove(42L));
+        assertFalse(bitmap.remove(42L));
+
+        assertFalse(bitmap.contains(42L));
+        assertEquals(0, bitmap.cardinality());
+        assertEquals(0, bitmap.sizeInBytes());
+    }
+
+    @Test
+    void addWhenIdNegativeThenIllegalArgumentExceptionThrow() {
+        IdBitmap bitmap = new IdBitmap();
+
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1L));
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalCacheTest {
+
+    @Test
+    void getWhenValueCachedThenLoaderInvokedOnce() {
+        LocalCache<Long, String> cache = new LocalCache<>(10, null);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, key -> "value" + loads.incrementAndGet());
+        String value = cache.get(1L, key -> "value" + loads.incrementAndGet());
+
+        assertEquals("value1", value);
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.getHitCount());
+        assertEquals(1L, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void putWhenSizeExceededThenLeastRecentlyUsedEvicted() {
+        LocalCache<Long, String> cache = new LocalCache<>(2, null);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.getIfPresent(1L);
+
+        cache.put(3L, "three");
+
+        assertEquals(2, cache.size());
+        assertEquals("one", cache.getIfPresent(1L));
+        assertNull(cache.getIfPresent(2L));
+        assertEquals(1L, cache.getEvictionCount());
+    }
+
+    @Test
+    void getIfPresentWhenTtlElapsedThenEntryExpired() throws InterruptedException {
+        LocalCache<Long, String> cache = new LocalCache<>(10, Duration.ofMillis(1));
+        cache.put(1L, "one");
+
+        Thread.sleep(5);
+
+        assertNull(cache.getIfPresent(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidateWhenInvokeThenEntryRemoved() {
+        LocalCache<Long, String> cache = new LocalCache<>(10, null);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        cache.invalidate(1L);
+
+        assertNull(cache.getIfPresent(1L));
+        assertEquals("two", cache.getIfPresent(2L));
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void getWhenLoaderReturnsNullThenNothingCached() {
+        LocalCache<Long, String> cache = new LocalCache<>(10, null);
+
+        assertNull(cache.get(1L, key -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void getWhenKeyInvalidatedWhileLoadingThenLoadedValueNotStored() {
+        LocalCache<Long, String> cache = new LocalCache<>(10, null);
+
+        String value = cache.get(1L, key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertEquals("stale", value);
+        assertNull(cache.getIfPresent(1L));
+        assertEquals("fresh", cache.get(1L, key -> "fresh"));
+        assertEquals("fresh", cache.getIfPresent(1L));
+    }
+
+    @Test
+    void putWhenManyKeysThenSizeStaysWithinBound() throws InterruptedException {
+        LocalCache<Long, Long> cache = new LocalCache<>(1024, null);
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            long offset = i * 10_000L;
+            writers[i] = new Thread(() -> {
+                for (long key = offset; key < offset + 5_000; key++) {
+                    cache.get(key, k -> k);
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertTrue(cache.size() <= 1024);
+        assertEquals(20_000L, cache.getMissCount());
+        assertEquals(20_000L - cache.size(), cache.getEvictionCount());
+    }
+}